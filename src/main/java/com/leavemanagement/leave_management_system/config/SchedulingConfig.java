@@ -0,0 +1,15 @@
+package com.leavemanagement.leave_management_system.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Runs the @Scheduled background jobs (ledger folds, outbox relay, provisioning, accruals, cache refreshes).
+ * The reminder emails in NotificationService stay off unless their cron properties are set.
+ */
+@Configuration
+@EnableScheduling
+@ConditionalOnProperty(name = "app.scheduling.enabled", havingValue = "true", matchIfMissing = true)
+public class SchedulingConfig {
+}
@@ -0,0 +1,40 @@
+package com.leavemanagement.leave_management_system.controller;
+
+import com.leavemanagement.leave_management_system.dto.CacheStatsDTO;
+import com.leavemanagement.leave_management_system.service.IdempotencyService;
+import com.leavemanagement.leave_management_system.service.LeaveBalanceCache;
+import com.leavemanagement.leave_management_system.service.ReportStatisticsCache;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/v1/admin/caches")
+@RequiredArgsConstructor
+public class CacheController {
+    private final LeaveBalanceCache balanceCache;
+    private final ReportStatisticsCache reportStatisticsCache;
+    private final IdempotencyService idempotencyService;
+
+    // Hit, miss and eviction counts of the leave balance cache since startup
+    @GetMapping("/leave-balances")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<CacheStatsDTO> getLeaveBalanceCacheStats() {
+        return ResponseEntity.ok(balanceCache.stats());
+    }
+
+    // Hit, miss and eviction counts of the report statistics cache since startup
+    @GetMapping("/report-statistics")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<CacheStatsDTO> getReportStatisticsCacheStats() {
+        return ResponseEntity.ok(reportStatisticsCache.stats());
+    }
+
+    // Hit, miss and eviction counts of the recent idempotent responses since startup
+    @GetMapping("/idempotency")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<CacheStatsDTO> getIdempotencyCacheStats() {
+        return ResponseEntity.ok(idempotencyService.stats());
+    }
+}
@@ -128,8 +128,9 @@ public class CalendarController {
     @GetMapping("/holidays")
     public ResponseEntity<List<HolidayDTO>> getHolidays(
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
-            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
-        return ResponseEntity.ok(calendarService.getHolidays(startDate, endDate));
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam(required = false) UUID countryId) {
+        return ResponseEntity.ok(calendarService.getHolidays(startDate, endDate, countryId));
     }
 
     @GetMapping("/team/{departmentId}")
@@ -0,0 +1,29 @@
+package com.leavemanagement.leave_management_system.controller;
+
+import com.leavemanagement.leave_management_system.dto.LeaveAccrualRunDTO;
+import com.leavemanagement.leave_management_system.service.LeaveAccrualService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.YearMonth;
+
+@RestController
+@RequestMapping("/api/v1/admin/accruals")
+@RequiredArgsConstructor
+public class LeaveAccrualController {
+    private final LeaveAccrualService accrualService;
+
+    // Posts the current month's accruals now, e.g. after bulk hire date corrections
+    @PostMapping("/run")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<LeaveAccrualRunDTO> runAccrual() {
+        try {
+            return ResponseEntity.ok(accrualService.runAccrual(YearMonth.now()));
+        } catch (IllegalStateException e) {
+            return new ResponseEntity<>(HttpStatus.CONFLICT);
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.leavemanagement.leave_management_system.controller;
+
+import com.leavemanagement.leave_management_system.dto.LeaveBalanceProvisioningRunDTO;
+import com.leavemanagement.leave_management_system.service.LeaveBalanceProvisioningService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/v1/admin/balance-provisioning")
+@RequiredArgsConstructor
+public class LeaveBalanceProvisioningController {
+    private final LeaveBalanceProvisioningService provisioningService;
+
+    // Starts (or resumes) provisioning in the background; poll the GET endpoint for progress
+    @PostMapping("/{year}")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<LeaveBalanceProvisioningRunDTO> startProvisioning(@PathVariable int year) {
+        try {
+            return new ResponseEntity<>(provisioningService.startProvisioning(year), HttpStatus.ACCEPTED);
+        } catch (IllegalStateException e) {
+            // Already running on this instance
+            return new ResponseEntity<>(provisioningService.getRun(year), HttpStatus.CONFLICT);
+        }
+    }
+
+    @GetMapping("/{year}")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<LeaveBalanceProvisioningRunDTO> getProvisioningRun(@PathVariable int year) {
+        return ResponseEntity.ok(provisioningService.getRun(year));
+    }
+}
@@ -2,9 +2,11 @@ package com.leavemanagement.leave_management_system.controller;
 
 import com.leavemanagement.leave_management_system.dto.*;
 import com.leavemanagement.leave_management_system.service.DocumentService;
+import com.leavemanagement.leave_management_system.service.IdempotencyService;
 import com.leavemanagement.leave_management_system.service.LeaveService;
 import com.leavemanagement.leave_management_system.util.SecurityUtils;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
@@ -13,9 +15,10 @@ import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
-import java.util.ArrayList;
+import java.io.UncheckedIOException;
 import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -26,6 +29,12 @@ public class LeaveController {
     private final LeaveService leaveService;
     private final DocumentService documentService;
     private final SecurityUtils securityUtils;
+    private final IdempotencyService idempotencyService;
+
+    private static final Logger logger = LoggerFactory.getLogger(LeaveController.class);
+
+    @Value("${app.leave.bulk-decisions.max-size:500}")
+    private int maxBulkDecisions;
 
     // ADMIN only can create leave types
     @PostMapping("/types")
@@ -57,51 +66,56 @@ public class LeaveController {
         return ResponseEntity.ok(leaveService.getUserLeaveRequests(userId));
     }
 
-    // Users can create leave requests
+    // Users can create leave requests; retries carrying the same Idempotency-Key replay the first response
     @PostMapping("/requests")
     @PreAuthorize("hasAnyRole('STAFF', 'MANAGER', 'ADMIN')")
-    public ResponseEntity<LeaveRequestDTO> createLeaveRequest(@RequestBody LeaveRequestCreateDTO createDTO) {
+    public ResponseEntity<LeaveRequestDTO> createLeaveRequest(
+            @RequestBody LeaveRequestCreateDTO createDTO,
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey) {
         UUID userId = securityUtils.getCurrentUserId();
-        return new ResponseEntity<>(leaveService.createLeaveRequest(userId, createDTO), HttpStatus.CREATED);
+        return idempotencyService.execute(userId, "POST /requests", idempotencyKey, createDTO, LeaveRequestDTO.class,
+                () -> new ResponseEntity<>(leaveService.createLeaveRequest(userId, createDTO), HttpStatus.CREATED));
+    }
+
+    // Users can check what a leave request would cost before submitting it; nothing is saved
+    @PostMapping("/requests/simulate")
+    @PreAuthorize("hasAnyRole('STAFF', 'MANAGER', 'ADMIN')")
+    public ResponseEntity<LeaveSimulationDTO> simulateLeaveRequest(@RequestBody LeaveRequestCreateDTO createDTO) {
+        UUID userId = securityUtils.getCurrentUserId();
+        return ResponseEntity.ok(leaveService.simulateLeaveRequest(userId, createDTO));
     }
 
     @PostMapping(value = "/requests/with-documents", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
     @PreAuthorize("hasAnyRole('STAFF', 'MANAGER', 'ADMIN')")
     public ResponseEntity<LeaveRequestDTO> createLeaveRequestWithDocuments(
             @RequestPart("leaveRequest") LeaveRequestCreateDTO createDTO,
-            @RequestPart(value = "files", required = false) List<MultipartFile> files) {
+            @RequestPart(value = "files", required = false) List<MultipartFile> files,
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey) {
 
         UUID userId = securityUtils.getCurrentUserId();
 
+        // Files are identified by name, size and type rather than hashing their content
+        List<String> fileDescriptors = files == null ? List.of() : files.stream()
+                .map(file -> file.getOriginalFilename() + ":" + file.getSize() + ":" + file.getContentType())
+                .toList();
+        // Files are uploaded concurrently before the transaction; the request and its documents are then
+        // created in one transaction, and the uploads are removed again if it does not commit
+        return idempotencyService.execute(userId, "POST /requests/with-documents", idempotencyKey,
+                List.of(createDTO, fileDescriptors), LeaveRequestDTO.class,
+                () -> uploadLeaveAttachments(userId, files),
+                uploads -> new ResponseEntity<>(leaveService.createLeaveRequest(userId, createDTO, uploads), HttpStatus.CREATED),
+                documentService::deleteUploads);
+    }
+
+    private List<UploadedDocumentDTO> uploadLeaveAttachments(UUID userId, List<MultipartFile> files) {
+        if (files == null || files.isEmpty()) {
+            return List.of();
+        }
         try {
-            // First create the leave request without documents
-            LeaveRequestDTO leaveRequestDTO = leaveService.createLeaveRequest(userId, createDTO);
-
-            // Then upload and associate documents if any
-            if (files != null && !files.isEmpty()) {
-                List<UUID> documentIds = new ArrayList<>();
-
-                for (MultipartFile file : files) {
-                    try {
-                        // Use the DocumentService to upload to S3 and create document records
-                        DocumentDTO documentDTO = documentService.uploadDocument(userId, file, leaveRequestDTO.getId());
-                        documentIds.add(documentDTO.getId());
-                    } catch (IOException e) {
-//                        logger.error("Error uploading document for leave request: {}", leaveRequestDTO.getId(), e);
-                        // Continue processing other files
-                    }
-                }
-
-                // If documents were successfully uploaded, retrieve the updated leave request
-                if (!documentIds.isEmpty()) {
-                    return ResponseEntity.ok(leaveService.getLeaveRequest(leaveRequestDTO.getId()));
-                }
-            }
-
-            return new ResponseEntity<>(leaveRequestDTO, HttpStatus.CREATED);
-        } catch (Exception e) {
-//            logger.error("Error creating leave request with documents", e);
-            return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
+            return documentService.uploadLeaveAttachments(userId, files);
+        } catch (IOException e) {
+            logger.error("Error uploading documents for leave request", e);
+            throw new UncheckedIOException("Could not upload leave request documents", e);
         }
     }
 
@@ -118,14 +132,36 @@ public class LeaveController {
     public ResponseEntity<LeaveRequestDTO> updateLeaveRequestStatus(
             @PathVariable UUID requestId,
             @RequestBody LeaveRequestUpdateDTO updateDTO) {
-        return ResponseEntity.ok(leaveService.updateLeaveRequestStatus(requestId, updateDTO));
+        return ResponseEntity.ok(leaveService.updateLeaveRequestStatus(requestId, updateDTO, securityUtils.getCurrentUserId()));
     }
 
-    // Only managers and admins can view pending approvals
+    // Only managers and admins can decide on leave requests in bulk
+    @PostMapping("/requests/decisions")
+    @PreAuthorize("hasAnyRole('MANAGER', 'ADMIN')")
+    public ResponseEntity<BulkLeaveDecisionResponseDTO> updateLeaveRequestStatuses(
+            @RequestBody List<LeaveRequestUpdateDTO> decisions) {
+        if (decisions == null || decisions.isEmpty() || decisions.size() > maxBulkDecisions) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        long startTime = System.nanoTime();
+        List<LeaveDecisionResultDTO> results = leaveService.updateLeaveRequestStatuses(decisions, securityUtils.getCurrentUserId());
+        long succeeded = results.stream().filter(LeaveDecisionResultDTO::isSuccess).count();
+
+        return ResponseEntity.ok(BulkLeaveDecisionResponseDTO.builder()
+                .requested(decisions.size())
+                .succeeded((int) succeeded)
+                .failed(results.size() - (int) succeeded)
+                .elapsedMillis(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime))
+                .results(results)
+                .build());
+    }
+
+    // Only managers and admins can view their pending approvals
     @GetMapping("/approvals")
     @PreAuthorize("hasAnyRole('MANAGER', 'ADMIN')")
     public ResponseEntity<List<LeaveRequestDTO>> getPendingApprovals() {
-        return ResponseEntity.ok(leaveService.getPendingApprovals());
+        return ResponseEntity.ok(leaveService.getPendingApprovals(securityUtils.getCurrentUserId()));
     }
 
     // Only admins can adjust leave balances
@@ -135,4 +171,11 @@ public class LeaveController {
 //        logger.debug("Received adjustment request: {}", adjustmentDTO);
         return ResponseEntity.ok(leaveService.adjustLeaveBalance(adjustmentDTO));
     }
+
+    // Only admins can view the change history of a balance
+    @GetMapping("/balances/{balanceId}/ledger")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<LeaveBalanceLedgerDTO> getLeaveBalanceLedger(@PathVariable UUID balanceId) {
+        return ResponseEntity.ok(leaveService.getLeaveBalanceLedger(balanceId));
+    }
 }
\ No newline at end of file
@@ -0,0 +1,22 @@
+package com.leavemanagement.leave_management_system.controller;
+
+import com.leavemanagement.leave_management_system.service.LeaveDayFactService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/v1/admin/leave-day-facts")
+@RequiredArgsConstructor
+public class LeaveDayFactController {
+    private final LeaveDayFactService leaveDayFactService;
+
+    // Rewrites the report facts in the background; a request while a rebuild runs queues one more pass
+    @PostMapping("/rebuild")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Void> rebuild() {
+        return new ResponseEntity<>(leaveDayFactService.startRebuild() ? HttpStatus.ACCEPTED : HttpStatus.CONFLICT);
+    }
+}
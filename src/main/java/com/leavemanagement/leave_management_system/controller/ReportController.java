@@ -3,13 +3,17 @@ package com.leavemanagement.leave_management_system.controller;
 import com.leavemanagement.leave_management_system.dto.LeaveReportDTO;
 import com.leavemanagement.leave_management_system.dto.LeaveStatisticsDTO;
 import com.leavemanagement.leave_management_system.service.ReportExportService;
+import com.leavemanagement.leave_management_system.service.ReportStatisticsCache;
 import com.leavemanagement.leave_management_system.service.ReportStatisticsService;
 import com.leavemanagement.leave_management_system.util.SecurityUtils;
 import lombok.RequiredArgsConstructor;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import java.time.LocalDate;
 import java.util.List;
 import java.util.UUID;
@@ -31,10 +35,7 @@ public class ReportController {
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
 
         UUID currentUserId = securityUtils.getCurrentUserId();
-        LeaveStatisticsDTO statistics = reportStatisticsService.getEmployeeLeaveStatistics(
-                currentUserId, startDate, endDate);
-
-        return ResponseEntity.ok(statistics);
+        return statisticsResponse(new ReportStatisticsCache.Key("EMPLOYEE", currentUserId, startDate, endDate));
     }
 
     /**
@@ -47,10 +48,7 @@ public class ReportController {
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
 
-        LeaveStatisticsDTO statistics = reportStatisticsService.getEmployeeLeaveStatistics(
-                userId, startDate, endDate);
-
-        return ResponseEntity.ok(statistics);
+        return statisticsResponse(new ReportStatisticsCache.Key("EMPLOYEE", userId, startDate, endDate));
     }
 
     /**
@@ -63,10 +61,7 @@ public class ReportController {
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
 
-        LeaveStatisticsDTO statistics = reportStatisticsService.getDepartmentLeaveStatistics(
-                departmentId, startDate, endDate);
-
-        return ResponseEntity.ok(statistics);
+        return statisticsResponse(new ReportStatisticsCache.Key("DEPARTMENT", departmentId, startDate, endDate));
     }
 
     /**
@@ -79,10 +74,7 @@ public class ReportController {
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
 
-        LeaveStatisticsDTO statistics = reportStatisticsService.getLeaveTypeStatistics(
-                leaveTypeId, startDate, endDate);
-
-        return ResponseEntity.ok(statistics);
+        return statisticsResponse(new ReportStatisticsCache.Key("LEAVE_TYPE", leaveTypeId, startDate, endDate));
     }
 
     /**
@@ -94,10 +86,7 @@ public class ReportController {
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
 
-        LeaveStatisticsDTO statistics = reportStatisticsService.getCompanyLeaveStatistics(
-                startDate, endDate);
-
-        return ResponseEntity.ok(statistics);
+        return statisticsResponse(new ReportStatisticsCache.Key("COMPANY", null, startDate, endDate));
     }
 
     /**
@@ -132,4 +121,57 @@ public class ReportController {
 
         return ResponseEntity.ok(reportData);
     }
+
+    /**
+     * Stream leave report data for a specific entity as NDJSON, one row per line
+     */
+    @GetMapping(value = "/{reportType}/{entityId}/data/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @PreAuthorize("hasRole('MANAGER') or hasRole('ADMIN') or " +
+            "(#reportType == 'EMPLOYEE' and #entityId == T(java.util.UUID).fromString(authentication.principal.userId))")
+    public ResponseEntity<StreamingResponseBody> streamLeaveReportData(
+            @PathVariable String reportType,
+            @PathVariable UUID entityId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
+
+        return reportStream(reportType, entityId, startDate, endDate);
+    }
+
+    /**
+     * Stream company-wide leave report data as NDJSON (admins only)
+     */
+    @GetMapping(value = "/company/data/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<StreamingResponseBody> streamCompanyReportData(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
+
+        return reportStream("COMPANY", null, startDate, endDate);
+    }
+
+    /**
+     * The body is written after the handler returns, on an async thread with its own read-only transaction.
+     * The request is validated here, while an error can still change the status.
+     */
+    private ResponseEntity<StreamingResponseBody> reportStream(String reportType, UUID entityId,
+                                                               LocalDate startDate, LocalDate endDate) {
+        reportStatisticsService.validateReportRequest(reportType, startDate, endDate);
+        StreamingResponseBody body = out ->
+                reportStatisticsService.streamLeaveReportData(reportType, entityId, startDate, endDate, out);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
+
+    /**
+     * Statistics with a weak ETag. Spring answers a matching If-None-Match with 304 and no body, and a
+     * cached result is not recomputed either way.
+     */
+    private ResponseEntity<LeaveStatisticsDTO> statisticsResponse(ReportStatisticsCache.Key key) {
+        ReportStatisticsCache.Result result = reportStatisticsService.getStatistics(key);
+        return ResponseEntity.ok()
+                .eTag(result.etag())
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .body(result.statistics());
+    }
 }
\ No newline at end of file
@@ -0,0 +1,20 @@
+package com.leavemanagement.leave_management_system.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkLeaveDecisionResponseDTO {
+    private int requested;
+    private int succeeded;
+    private int failed;
+    private long elapsedMillis;
+    private List<LeaveDecisionResultDTO> results;
+}
@@ -0,0 +1,22 @@
+package com.leavemanagement.leave_management_system.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CacheStatsDTO {
+    private String name;
+    private int size;
+    private int maxSize;
+    private long ttlSeconds;
+    private long hits;
+    private long misses;
+    private long evictions;
+    private long invalidations;
+    private double hitRate;
+}
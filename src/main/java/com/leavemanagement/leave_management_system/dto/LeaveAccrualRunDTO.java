@@ -0,0 +1,21 @@
+package com.leavemanagement.leave_management_system.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class LeaveAccrualRunDTO {
+    private Integer year;
+    private Integer month;
+    private boolean fullRun;
+    private int balancesUpdated;
+    private LocalDateTime startedAt;
+    private LocalDateTime completedAt;
+}
@@ -22,5 +22,6 @@ public class LeaveBalanceDTO {
     private BigDecimal usedDays;
     private BigDecimal pendingDays;
     private BigDecimal adjustmentDays;
+    private BigDecimal carriedOverDays;
     private BigDecimal availableDays;
 }
\ No newline at end of file
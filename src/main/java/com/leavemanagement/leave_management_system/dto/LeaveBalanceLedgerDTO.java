@@ -0,0 +1,25 @@
+package com.leavemanagement.leave_management_system.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class LeaveBalanceLedgerDTO {
+    private UUID balanceId;
+    private LocalDateTime snapshotAsOf;
+    private BigDecimal totalDays;
+    private BigDecimal usedDays;
+    private BigDecimal pendingDays;
+    private BigDecimal availableDays;
+    private List<LeaveBalanceTransactionDTO> transactions;
+}
@@ -0,0 +1,24 @@
+package com.leavemanagement.leave_management_system.dto;
+
+import com.leavemanagement.leave_management_system.enums.ProvisioningStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class LeaveBalanceProvisioningRunDTO {
+    private Integer year;
+    private ProvisioningStatus status;
+    private long usersProcessed;
+    private long balancesCreated;
+    private LocalDateTime startedAt;
+    private LocalDateTime updatedAt;
+    private LocalDateTime completedAt;
+    private String lastError;
+}
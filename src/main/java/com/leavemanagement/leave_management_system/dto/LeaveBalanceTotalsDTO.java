@@ -0,0 +1,18 @@
+package com.leavemanagement.leave_management_system.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LeaveBalanceTotalsDTO {
+    private UUID balanceId;
+    private BigDecimal totalDays;
+    private BigDecimal usedDays;
+    private BigDecimal pendingDays;
+}
@@ -0,0 +1,26 @@
+package com.leavemanagement.leave_management_system.dto;
+
+import com.leavemanagement.leave_management_system.enums.LeaveBalanceTransactionType;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class LeaveBalanceTransactionDTO {
+    private UUID id;
+    private LeaveBalanceTransactionType type;
+    private BigDecimal totalDelta;
+    private BigDecimal usedDelta;
+    private BigDecimal pendingDelta;
+    private UUID leaveRequestId;
+    private String reason;
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,20 @@
+package com.leavemanagement.leave_management_system.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.UUID;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class LeaveDecisionResultDTO {
+    private UUID requestId;
+    private boolean success;
+    private String status;
+    private String error;
+    private String coverageWarning;
+}
@@ -0,0 +1,18 @@
+package com.leavemanagement.leave_management_system.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.UUID;
+
+// A leave request as projected by the reminder queries in NotificationRepository
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LeaveReminderDTO {
+    private UUID id;
+    private UUID userId;
+    private String leaveTypeName;
+    private UUID departmentId;
+}
@@ -0,0 +1,28 @@
+package com.leavemanagement.leave_management_system.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.UUID;
+
+// One report row as projected by the streaming report queries, before it becomes a LeaveReportDTO
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LeaveReportRowDTO {
+    private UUID id;
+    private String employeeName;
+    private String employeeEmail;
+    private String departmentName;
+    private String leaveTypeName;
+    private LocalDate startDate;
+    private LocalDate endDate;
+    private String status;
+    private BigDecimal leaveDuration;
+    private Boolean fullDay;
+    private String reason;
+    private String comments;
+}
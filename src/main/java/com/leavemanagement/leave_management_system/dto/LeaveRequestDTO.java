@@ -36,4 +36,5 @@ public class LeaveRequestDTO {
     private String comments;
     private List<DocumentDTO> documents;
     private BigDecimal leaveDuration;
+    private String coverageWarning;  // Set when the leave drops department coverage below the minimum
 }
@@ -0,0 +1,29 @@
+package com.leavemanagement.leave_management_system.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class LeaveSimulationDTO {
+    private UUID leaveTypeId;
+    private String leaveTypeName;
+    private LocalDate startDate;
+    private LocalDate endDate;
+    private Boolean fullDay;
+    private BigDecimal leaveDuration;  // Business days the request would cost
+    private BigDecimal availableDays;  // Available before the request
+    private BigDecimal remainingDays;  // Available after the request
+    private boolean allowed;           // Whether submitting it now would succeed
+    private List<String> violations;   // Reasons submission would be rejected
+    private List<String> warnings;     // Accepted, but worth knowing
+}
@@ -0,0 +1,18 @@
+package com.leavemanagement.leave_management_system.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// A file already stored in S3 that has no document record yet
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class UploadedDocumentDTO {
+    private String filename;
+    private String fileType;
+    private String fileUrl;
+    private String s3Key;
+}
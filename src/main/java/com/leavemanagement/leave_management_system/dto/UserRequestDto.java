@@ -9,6 +9,7 @@ import lombok.NoArgsConstructor;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
+import java.time.LocalDate;
 import java.util.UUID;
 
 @Data
@@ -35,4 +36,5 @@ public class UserRequestDto {
     private UUID departmentId;
 
     private String profilePicUrl;
+    private LocalDate hireDate;
 }
\ No newline at end of file
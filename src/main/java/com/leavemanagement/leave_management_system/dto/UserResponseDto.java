@@ -6,6 +6,7 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.time.LocalDate;
 import java.util.UUID;
 
 @Data
@@ -29,4 +30,5 @@ public class UserResponseDto {
     private String departmentName;
 
     private String profilePicUrl;
+    private LocalDate hireDate;
 }
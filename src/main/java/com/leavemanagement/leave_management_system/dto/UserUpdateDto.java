@@ -5,6 +5,7 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import java.time.LocalDate;
 import java.util.UUID;
 
 @Data
@@ -24,5 +25,6 @@ public class UserUpdateDto {
     private UUID departmentId;
 
     private String profilePicUrl;
+    private LocalDate hireDate;
 }
 
@@ -0,0 +1,7 @@
+package com.leavemanagement.leave_management_system.enums;
+
+public enum ApprovalLevel {
+    MANAGER,          // The requester's direct manager
+    DEPARTMENT_HEAD,  // Head of the requester's department
+    HR                // Any admin
+}
@@ -0,0 +1,9 @@
+package com.leavemanagement.leave_management_system.enums;
+
+public enum ApprovalStepStatus {
+    WAITING,   // Later in the chain; not in anyone's inbox yet
+    PENDING,   // In the approver's inbox
+    APPROVED,
+    REJECTED,
+    SKIPPED    // Closed without a decision by this approver
+}
@@ -0,0 +1,6 @@
+package com.leavemanagement.leave_management_system.enums;
+
+public enum CoverageMode {
+    BLOCK,  // Reject leave that would leave a department under-staffed
+    WARN    // Accept it, returning a warning with the request
+}
@@ -0,0 +1,9 @@
+package com.leavemanagement.leave_management_system.enums;
+
+public enum LeaveBalanceTransactionType {
+    ACCRUAL,
+    PENDING,
+    APPROVE,
+    REJECT,
+    ADJUST
+}
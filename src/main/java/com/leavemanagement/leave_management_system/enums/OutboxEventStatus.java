@@ -0,0 +1,8 @@
+package com.leavemanagement.leave_management_system.enums;
+
+public enum OutboxEventStatus {
+    PENDING,
+    PROCESSING,
+    PROCESSED,
+    FAILED
+}
@@ -0,0 +1,7 @@
+package com.leavemanagement.leave_management_system.enums;
+
+public enum ProvisioningStatus {
+    RUNNING,
+    COMPLETED,
+    FAILED
+}
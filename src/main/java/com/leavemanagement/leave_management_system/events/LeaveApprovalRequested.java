@@ -0,0 +1,12 @@
+package com.leavemanagement.leave_management_system.events;
+
+import com.leavemanagement.leave_management_system.dto.LeaveRequestDTO;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * A leave request was approved at one level of its approval chain and awaits the next approvers
+ */
+public record LeaveApprovalRequested(LeaveRequestDTO leaveRequest, List<UUID> approverIds) implements LeaveEvent {
+}
@@ -0,0 +1,9 @@
+package com.leavemanagement.leave_management_system.events;
+
+import com.leavemanagement.leave_management_system.dto.LeaveRequestDTO;
+
+/**
+ * A manager approved or rejected a leave request
+ */
+public record LeaveDecided(LeaveRequestDTO leaveRequest, String status) implements LeaveEvent {
+}
@@ -0,0 +1,11 @@
+package com.leavemanagement.leave_management_system.events;
+
+import com.leavemanagement.leave_management_system.dto.LeaveRequestDTO;
+
+/**
+ * Domain event raised by a leave request change. Events are stored in the outbox in the same
+ * transaction as the change and handled asynchronously once it has committed.
+ */
+public sealed interface LeaveEvent permits LeaveSubmitted, LeaveApprovalRequested, LeaveDecided {
+    LeaveRequestDTO leaveRequest();
+}
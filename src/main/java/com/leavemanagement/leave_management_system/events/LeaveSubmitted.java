@@ -0,0 +1,13 @@
+package com.leavemanagement.leave_management_system.events;
+
+import com.leavemanagement.leave_management_system.dto.LeaveRequestDTO;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * A leave request was submitted and is pending approval by the approvers of its first approval step
+ * (null for events stored before approval routing, whose department managers are notified instead)
+ */
+public record LeaveSubmitted(LeaveRequestDTO leaveRequest, List<UUID> approverIds) implements LeaveEvent {
+}
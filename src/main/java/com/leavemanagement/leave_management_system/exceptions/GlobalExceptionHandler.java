@@ -49,6 +49,30 @@ public class GlobalExceptionHandler {
         return createErrorResponse("Invalid email or password", HttpStatus.UNAUTHORIZED, request);
     }
 
+    @ExceptionHandler(LeaveRequestConflictException.class)
+    public ResponseEntity<Map<String, Object>> handleLeaveRequestConflictException(
+            LeaveRequestConflictException ex, WebRequest request) {
+        return createErrorResponse(ex.getMessage(), HttpStatus.CONFLICT, request);
+    }
+
+    @ExceptionHandler(InvalidReportRequestException.class)
+    public ResponseEntity<Map<String, Object>> handleInvalidReportRequestException(
+            InvalidReportRequestException ex, WebRequest request) {
+        return createErrorResponse(ex.getMessage(), HttpStatus.BAD_REQUEST, request);
+    }
+
+    @ExceptionHandler(InvalidLeaveStatusException.class)
+    public ResponseEntity<Map<String, Object>> handleInvalidLeaveStatusException(
+            InvalidLeaveStatusException ex, WebRequest request) {
+        return createErrorResponse(ex.getMessage(), HttpStatus.BAD_REQUEST, request);
+    }
+
+    @ExceptionHandler(IdempotencyKeyException.class)
+    public ResponseEntity<Map<String, Object>> handleIdempotencyKeyException(
+            IdempotencyKeyException ex, WebRequest request) {
+        return createErrorResponse(ex.getMessage(), ex.getStatus(), request);
+    }
+
     private ResponseEntity<Map<String, Object>> createErrorResponse(
             String message, HttpStatus status, WebRequest request) {
         Map<String, Object> body = new HashMap<>();
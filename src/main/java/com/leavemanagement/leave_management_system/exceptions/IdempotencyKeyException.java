@@ -0,0 +1,14 @@
+package com.leavemanagement.leave_management_system.exceptions;
+
+import lombok.Getter;
+import org.springframework.http.HttpStatus;
+
+@Getter
+public class IdempotencyKeyException extends RuntimeException {
+    private final HttpStatus status;
+
+    public IdempotencyKeyException(String message, HttpStatus status) {
+        super(message);
+        this.status = status;
+    }
+}
@@ -0,0 +1,12 @@
+package com.leavemanagement.leave_management_system.exceptions;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class InvalidReportRequestException extends RuntimeException {
+
+    public InvalidReportRequestException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,12 @@
+package com.leavemanagement.leave_management_system.exceptions;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.CONFLICT)
+public class LeaveRequestConflictException extends RuntimeException {
+
+    public LeaveRequestConflictException(String message) {
+        super(message);
+    }
+}
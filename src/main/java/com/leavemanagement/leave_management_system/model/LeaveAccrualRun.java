@@ -0,0 +1,45 @@
+package com.leavemanagement.leave_management_system.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.GenericGenerator;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Entity
+@Table(name = "leave_accrual_runs")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class LeaveAccrualRun {
+
+    @Id
+    @GeneratedValue(generator = "UUID")
+    @GenericGenerator(name = "UUID", strategy = "org.hibernate.id.UUIDGenerator")
+    @Column(name = "id", updatable = false, nullable = false)
+    private UUID id;
+
+    @Column(name = "year", nullable = false)
+    private Integer year;
+
+    @Column(name = "month", nullable = false)
+    private Integer month;
+
+    // False when only users and leave types changed since the previous run of the same month were recomputed
+    @Column(name = "full_run", nullable = false)
+    private boolean fullRun;
+
+    @Column(name = "balances_updated", nullable = false)
+    private int balancesUpdated;
+
+    @Column(name = "started_at", nullable = false)
+    private LocalDateTime startedAt;
+
+    @Column(name = "completed_at", nullable = false)
+    private LocalDateTime completedAt;
+}
@@ -0,0 +1,61 @@
+package com.leavemanagement.leave_management_system.model;
+
+import com.leavemanagement.leave_management_system.enums.ApprovalLevel;
+import com.leavemanagement.leave_management_system.enums.ApprovalStepStatus;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * One approver's place in the approval chain of a leave request. PENDING rows are the approver's inbox;
+ * a step with several candidate approvers (e.g. HR) has one row per candidate with the same step order.
+ */
+@Entity
+@Table(name = "leave_approval_steps", indexes = {
+        @Index(name = "idx_leave_approval_steps_inbox", columnList = "approver_id, status"),
+        @Index(name = "idx_leave_approval_steps_request", columnList = "leave_request_id, step_order")
+})
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class LeaveApprovalStep {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private UUID id;
+
+    @Column(name = "leave_request_id", nullable = false, updatable = false)
+    private UUID leaveRequestId;
+
+    @Column(name = "step_order", nullable = false, updatable = false)
+    private int stepOrder;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "level", nullable = false, updatable = false)
+    private ApprovalLevel level;
+
+    @Column(name = "approver_id", nullable = false)
+    private UUID approverId;
+
+    // The approver this step was delegated away from because they were on leave
+    @Column(name = "delegated_from_id")
+    private UUID delegatedFromId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false)
+    private ApprovalStepStatus status;
+
+    @Column(name = "decided_at")
+    private LocalDateTime decidedAt;
+
+    @CreationTimestamp
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+}
@@ -15,7 +15,9 @@ import java.util.UUID;
 
 
 @Entity
-@Table(name = "leave_balances")
+@Table(name = "leave_balances", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_leave_balances_user_type_year", columnNames = {"user_id", "leave_type_id", "year"})
+})
 @Data
 @Builder
 @NoArgsConstructor
@@ -51,6 +53,14 @@ public class LeaveBalance {
     @Column(name = "adjustment_days", nullable = false, precision = 5, scale = 2)
     private BigDecimal adjustmentDays;
 
+    // Days accrued so far this year by the monthly accrual run; null on balances granted up front
+    @Column(name = "accrued_days", precision = 5, scale = 2)
+    private BigDecimal accruedDays;
+
+    // Unused days brought forward from the previous year, included in totalDays (null on older rows)
+    @Column(name = "carried_over_days", precision = 5, scale = 2)
+    private BigDecimal carriedOverDays;
+
     @CreationTimestamp
     @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt;
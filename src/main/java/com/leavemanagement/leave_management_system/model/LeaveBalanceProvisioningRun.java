@@ -0,0 +1,53 @@
+package com.leavemanagement.leave_management_system.model;
+
+import com.leavemanagement.leave_management_system.enums.ProvisioningStatus;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Progress of provisioning the leave balances of one year. Users are processed in id order and
+ * {@code lastUserId} is advanced with every committed chunk, so an interrupted run resumes where it stopped.
+ */
+@Entity
+@Table(name = "leave_balance_provisioning_runs")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class LeaveBalanceProvisioningRun {
+
+    @Id
+    @Column(name = "year", updatable = false, nullable = false)
+    private Integer year;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false)
+    private ProvisioningStatus status;
+
+    @Column(name = "last_user_id")
+    private UUID lastUserId;
+
+    @Column(name = "users_processed", nullable = false)
+    private long usersProcessed;
+
+    @Column(name = "balances_created", nullable = false)
+    private long balancesCreated;
+
+    @Column(name = "started_at", nullable = false)
+    private LocalDateTime startedAt;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    @Column(name = "completed_at")
+    private LocalDateTime completedAt;
+
+    @Column(name = "last_error", columnDefinition = "TEXT")
+    private String lastError;
+}
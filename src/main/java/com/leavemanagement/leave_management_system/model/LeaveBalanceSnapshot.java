@@ -0,0 +1,53 @@
+package com.leavemanagement.leave_management_system.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.GenericGenerator;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Leave balance folded from the ledger up to and including {@code asOf}
+ */
+@Entity
+@Table(name = "leave_balance_snapshots", indexes = {
+        @Index(name = "idx_leave_balance_snapshots_balance_as_of", columnList = "balance_id, as_of")
+})
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class LeaveBalanceSnapshot {
+
+    @Id
+    @GeneratedValue(generator = "UUID")
+    @GenericGenerator(name = "UUID", strategy = "org.hibernate.id.UUIDGenerator")
+    @Column(name = "id", updatable = false, nullable = false)
+    private UUID id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "balance_id", nullable = false, updatable = false)
+    private LeaveBalance leaveBalance;
+
+    @Column(name = "as_of", nullable = false, updatable = false)
+    private LocalDateTime asOf;
+
+    @Column(name = "total_days", nullable = false, updatable = false, precision = 7, scale = 2)
+    private BigDecimal totalDays;
+
+    @Column(name = "used_days", nullable = false, updatable = false, precision = 7, scale = 2)
+    private BigDecimal usedDays;
+
+    @Column(name = "pending_days", nullable = false, updatable = false, precision = 7, scale = 2)
+    private BigDecimal pendingDays;
+
+    @CreationTimestamp
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,63 @@
+package com.leavemanagement.leave_management_system.model;
+
+import com.leavemanagement.leave_management_system.enums.LeaveBalanceTransactionType;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.GenericGenerator;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Append-only ledger entry recording one change to a leave balance.
+ * Rows are never updated; a balance equals its latest snapshot plus the entries recorded after it.
+ */
+@Entity
+@Table(name = "leave_balance_transactions", indexes = {
+        @Index(name = "idx_leave_balance_transactions_balance_created", columnList = "balance_id, created_at"),
+        @Index(name = "idx_leave_balance_transactions_created", columnList = "created_at")
+})
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class LeaveBalanceTransaction {
+
+    @Id
+    @GeneratedValue(generator = "UUID")
+    @GenericGenerator(name = "UUID", strategy = "org.hibernate.id.UUIDGenerator")
+    @Column(name = "id", updatable = false, nullable = false)
+    private UUID id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "balance_id", nullable = false, updatable = false)
+    private LeaveBalance leaveBalance;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "type", nullable = false, updatable = false)
+    private LeaveBalanceTransactionType type;
+
+    @Column(name = "total_delta", nullable = false, updatable = false, precision = 7, scale = 2)
+    private BigDecimal totalDelta;
+
+    @Column(name = "used_delta", nullable = false, updatable = false, precision = 7, scale = 2)
+    private BigDecimal usedDelta;
+
+    @Column(name = "pending_delta", nullable = false, updatable = false, precision = 7, scale = 2)
+    private BigDecimal pendingDelta;
+
+    @Column(name = "leave_request_id", updatable = false)
+    private UUID leaveRequestId;
+
+    @Column(name = "reason", updatable = false)
+    private String reason;
+
+    @CreationTimestamp
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,59 @@
+package com.leavemanagement.leave_management_system.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.UUID;
+
+/**
+ * One business day of a leave request, with the dimensions statistics are grouped by copied in, so
+ * report aggregates are index range sums over days instead of expansions of leave ranges. The user's
+ * department is the one at the time the leave was recorded. Written with JDBC by
+ * {@link com.leavemanagement.leave_management_system.service.LeaveDayFactService}.
+ */
+@Entity
+@Table(name = "leave_day_facts", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_leave_day_facts_request_date", columnNames = {"leave_request_id", "leave_date"})
+}, indexes = {
+        @Index(name = "idx_leave_day_facts_status_date", columnList = "status_id, leave_date"),
+        @Index(name = "idx_leave_day_facts_user_date", columnList = "user_id, leave_date"),
+        @Index(name = "idx_leave_day_facts_department_date", columnList = "department_id, leave_date"),
+        @Index(name = "idx_leave_day_facts_type_date", columnList = "leave_type_id, leave_date")
+})
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class LeaveDayFact {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private UUID id;
+
+    @Column(name = "leave_request_id", nullable = false)
+    private UUID leaveRequestId;
+
+    @Column(name = "leave_date", nullable = false)
+    private LocalDate leaveDate;
+
+    @Column(name = "user_id", nullable = false)
+    private UUID userId;
+
+    @Column(name = "department_id")
+    private UUID departmentId;
+
+    @Column(name = "leave_type_id", nullable = false)
+    private UUID leaveTypeId;
+
+    @Column(name = "status_id", nullable = false)
+    private UUID statusId;
+
+    // 1.0, or 0.5 for the last day of a leave that is not full day
+    @Column(name = "day_fraction", nullable = false, precision = 2, scale = 1)
+    private BigDecimal dayFraction;
+}
@@ -18,7 +18,16 @@ import org.hibernate.annotations.UpdateTimestamp;
 
 
 @Entity
-@Table(name = "leave_requests")
+@Table(name = "leave_requests", indexes = {
+        // Serves the overlap checks: per user, only requests ending on or after the range start are scanned
+        @Index(name = "idx_leave_requests_user_end_start", columnList = "user_id, end_date, start_date"),
+        // Company-wide report rows: LeaveRequestRepository.findForReportByDateRange and streamReportRowsByDateRange
+        @Index(name = "idx_leave_requests_end_start", columnList = "end_date, start_date"),
+        // Approved leave still running this year or later, read by DepartmentCoverageService.rebuild
+        @Index(name = "idx_leave_requests_status_end_start", columnList = "status_id, end_date, start_date"),
+        // Report rows per leave type: findForReportByLeaveType and streamReportRowsByLeaveType
+        @Index(name = "idx_leave_requests_type_end_start", columnList = "leave_type_id, end_date, start_date")
+})
 @Data
 @Builder
 @NoArgsConstructor
@@ -1,4 +1,5 @@
 package com.leavemanagement.leave_management_system.model;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.Set;
 import java.util.UUID;
@@ -10,7 +11,9 @@ import org.hibernate.annotations.UpdateTimestamp;
 import com.leavemanagement.leave_management_system.enums.UserRole;
 
 @Entity
-@Table(name = "users")
+@Table(name = "users", indexes = {
+        @Index(name = "idx_users_department", columnList = "department_id")
+})
 @Getter
 @Setter
 @ToString(exclude = {"department", "manager", "subordinates", "leaveRequests", "leaveBalances", "notifications"})
@@ -49,6 +52,10 @@ public class User {
     @Column(name = "profile_pic_url")
     private String profilePicUrl;
 
+    // Monthly leave accrual is pro-rated from this date; null means employed before any accrual year
+    @Column(name = "hire_date")
+    private LocalDate hireDate;
+
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "department_id")
     private Department department;
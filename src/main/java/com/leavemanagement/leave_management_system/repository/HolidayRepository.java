@@ -2,15 +2,10 @@ package com.leavemanagement.leave_management_system.repository;
 
 import com.leavemanagement.leave_management_system.model.Holiday;
 import org.springframework.data.jpa.repository.JpaRepository;
-import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
-import java.time.LocalDate;
-import java.util.List;
 import java.util.UUID;
 
 @Repository
 public interface HolidayRepository extends JpaRepository<Holiday, UUID> {
-    @Query("SELECT h FROM Holiday h WHERE h.date BETWEEN :startDate AND :endDate")
-    List<Holiday> findHolidaysBetweenDates(LocalDate startDate, LocalDate endDate);
 }
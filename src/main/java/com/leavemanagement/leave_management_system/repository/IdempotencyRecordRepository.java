@@ -0,0 +1,44 @@
+package com.leavemanagement.leave_management_system.repository;
+
+import com.leavemanagement.leave_management_system.model.IdempotencyRecord;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface IdempotencyRecordRepository extends JpaRepository<IdempotencyRecord, UUID> {
+    Optional<IdempotencyRecord> findByUserIdAndEndpointAndIdempotencyKey(UUID userId, String endpoint, String idempotencyKey);
+
+    // Returns 1 when this caller claimed the key, 0 when a record for it already exists
+    @Modifying
+    @Query(value = "INSERT INTO idempotency_keys (id, user_id, endpoint, idempotency_key, request_hash, created_at, expires_at) " +
+            "VALUES (:id, :userId, :endpoint, :idempotencyKey, :requestHash, :now, :expiresAt) " +
+            "ON CONFLICT (user_id, endpoint, idempotency_key) DO NOTHING", nativeQuery = true)
+    int claim(UUID id, UUID userId, String endpoint, String idempotencyKey, String requestHash,
+              LocalDateTime now, LocalDateTime expiresAt);
+
+    // Take over an expired record or an abandoned claim; guarded on created_at so only one caller wins
+    @Modifying
+    @Query("UPDATE IdempotencyRecord r SET r.requestHash = :requestHash, r.statusCode = null, r.responseBody = null, " +
+            "r.createdAt = :now, r.expiresAt = :expiresAt WHERE r.id = :id AND r.createdAt = :previousCreatedAt")
+    int reclaim(UUID id, LocalDateTime previousCreatedAt, String requestHash, LocalDateTime now, LocalDateTime expiresAt);
+
+    // Both return 0 when the claim made at claimedAt was taken over by another execution
+    @Modifying
+    @Query("UPDATE IdempotencyRecord r SET r.statusCode = :statusCode, r.responseBody = :responseBody " +
+            "WHERE r.id = :id AND r.createdAt = :claimedAt AND r.statusCode IS NULL")
+    int complete(UUID id, LocalDateTime claimedAt, Integer statusCode, String responseBody);
+
+    @Modifying
+    @Query("DELETE FROM IdempotencyRecord r WHERE r.id = :id AND r.createdAt = :claimedAt AND r.statusCode IS NULL")
+    int release(UUID id, LocalDateTime claimedAt);
+
+    @Modifying
+    @Query("DELETE FROM IdempotencyRecord r WHERE r.expiresAt < :now")
+    int deleteExpired(LocalDateTime now);
+}
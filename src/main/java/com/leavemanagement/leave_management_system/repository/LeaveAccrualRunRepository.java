@@ -0,0 +1,13 @@
+package com.leavemanagement.leave_management_system.repository;
+
+import com.leavemanagement.leave_management_system.model.LeaveAccrualRun;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface LeaveAccrualRunRepository extends JpaRepository<LeaveAccrualRun, UUID> {
+    Optional<LeaveAccrualRun> findFirstByOrderByStartedAtDesc();
+}
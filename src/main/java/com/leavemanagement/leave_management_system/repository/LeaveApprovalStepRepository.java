@@ -0,0 +1,21 @@
+package com.leavemanagement.leave_management_system.repository;
+
+import com.leavemanagement.leave_management_system.enums.ApprovalStepStatus;
+import com.leavemanagement.leave_management_system.model.LeaveApprovalStep;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface LeaveApprovalStepRepository extends JpaRepository<LeaveApprovalStep, UUID> {
+    List<LeaveApprovalStep> findByLeaveRequestIdOrderByStepOrder(UUID leaveRequestId);
+
+    List<LeaveApprovalStep> findByLeaveRequestIdInOrderByStepOrder(Collection<UUID> leaveRequestIds);
+
+    List<LeaveApprovalStep> findByApproverIdAndStatus(UUID approverId, ApprovalStepStatus status);
+
+    List<LeaveApprovalStep> findByLeaveRequestIdInAndStatus(Collection<UUID> leaveRequestIds, ApprovalStepStatus status);
+}
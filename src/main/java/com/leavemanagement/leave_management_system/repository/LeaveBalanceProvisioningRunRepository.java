@@ -0,0 +1,9 @@
+package com.leavemanagement.leave_management_system.repository;
+
+import com.leavemanagement.leave_management_system.model.LeaveBalanceProvisioningRun;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface LeaveBalanceProvisioningRunRepository extends JpaRepository<LeaveBalanceProvisioningRun, Integer> {
+}
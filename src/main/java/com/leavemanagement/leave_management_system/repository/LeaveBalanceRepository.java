@@ -2,9 +2,13 @@ package com.leavemanagement.leave_management_system.repository;
 
 import com.leavemanagement.leave_management_system.model.LeaveBalance;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -15,4 +19,31 @@ public interface LeaveBalanceRepository extends JpaRepository<LeaveBalance, UUID
     Optional<LeaveBalance> findByUserIdAndLeaveTypeIdAndYear(UUID userId, UUID leaveTypeId, Integer year);
 
     List<LeaveBalance> findByUserIdAndYear(UUID userId, Integer year);
+
+    @Query("SELECT lb FROM LeaveBalance lb WHERE lb.user.id IN :userIds AND lb.year IN :years")
+    List<LeaveBalance> findByUserIdsAndYears(Collection<UUID> userIds, Collection<Integer> years);
+
+    // Locks the row; read as a scalar so an already loaded entity cannot hand back a stale value
+    @Query(value = "SELECT total_days FROM leave_balances WHERE id = :balanceId FOR UPDATE", nativeQuery = true)
+    Optional<BigDecimal> lockTotalDays(UUID balanceId);
+
+    // Empty for balances granted up front rather than accrued monthly
+    @Query(value = "SELECT accrued_days FROM leave_balances WHERE id = :balanceId", nativeQuery = true)
+    Optional<BigDecimal> findAccruedDays(UUID balanceId);
+
+    // Guarded increment: only succeeds (returns 1) when the available balance covers the requested days
+    @Modifying
+    @Query("UPDATE LeaveBalance lb SET lb.pendingDays = lb.pendingDays + :days, lb.updatedAt = :updatedAt " +
+            "WHERE lb.id = :balanceId AND lb.totalDays - lb.usedDays - lb.pendingDays >= :days")
+    int reservePendingDays(UUID balanceId, BigDecimal days, LocalDateTime updatedAt);
+
+    @Modifying
+    @Query("UPDATE LeaveBalance lb SET lb.pendingDays = lb.pendingDays + :pendingDelta, " +
+            "lb.usedDays = lb.usedDays + :usedDelta, lb.updatedAt = :updatedAt WHERE lb.id = :balanceId")
+    int applyDelta(UUID balanceId, BigDecimal pendingDelta, BigDecimal usedDelta, LocalDateTime updatedAt);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE LeaveBalance lb SET lb.adjustmentDays = :adjustmentDays, lb.totalDays = :totalDays, " +
+            "lb.updatedAt = :updatedAt WHERE lb.id = :balanceId")
+    int updateEntitlement(UUID balanceId, BigDecimal adjustmentDays, BigDecimal totalDays, LocalDateTime updatedAt);
 }
\ No newline at end of file
@@ -0,0 +1,35 @@
+package com.leavemanagement.leave_management_system.repository;
+
+import com.leavemanagement.leave_management_system.dto.LeaveBalanceTotalsDTO;
+import com.leavemanagement.leave_management_system.model.LeaveBalanceSnapshot;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface LeaveBalanceSnapshotRepository extends JpaRepository<LeaveBalanceSnapshot, UUID> {
+    Optional<LeaveBalanceSnapshot> findFirstByLeaveBalanceIdOrderByAsOfDesc(UUID balanceId);
+
+    @Query("SELECT MAX(s.asOf) FROM LeaveBalanceSnapshot s")
+    Optional<LocalDateTime> findLatestAsOf();
+
+    @Query("SELECT s FROM LeaveBalanceSnapshot s WHERE s.leaveBalance.id IN :balanceIds AND s.asOf = " +
+            "(SELECT MAX(s2.asOf) FROM LeaveBalanceSnapshot s2 WHERE s2.leaveBalance = s.leaveBalance)")
+    List<LeaveBalanceSnapshot> findLatestByBalanceIds(Collection<UUID> balanceIds);
+
+    // Opening values of balances that have no snapshot yet: the current row minus everything already
+    // recorded in the ledger, read in a single statement so both sides are consistent
+    @Query("SELECT new com.leavemanagement.leave_management_system.dto.LeaveBalanceTotalsDTO(lb.id, " +
+            "lb.totalDays - COALESCE(SUM(t.totalDelta), 0), lb.usedDays - COALESCE(SUM(t.usedDelta), 0), " +
+            "lb.pendingDays - COALESCE(SUM(t.pendingDelta), 0)) " +
+            "FROM LeaveBalance lb LEFT JOIN LeaveBalanceTransaction t ON t.leaveBalance = lb " +
+            "WHERE NOT EXISTS (SELECT s.id FROM LeaveBalanceSnapshot s WHERE s.leaveBalance = lb) " +
+            "GROUP BY lb.id, lb.totalDays, lb.usedDays, lb.pendingDays")
+    List<LeaveBalanceTotalsDTO> findOpeningBalancesWithoutSnapshot();
+}
@@ -0,0 +1,25 @@
+package com.leavemanagement.leave_management_system.repository;
+
+import com.leavemanagement.leave_management_system.dto.LeaveBalanceTotalsDTO;
+import com.leavemanagement.leave_management_system.model.LeaveBalanceTransaction;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface LeaveBalanceTransactionRepository extends JpaRepository<LeaveBalanceTransaction, UUID> {
+    @Query("SELECT t FROM LeaveBalanceTransaction t WHERE t.leaveBalance.id = :balanceId AND t.createdAt > :after " +
+            "ORDER BY t.createdAt")
+    List<LeaveBalanceTransaction> findByBalanceIdAfter(UUID balanceId, LocalDateTime after);
+
+    // Per-balance sum of the entries recorded in (from, to]
+    @Query("SELECT new com.leavemanagement.leave_management_system.dto.LeaveBalanceTotalsDTO(" +
+            "t.leaveBalance.id, SUM(t.totalDelta), SUM(t.usedDelta), SUM(t.pendingDelta)) " +
+            "FROM LeaveBalanceTransaction t WHERE t.createdAt > :from AND t.createdAt <= :to " +
+            "GROUP BY t.leaveBalance.id")
+    List<LeaveBalanceTotalsDTO> sumByBalanceBetween(LocalDateTime from, LocalDateTime to);
+}
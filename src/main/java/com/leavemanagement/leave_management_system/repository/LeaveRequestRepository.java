@@ -1,14 +1,24 @@
 package com.leavemanagement.leave_management_system.repository;
 
 
+import com.leavemanagement.leave_management_system.dto.LeaveReportRowDTO;
+import com.leavemanagement.leave_management_system.enums.ApprovalStepStatus;
 import com.leavemanagement.leave_management_system.model.LeaveRequest;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 @Repository
 public interface LeaveRequestRepository extends JpaRepository<LeaveRequest, UUID> {
@@ -20,13 +30,96 @@ public interface LeaveRequestRepository extends JpaRepository<LeaveRequest, UUID
     @Query("SELECT lr FROM LeaveRequest lr WHERE lr.status.name = :status")
     List<LeaveRequest> findByStatus(String status);
 
+    // Overlap written as two range bounds (start <= end of range, end >= start of range) so that
+    // idx_leave_requests_user_end_start can be used
     @Query("SELECT lr FROM LeaveRequest lr WHERE lr.user.department.id = :departmentId AND " +
-            "((lr.startDate BETWEEN :startDate AND :endDate) OR " +
-            "(lr.endDate BETWEEN :startDate AND :endDate) OR " +
-            "(lr.startDate <= :startDate AND lr.endDate >= :endDate))")
+            "lr.startDate <= :endDate AND lr.endDate >= :startDate")
     List<LeaveRequest> findByDepartmentAndDateRange(UUID departmentId, LocalDate startDate, LocalDate endDate);
 
+    @Query("SELECT lr FROM LeaveRequest lr WHERE lr.user.id = :userId AND " +
+            "lr.startDate <= :endDate AND lr.endDate >= :startDate AND lr.status.id NOT IN :excludedStatusIds " +
+            "ORDER BY lr.startDate")
+    List<LeaveRequest> findOverlapping(UUID userId, LocalDate startDate, LocalDate endDate,
+                                       Collection<UUID> excludedStatusIds);
 
+    @Query("SELECT DISTINCT lr.user.id FROM LeaveRequest lr WHERE lr.user.id IN :userIds AND lr.status.id = :statusId " +
+            "AND lr.startDate <= :date AND lr.endDate >= :date")
+    List<UUID> findUserIdsOnLeave(Collection<UUID> userIds, UUID statusId, LocalDate date);
 
+    // Report queries, fetching everything LeaveReportDTO needs. The same two-bound overlap
+    // is served by the (..., end_date, start_date) indexes on leave_requests.
+    @EntityGraph(attributePaths = {"user", "user.department", "leaveType", "status"})
+    @Query("SELECT lr FROM LeaveRequest lr WHERE lr.startDate <= :endDate AND lr.endDate >= :startDate")
+    List<LeaveRequest> findForReportByDateRange(LocalDate startDate, LocalDate endDate);
 
+    @EntityGraph(attributePaths = {"user", "user.department", "leaveType", "status"})
+    @Query("SELECT lr FROM LeaveRequest lr WHERE lr.leaveType.id = :leaveTypeId AND " +
+            "lr.startDate <= :endDate AND lr.endDate >= :startDate")
+    List<LeaveRequest> findForReportByLeaveType(UUID leaveTypeId, LocalDate startDate, LocalDate endDate);
+
+    @EntityGraph(attributePaths = {"user", "user.department", "leaveType", "status"})
+    @Query("SELECT lr FROM LeaveRequest lr WHERE lr.user.id = :userId AND " +
+            "lr.startDate <= :endDate AND lr.endDate >= :startDate")
+    List<LeaveRequest> findForReportByUser(UUID userId, LocalDate startDate, LocalDate endDate);
+
+    @EntityGraph(attributePaths = {"user", "user.department", "leaveType", "status"})
+    @Query("SELECT lr FROM LeaveRequest lr WHERE lr.user.department.id = :departmentId AND " +
+            "lr.startDate <= :endDate AND lr.endDate >= :startDate")
+    List<LeaveRequest> findForReportByDepartment(UUID departmentId, LocalDate startDate, LocalDate endDate);
+
+    // Streaming report queries: rows are projected (nothing enters the persistence context) and read through a
+    // forward-only cursor, FETCH_SIZE rows per round trip. Streams must be consumed within a transaction and closed.
+    String REPORT_ROW_SELECT = "SELECT new com.leavemanagement.leave_management_system.dto.LeaveReportRowDTO(" +
+            "lr.id, u.fullName, u.email, d.name, lt.name, lr.startDate, lr.endDate, s.name, lr.leaveDuration, " +
+            "lr.fullDay, lr.reason, lr.comments) FROM LeaveRequest lr JOIN lr.user u LEFT JOIN u.department d " +
+            "JOIN lr.leaveType lt JOIN lr.status s ";
+    String REPORT_FETCH_SIZE = "500";
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = REPORT_FETCH_SIZE))
+    @Query(REPORT_ROW_SELECT + "WHERE lr.startDate <= :endDate AND lr.endDate >= :startDate")
+    Stream<LeaveReportRowDTO> streamReportRowsByDateRange(LocalDate startDate, LocalDate endDate);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = REPORT_FETCH_SIZE))
+    @Query(REPORT_ROW_SELECT + "WHERE lr.leaveType.id = :leaveTypeId AND lr.startDate <= :endDate AND lr.endDate >= :startDate")
+    Stream<LeaveReportRowDTO> streamReportRowsByLeaveType(UUID leaveTypeId, LocalDate startDate, LocalDate endDate);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = REPORT_FETCH_SIZE))
+    @Query(REPORT_ROW_SELECT + "WHERE u.id = :userId AND lr.startDate <= :endDate AND lr.endDate >= :startDate")
+    Stream<LeaveReportRowDTO> streamReportRowsByUser(UUID userId, LocalDate startDate, LocalDate endDate);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = REPORT_FETCH_SIZE))
+    @Query(REPORT_ROW_SELECT + "WHERE d.id = :departmentId AND lr.startDate <= :endDate AND lr.endDate >= :startDate")
+    Stream<LeaveReportRowDTO> streamReportRowsByDepartment(UUID departmentId, LocalDate startDate, LocalDate endDate);
+
+    // Listing queries that fetch everything LeaveRequestDTO needs in a single round trip
+    @EntityGraph(attributePaths = {"user", "leaveType", "status", "documents"})
+    @Query("SELECT lr FROM LeaveRequest lr WHERE lr.user.id = :userId")
+    List<LeaveRequest> findWithDetailsByUserId(UUID userId);
+
+    @EntityGraph(attributePaths = {"user", "leaveType", "status", "documents"})
+    @Query("SELECT lr FROM LeaveRequest lr WHERE lr.status.name = :status")
+    List<LeaveRequest> findWithDetailsByStatus(String status);
+
+    // Approval inbox: requests with a step waiting for this approver
+    @EntityGraph(attributePaths = {"user", "leaveType", "status", "documents"})
+    @Query("SELECT lr FROM LeaveRequest lr WHERE lr.id IN (SELECT s.leaveRequestId FROM LeaveApprovalStep s " +
+            "WHERE s.approverId = :approverId AND s.status = :stepStatus) ORDER BY lr.startDate")
+    List<LeaveRequest> findWithDetailsByApprover(UUID approverId, ApprovalStepStatus stepStatus);
+
+    // Requests submitted before approval routing existed, or whose chain resolved to nobody
+    @EntityGraph(attributePaths = {"user", "leaveType", "status", "documents"})
+    @Query("SELECT lr FROM LeaveRequest lr WHERE lr.status.name = :status AND NOT EXISTS " +
+            "(SELECT 1 FROM LeaveApprovalStep s WHERE s.leaveRequestId = lr.id)")
+    List<LeaveRequest> findWithDetailsByStatusWithoutApprovalSteps(String status);
+
+    @EntityGraph(attributePaths = {"user", "leaveType", "status", "documents"})
+    @Query("SELECT lr FROM LeaveRequest lr WHERE lr.id = :id")
+    Optional<LeaveRequest> findWithDetailsById(UUID id);
+
+    @EntityGraph(attributePaths = {"user", "leaveType", "status", "documents"})
+    @Query("SELECT lr FROM LeaveRequest lr WHERE lr.id IN :ids")
+    List<LeaveRequest> findWithDetailsByIdIn(Collection<UUID> ids);
+
+    @Query("SELECT lr FROM LeaveRequest lr WHERE lr.leaveDuration IS NULL ORDER BY lr.id")
+    List<LeaveRequest> findWithoutLeaveDuration(Pageable pageable);
 }
\ No newline at end of file
@@ -1,6 +1,6 @@
 package com.leavemanagement.leave_management_system.repository;
 
-import com.leavemanagement.leave_management_system.dto.LeaveRequestDTO;
+import com.leavemanagement.leave_management_system.dto.LeaveReminderDTO;
 import com.leavemanagement.leave_management_system.model.Notification;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
@@ -22,18 +22,15 @@ public interface NotificationRepository extends JpaRepository<Notification, UUID
 
     List<Notification> findByUserIdOrderByCreatedAtDesc(UUID userId);
 
-    @Query("SELECT new com.leavemanagement.leave_management_system.dto.LeaveRequestDTO(lr.id, lr.user.id, lr.leaveType.id, " +
-            "lr.leaveType.name, lr.startDate, lr.endDate, lr.status.name, lr.reason, lr.fullDay, lr.comments, null, null) " +
-            "FROM LeaveRequest lr " +
+    @Query("SELECT new com.leavemanagement.leave_management_system.dto.LeaveReminderDTO(lr.id, u.id, lt.name, d.id) " +
+            "FROM LeaveRequest lr JOIN lr.user u LEFT JOIN u.department d JOIN lr.leaveType lt " +
             "WHERE lr.startDate = :date " +
             "AND lr.status.name = 'APPROVED'")
-    List<LeaveRequestDTO> findUpcomingLeaves(@Param("date") LocalDate date);
+    List<LeaveReminderDTO> findUpcomingLeaves(@Param("date") LocalDate date);
 
-    @Query("SELECT new com.leavemanagement.leave_management_system.dto.LeaveRequestDTO(lr.id, lr.user.id, lr.leaveType.id, " +
-            "lr.leaveType.name, lr.startDate, lr.endDate, lr.status.name, lr.reason, lr.fullDay, lr.comments, " +
-            "lr.user.department.id, null) " +
-            "FROM LeaveRequest lr " +
+    @Query("SELECT new com.leavemanagement.leave_management_system.dto.LeaveReminderDTO(lr.id, u.id, lt.name, d.id) " +
+            "FROM LeaveRequest lr JOIN lr.user u LEFT JOIN u.department d JOIN lr.leaveType lt " +
             "WHERE lr.status.name = 'PENDING' " +
             "AND lr.createdAt < :cutoffDate")
-    List<LeaveRequestDTO> findPendingRequests(@Param("cutoffDate") LocalDateTime cutoffDate);
+    List<LeaveReminderDTO> findPendingRequests(@Param("cutoffDate") LocalDateTime cutoffDate);
 }
\ No newline at end of file
@@ -0,0 +1,41 @@
+package com.leavemanagement.leave_management_system.repository;
+
+import com.leavemanagement.leave_management_system.enums.OutboxEventStatus;
+import com.leavemanagement.leave_management_system.model.OutboxEvent;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, UUID> {
+    @Query("SELECT e.id FROM OutboxEvent e WHERE e.status = :status AND e.nextAttemptAt <= :now ORDER BY e.nextAttemptAt")
+    List<UUID> findDueIds(OutboxEventStatus status, LocalDateTime now, Pageable pageable);
+
+    // Only one worker (on any instance) wins the claim on a pending event
+    @Modifying
+    @Query("UPDATE OutboxEvent e SET e.status = :processing, e.attempts = e.attempts + 1, e.lockedAt = :now " +
+            "WHERE e.id = :id AND e.status = :pending")
+    int claim(UUID id, OutboxEventStatus pending, OutboxEventStatus processing, LocalDateTime now);
+
+    @Modifying
+    @Query("UPDATE OutboxEvent e SET e.status = :status, e.processedAt = :processedAt, e.lockedAt = null, " +
+            "e.lastError = null WHERE e.id = :id")
+    int markProcessed(UUID id, OutboxEventStatus status, LocalDateTime processedAt);
+
+    @Modifying
+    @Query("UPDATE OutboxEvent e SET e.status = :status, e.nextAttemptAt = :nextAttemptAt, e.lockedAt = null, " +
+            "e.lastError = :lastError WHERE e.id = :id")
+    int markFailed(UUID id, OutboxEventStatus status, LocalDateTime nextAttemptAt, String lastError);
+
+    // Events left in PROCESSING by an instance that died mid-way are handed out again
+    @Modifying
+    @Query("UPDATE OutboxEvent e SET e.status = :pending, e.lockedAt = null " +
+            "WHERE e.status = :processing AND e.lockedAt < :lockedBefore")
+    int releaseStale(OutboxEventStatus pending, OutboxEventStatus processing, LocalDateTime lockedBefore);
+}
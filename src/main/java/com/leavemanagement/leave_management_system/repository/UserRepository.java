@@ -21,6 +21,11 @@ public interface UserRepository extends JpaRepository<User, UUID> {
 
     List<User> findByDepartmentId(UUID departmentId);
 
+    // Serializes leave submissions per user. FOR NO KEY UPDATE still lets other transactions insert
+    // rows referencing the user (e.g. a new leave balance), which FOR UPDATE would block.
+    @Query(value = "SELECT id FROM users WHERE id = :id FOR NO KEY UPDATE", nativeQuery = true)
+    Optional<UUID> lockById(@Param("id") UUID id);
+
     @Query("SELECT u FROM User u WHERE u.role = :role")
     List<User> findByRole(@Param("role") UserRole role);
 
@@ -0,0 +1,32 @@
+package com.leavemanagement.leave_management_system.scripts;
+
+import com.leavemanagement.leave_management_system.service.LeaveDayFactService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Fills leave_day_facts in the background on startup when it is still empty, so reports cover leave
+ * requests created before the table existed.
+ */
+@Component
+@Slf4j
+@ConditionalOnProperty(name = "app.leave-day-facts.rebuild-if-empty", havingValue = "true", matchIfMissing = true)
+public class LeaveDayFactRebuildRunner implements CommandLineRunner {
+
+    private final LeaveDayFactService leaveDayFactService;
+
+    @Autowired
+    public LeaveDayFactRebuildRunner(LeaveDayFactService leaveDayFactService) {
+        this.leaveDayFactService = leaveDayFactService;
+    }
+
+    @Override
+    public void run(String... args) {
+        if (leaveDayFactService.rebuildIfEmpty()) {
+            log.info("Leave day facts are empty, rebuilding them in the background");
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.leavemanagement.leave_management_system.scripts;
+
+import com.leavemanagement.leave_management_system.service.LeaveDurationBackfillService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Runs the leave duration backfill in the background on startup so existing
+ * leave requests get their stored duration without delaying application boot.
+ */
+@Component
+@Slf4j
+@ConditionalOnProperty(name = "app.backfill.leave-duration.enabled", havingValue = "true", matchIfMissing = true)
+public class LeaveDurationBackfillRunner implements CommandLineRunner {
+
+    private final LeaveDurationBackfillService leaveDurationBackfillService;
+
+    @Autowired
+    public LeaveDurationBackfillRunner(LeaveDurationBackfillService leaveDurationBackfillService) {
+        this.leaveDurationBackfillService = leaveDurationBackfillService;
+    }
+
+    @Override
+    public void run(String... args) {
+        Thread.ofVirtual().name("leave-duration-backfill").start(() -> {
+            try {
+                long updated = leaveDurationBackfillService.backfill();
+                log.info("Leave duration backfill complete: {} leave requests updated", updated);
+            } catch (Exception e) {
+                log.error("Leave duration backfill failed, it will resume on next startup", e);
+            }
+        });
+    }
+}
@@ -0,0 +1,165 @@
+package com.leavemanagement.leave_management_system.service;
+
+import com.leavemanagement.leave_management_system.model.LeaveRequest;
+import com.leavemanagement.leave_management_system.util.LeaveUnits;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.Year;
+import java.util.BitSet;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * In-memory, holiday-aware business day index.
+ * Each calendar year is compiled once into a bitset of business days plus a prefix-sum array,
+ * so counting business days between two dates needs no query and no per-day loop.
+ * Holidays come from the {@link HolidayCalendar} of {@code app.holidays.country-id} (all holidays when
+ * unset); a year is recompiled on first use after the holidays changed.
+ */
+@Service
+@Slf4j
+public class BusinessDayCalendar {
+    private final HolidayCalendar holidayCalendar;
+    private final UUID countryId;
+
+    private final ConcurrentMap<Integer, YearIndex> years = new ConcurrentHashMap<>();
+
+    public BusinessDayCalendar(HolidayCalendar holidayCalendar,
+                               @Value("${app.holidays.country-id:}") String countryId) {
+        this.holidayCalendar = holidayCalendar;
+        this.countryId = countryId.isBlank() ? null : UUID.fromString(countryId.trim());
+    }
+
+    /**
+     * Count business days (excluding weekends and holidays) between two dates, both inclusive
+     */
+    public int countBusinessDays(LocalDate startDate, LocalDate endDate) {
+        if (endDate.isBefore(startDate)) {
+            return 0;
+        }
+
+        int startYear = startDate.getYear();
+        int endYear = endDate.getYear();
+
+        if (startYear == endYear) {
+            return yearIndex(startYear).count(startDate.getDayOfYear(), endDate.getDayOfYear());
+        }
+
+        YearIndex first = yearIndex(startYear);
+        int businessDays = first.count(startDate.getDayOfYear(), first.length());
+        for (int year = startYear + 1; year < endYear; year++) {
+            businessDays += yearIndex(year).total();
+        }
+        return businessDays + yearIndex(endYear).count(1, endDate.getDayOfYear());
+    }
+
+    /**
+     * Leave taken between two dates, both inclusive, in half-day units. A leave that is not full day
+     * ends at midday, so its last day counts half when it is a business day.
+     */
+    public long leaveUnits(LocalDate startDate, LocalDate endDate, Boolean fullDay) {
+        long units = LeaveUnits.ofDays(countBusinessDays(startDate, endDate));
+        if (Boolean.FALSE.equals(fullDay) && units > 0 && isBusinessDay(endDate)) {
+            units -= LeaveUnits.HALF_DAY;
+        }
+        return units;
+    }
+
+    /**
+     * Duration of a leave request in half-day units: the stored value, or computed from its dates
+     * for rows that have not been backfilled yet
+     */
+    public long leaveUnits(LeaveRequest leaveRequest) {
+        if (leaveRequest.getLeaveDuration() != null) {
+            return LeaveUnits.fromDays(leaveRequest.getLeaveDuration());
+        }
+        return leaveUnits(leaveRequest.getStartDate(), leaveRequest.getEndDate(), leaveRequest.getFullDay());
+    }
+
+    /**
+     * Duration of a leave request in days, for DTOs
+     */
+    public BigDecimal leaveDuration(LeaveRequest leaveRequest) {
+        return LeaveUnits.toDays(leaveUnits(leaveRequest));
+    }
+
+    /**
+     * Check if a date is a business day (not a weekend and not a holiday)
+     */
+    public boolean isBusinessDay(LocalDate date) {
+        return yearIndex(date.getYear()).isBusinessDay(date.getDayOfYear());
+    }
+
+    private YearIndex yearIndex(int year) {
+        long holidaysVersion = holidayCalendar.version();
+        YearIndex index = years.get(year);
+        if (index != null && index.holidaysVersion == holidaysVersion) {
+            return index;
+        }
+        // compute holds the bin lock while building, so concurrent callers build the year once
+        return years.compute(year, (key, existing) -> existing != null && existing.holidaysVersion == holidaysVersion
+                ? existing
+                : buildYearIndex(year, holidaysVersion));
+    }
+
+    private YearIndex buildYearIndex(int year, long holidaysVersion) {
+        LocalDate firstDay = LocalDate.of(year, 1, 1);
+        int length = Year.of(year).length();
+        BitSet holidays = holidayCalendar.holidayDaysOfYear(countryId, year);
+
+        BitSet businessDays = new BitSet(length + 1);
+        LocalDate currentDate = firstDay;
+        for (int dayOfYear = 1; dayOfYear <= length; dayOfYear++) {
+            DayOfWeek dayOfWeek = currentDate.getDayOfWeek();
+            if (dayOfWeek != DayOfWeek.SATURDAY && dayOfWeek != DayOfWeek.SUNDAY) {
+                businessDays.set(dayOfYear);
+            }
+            currentDate = currentDate.plusDays(1);
+        }
+        businessDays.andNot(holidays);
+
+        log.debug("Compiled business day index for {} with {} holidays", year, holidays.cardinality());
+        return new YearIndex(businessDays, length, holidaysVersion);
+    }
+
+    /**
+     * Business days of a single year, indexed by day of year (1-based)
+     */
+    private static final class YearIndex {
+        private final BitSet businessDays;
+        // prefix[d] = number of business days among days 1..d of the year
+        private final int[] prefix;
+        private final long holidaysVersion;
+
+        private YearIndex(BitSet businessDays, int length, long holidaysVersion) {
+            this.businessDays = businessDays;
+            this.holidaysVersion = holidaysVersion;
+            this.prefix = new int[length + 1];
+            for (int dayOfYear = 1; dayOfYear <= length; dayOfYear++) {
+                prefix[dayOfYear] = prefix[dayOfYear - 1] + (businessDays.get(dayOfYear) ? 1 : 0);
+            }
+        }
+
+        private int count(int fromDayOfYear, int toDayOfYear) {
+            return prefix[toDayOfYear] - prefix[fromDayOfYear - 1];
+        }
+
+        private boolean isBusinessDay(int dayOfYear) {
+            return businessDays.get(dayOfYear);
+        }
+
+        private int length() {
+            return prefix.length - 1;
+        }
+
+        private int total() {
+            return prefix[prefix.length - 1];
+        }
+    }
+}
@@ -40,6 +40,8 @@ public class CalendarService {
     private final CalendarEventRepository calendarEventRepository;
     private final HolidayRepository holidayRepository;
     private final LeaveRequestRepository leaveRequestRepository;
+    private final BusinessDayCalendar businessDayCalendar;
+    private final HolidayCalendar holidayCalendar;
 
     // Optional GraphServiceClient - may be null if Outlook integration is disabled
     private final GraphServiceClient<Request> graphClient;
@@ -61,18 +63,23 @@ public class CalendarService {
             CalendarEventRepository calendarEventRepository,
             HolidayRepository holidayRepository,
             LeaveRequestRepository leaveRequestRepository,
+            BusinessDayCalendar businessDayCalendar,
+            HolidayCalendar holidayCalendar,
             @Autowired(required = false) GraphServiceClient<Request> graphClient) {
         this.calendarEventRepository = calendarEventRepository;
         this.holidayRepository = holidayRepository;
         this.leaveRequestRepository = leaveRequestRepository;
+        this.businessDayCalendar = businessDayCalendar;
+        this.holidayCalendar = holidayCalendar;
         this.graphClient = graphClient;
     }
 
     /**
      * Create a calendar event in the internal system
-     * If Outlook integration is enabled and configured, it will also create an event in Outlook
+     * If Outlook integration is enabled and configured, it will also create an event in Outlook.
+     * Not transactional, like updates and deletes: each save commits on its own, so no connection is
+     * held during the Outlook call.
      */
-    @Transactional
     public CalendarEventDTO createCalendarEvent(CalendarEventDTO eventDTO, UUID departmentId, UUID userId) {
         // Convert ZonedDateTime to LocalDateTime if necessary
         LocalDateTime startTime = eventDTO.getStartTime() instanceof ZonedDateTime ?
@@ -116,7 +123,6 @@ public class CalendarService {
         return convertToCalendarEventDTO(savedEvent);
     }
 
-    @Transactional
     public CalendarEventDTO updateCalendarEvent(CalendarEventDTO eventDTO, UUID departmentId, UUID userId) {
         CalendarEvent calendarEvent = calendarEventRepository.findById(eventDTO.getId())
                 .orElseThrow(() -> new ResourceNotFoundException("Calendar event not found"));
@@ -166,7 +172,6 @@ public class CalendarService {
         return convertToCalendarEventDTO(updatedEvent);
     }
 
-    @Transactional
     public void deleteCalendarEvent(UUID eventId, UUID departmentId, UUID userId) {
         CalendarEvent calendarEvent = calendarEventRepository.findById(eventId)
                 .orElseThrow(() -> new ResourceNotFoundException("Calendar event not found"));
@@ -216,6 +221,10 @@ public class CalendarService {
                 .build();
 
         Holiday savedHoliday = holidayRepository.save(holiday);
+
+        // Reload the holiday tables once this holiday is committed; business day indexes follow on next use
+        holidayCalendar.refreshAfterCommit();
+
         return convertToHolidayDTO(savedHoliday);
     }
 
@@ -229,8 +238,12 @@ public class CalendarService {
                 .collect(Collectors.toList());
     }
 
-    public List<HolidayDTO> getHolidays(LocalDate startDate, LocalDate endDate) {
-        return holidayRepository.findHolidaysBetweenDates(startDate, endDate).stream()
+    /**
+     * Holidays between two dates, with recurring holidays expanded to each year
+     * @param countryId Country whose holidays to include along with the ones without a country; null for all
+     */
+    public List<HolidayDTO> getHolidays(LocalDate startDate, LocalDate endDate, UUID countryId) {
+        return holidayCalendar.between(countryId, startDate, endDate).stream()
                 .map(this::convertToHolidayDTO)
                 .collect(Collectors.toList());
     }
@@ -241,7 +254,7 @@ public class CalendarService {
                 departmentId, startDate, endDate);
 
         // Get all holidays for the date range
-        List<Holiday> holidays = holidayRepository.findHolidaysBetweenDates(startDate, endDate);
+        List<HolidayCalendar.HolidayOccurrence> holidays = holidayCalendar.between(null, startDate, endDate);
 
         // Get department-specific calendar events
         LocalDateTime startDateTime = startDate.atStartOfDay();
@@ -266,7 +279,7 @@ public class CalendarService {
                                     .status(leave.getStatus().getName())
                                     .reason(leave.getReason())
                                     .fullDay(leave.getFullDay())
-                                    .leaveDuration(leave.getLeaveDuration())
+                                    .leaveDuration(businessDayCalendar.leaveDuration(leave))
                                     .build();
                         })
                         .collect(Collectors.toList()))
@@ -417,6 +430,16 @@ public class CalendarService {
                 .build();
     }
 
+    private HolidayDTO convertToHolidayDTO(HolidayCalendar.HolidayOccurrence occurrence) {
+        return HolidayDTO.builder()
+                .id(occurrence.holidayId())
+                .name(occurrence.name())
+                .date(occurrence.date())
+                .isRecurring(occurrence.recurring())
+                .countryId(occurrence.countryId())
+                .build();
+    }
+
     private HolidayDTO convertToHolidayDTO(Holiday holiday) {
         return HolidayDTO.builder()
                 .id(holiday.getId())
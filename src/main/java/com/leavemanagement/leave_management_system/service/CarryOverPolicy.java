@@ -0,0 +1,38 @@
+package com.leavemanagement.leave_management_system.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.Locale;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Days carried over from the previous year's balance: the unused days of eligible leave types,
+ * capped at {@code app.carry-over.max-days}
+ */
+@Component
+public class CarryOverPolicy {
+    private final Set<String> eligibleLeaveTypes;
+    private final BigDecimal maxDays;
+
+    public CarryOverPolicy(@Value("${app.carry-over.leave-types:PTO}") Set<String> eligibleLeaveTypes,
+                           @Value("${app.carry-over.max-days:5}") BigDecimal maxDays) {
+        this.eligibleLeaveTypes = eligibleLeaveTypes.stream()
+                .map(name -> name.trim().toUpperCase(Locale.ROOT))
+                .collect(Collectors.toUnmodifiableSet());
+        this.maxDays = maxDays;
+    }
+
+    /**
+     * @param previousAvailableDays Unused days left in the previous year, or null if there was no balance
+     */
+    public BigDecimal carryOver(String leaveTypeName, BigDecimal previousAvailableDays) {
+        if (previousAvailableDays == null || previousAvailableDays.signum() <= 0
+                || !eligibleLeaveTypes.contains(leaveTypeName.toUpperCase(Locale.ROOT))) {
+            return BigDecimal.ZERO;
+        }
+        return previousAvailableDays.min(maxDays);
+    }
+}
@@ -0,0 +1,329 @@
+package com.leavemanagement.leave_management_system.service;
+
+import com.leavemanagement.leave_management_system.enums.CoverageMode;
+import com.leavemanagement.leave_management_system.exceptions.LeaveRequestConflictException;
+import com.leavemanagement.leave_management_system.util.TransactionCallbacks;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Keeps a minimum share of each department present. Approved leave is tracked in memory as a count of
+ * people out per department and day, so a coverage check is one array read per day of the leave and
+ * issues no query. Counts change as leave is approved, rejected or cancelled, and the change is undone
+ * if the transaction rolls back. The index is rebuilt from the database at startup and on a schedule,
+ * which also picks up headcount changes, department moves and decisions taken on other instances.
+ * <p>
+ * Each department also keeps the ids of the leave it counts, so applying a change twice has no effect.
+ * Changes committed while a rebuild reads, and changes not committed yet, are replayed onto the rebuilt
+ * index before it replaces the current one, so none are lost to the rebuild.
+ */
+@Service
+@Slf4j
+public class DepartmentCoverageService {
+    private static final String HEADCOUNT_SQL = "SELECT department_id, COUNT(*) AS headcount FROM users " +
+            "WHERE department_id IS NOT NULL GROUP BY department_id";
+    // Served by idx_leave_requests_status_end_start
+    private static final String APPROVED_LEAVE_SQL = "SELECT lr.id, u.department_id, lr.start_date, lr.end_date " +
+            "FROM leave_requests lr JOIN users u ON u.id = lr.user_id " +
+            "WHERE lr.status_id = ? AND lr.end_date >= ? AND u.department_id IS NOT NULL";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ReferenceDataRegistry referenceData;
+    private final BusinessDayCalendar businessDayCalendar;
+    private final BigDecimal minPresentRatio;
+    private final CoverageMode mode;
+
+    private volatile ConcurrentMap<UUID, DepartmentDays> departments = new ConcurrentHashMap<>();
+
+    // Changes applied but not committed or rolled back yet
+    private final Set<Change> inFlight = ConcurrentHashMap.newKeySet();
+    // Changes committed since the running rebuild started; null when no rebuild is running
+    private volatile Queue<Change> committedDuringRebuild;
+    // Held shared while applying a change, exclusively while a rebuilt index is caught up and swapped in
+    private final ReadWriteLock swapLock = new ReentrantReadWriteLock();
+
+    /**
+     * Approved leave of a department starting (delta 1) or stopping (delta -1) to count
+     */
+    private record Change(UUID departmentId, UUID leaveRequestId, LocalDate startDate, LocalDate endDate, int delta) {
+        private Change inverse() {
+            return new Change(departmentId, leaveRequestId, startDate, endDate, -delta);
+        }
+    }
+
+    public DepartmentCoverageService(JdbcTemplate jdbcTemplate,
+                                     ReferenceDataRegistry referenceData,
+                                     BusinessDayCalendar businessDayCalendar,
+                                     @Value("${app.coverage.min-present-ratio:0}") BigDecimal minPresentRatio,
+                                     @Value("${app.coverage.mode:BLOCK}") CoverageMode mode) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.referenceData = referenceData;
+        this.businessDayCalendar = businessDayCalendar;
+        this.minPresentRatio = minPresentRatio;
+        this.mode = mode;
+    }
+
+    /**
+     * Rebuild the index from approved leave ending this year or later
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${app.coverage.rebuild-cron:0 15 * * * *}")
+    public synchronized void rebuild() {
+        if (!isEnabled()) {
+            return;
+        }
+
+        committedDuringRebuild = new ConcurrentLinkedQueue<>();
+        try {
+            swapIn(read());
+        } finally {
+            committedDuringRebuild = null;
+        }
+    }
+
+    private ConcurrentMap<UUID, DepartmentDays> read() {
+        ConcurrentMap<UUID, DepartmentDays> rebuilt = new ConcurrentHashMap<>();
+        jdbcTemplate.query(HEADCOUNT_SQL, rs -> {
+            UUID departmentId = rs.getObject("department_id", UUID.class);
+            rebuilt.put(departmentId, new DepartmentDays(rs.getInt("headcount")));
+        });
+
+        LocalDate from = LocalDate.now().withDayOfYear(1);
+        int[] leaves = new int[1];
+        jdbcTemplate.query(APPROVED_LEAVE_SQL, rs -> {
+            DepartmentDays days = rebuilt.get(rs.getObject("department_id", UUID.class));
+            if (days != null) {
+                // Counted over its whole range, as markOut and markBack do, so later changes undo it exactly
+                days.apply(rs.getObject("id", UUID.class), rs.getDate("start_date").toLocalDate(),
+                        rs.getDate("end_date").toLocalDate(), 1);
+                leaves[0]++;
+            }
+        }, referenceData.getStatus("APPROVED").id(), Date.valueOf(from));
+
+        log.info("Rebuilt department coverage index: {} departments, {} approved leaves", rebuilt.size(), leaves[0]);
+        return rebuilt;
+    }
+
+    /**
+     * Catch the rebuilt index up with the changes the reads may have missed and make it current. Changes
+     * the reads did see are skipped, as their leave ids are already counted (or already absent).
+     */
+    private void swapIn(ConcurrentMap<UUID, DepartmentDays> rebuilt) {
+        swapLock.writeLock().lock();
+        try {
+            List<Change> missed = new ArrayList<>(committedDuringRebuild);
+            missed.addAll(inFlight);
+            for (Change change : missed) {
+                DepartmentDays days = rebuilt.get(change.departmentId());
+                if (days != null) {
+                    days.apply(change);
+                }
+            }
+            departments = rebuilt;
+            if (!missed.isEmpty()) {
+                log.debug("Replayed {} coverage changes made during the rebuild", missed.size());
+            }
+        } finally {
+            swapLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Check that one more person out over the given dates keeps the department at its minimum coverage
+     * @return A warning when it would not and the mode is WARN, otherwise null
+     * @throws LeaveRequestConflictException when it would not and the mode is BLOCK
+     */
+    public String checkCoverage(UUID departmentId, LocalDate startDate, LocalDate endDate) {
+        DepartmentDays days = departmentDays(departmentId);
+        if (days == null) {
+            return null;
+        }
+        return shortfallWarning(days, days.firstShortDay(startDate, endDate, minPresent(days), businessDayCalendar));
+    }
+
+    /**
+     * Count newly approved leave, checking coverage first. Check and count are atomic per department,
+     * so concurrent approvals cannot both take the last free slot.
+     * @return A warning when coverage drops below the minimum and the mode is WARN, otherwise null
+     * @throws LeaveRequestConflictException when it would and the mode is BLOCK
+     */
+    public String markOut(UUID departmentId, UUID leaveRequestId, LocalDate startDate, LocalDate endDate) {
+        if (!isEnabled() || departmentId == null) {
+            return null;
+        }
+
+        Change change = new Change(departmentId, leaveRequestId, startDate, endDate, 1);
+        String warning = null;
+        swapLock.readLock().lock();
+        try {
+            DepartmentDays days = departments.get(departmentId);
+            if (days == null) {
+                return null;
+            }
+            synchronized (days) {
+                warning = shortfallWarning(days, days.firstShortDay(startDate, endDate, minPresent(days), businessDayCalendar));
+                days.apply(change);
+            }
+            inFlight.add(change);
+        } finally {
+            swapLock.readLock().unlock();
+        }
+        completeOnCommit(change);
+        return warning;
+    }
+
+    /**
+     * Stop counting leave that is no longer approved
+     */
+    public void markBack(UUID departmentId, UUID leaveRequestId, LocalDate startDate, LocalDate endDate) {
+        if (!isEnabled() || departmentId == null) {
+            return;
+        }
+
+        Change change = new Change(departmentId, leaveRequestId, startDate, endDate, -1);
+        swapLock.readLock().lock();
+        try {
+            DepartmentDays days = departments.get(departmentId);
+            if (days == null) {
+                return;
+            }
+            days.apply(change);
+            inFlight.add(change);
+        } finally {
+            swapLock.readLock().unlock();
+        }
+        completeOnCommit(change);
+    }
+
+    private boolean isEnabled() {
+        return minPresentRatio.signum() > 0;
+    }
+
+    // Departments without members are not tracked until the next rebuild
+    private DepartmentDays departmentDays(UUID departmentId) {
+        if (!isEnabled() || departmentId == null) {
+            return null;
+        }
+        return departments.get(departmentId);
+    }
+
+    private int minPresent(DepartmentDays days) {
+        return minPresentRatio.multiply(BigDecimal.valueOf(days.headcount))
+                .setScale(0, RoundingMode.CEILING)
+                .intValue();
+    }
+
+    private String shortfallWarning(DepartmentDays days, LocalDate shortDay) {
+        if (shortDay == null) {
+            return null;
+        }
+
+        int present = days.headcount - days.peopleOut(shortDay) - 1;
+        String message = "Department coverage would drop to " + Math.max(present, 0) + " of " + days.headcount +
+                " present on " + shortDay + " (minimum " + minPresent(days) + ")";
+        if (mode == CoverageMode.BLOCK) {
+            throw new LeaveRequestConflictException(message);
+        }
+        return message;
+    }
+
+    /**
+     * Once the transaction completes, hand a committed change to a running rebuild, or undo a rolled back
+     * one on whichever index is current by then
+     */
+    private void completeOnCommit(Change change) {
+        TransactionCallbacks.afterCompletion(committed -> complete(change, committed));
+    }
+
+    private void complete(Change change, boolean committed) {
+        swapLock.readLock().lock();
+        try {
+            inFlight.remove(change);
+            if (committed) {
+                Queue<Change> journal = committedDuringRebuild;
+                if (journal != null) {
+                    journal.add(change);
+                }
+            } else {
+                DepartmentDays days = departments.get(change.departmentId());
+                if (days != null) {
+                    days.apply(change.inverse());
+                }
+            }
+        } finally {
+            swapLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * People out per day of a department, one array per year indexed by day of year (1-based), and the
+     * approved leave counted in them
+     */
+    private static final class DepartmentDays {
+        private final int headcount;
+        private final Map<Integer, int[]> peopleOutByYear = new HashMap<>();
+        private final Set<UUID> counted = new HashSet<>();
+
+        private DepartmentDays(int headcount) {
+            this.headcount = headcount;
+        }
+
+        private void apply(Change change) {
+            apply(change.leaveRequestId(), change.startDate(), change.endDate(), change.delta());
+        }
+
+        // Counts leave once however often it is added, and removes only leave that is counted
+        private synchronized void apply(UUID leaveRequestId, LocalDate startDate, LocalDate endDate, int delta) {
+            boolean changed = delta > 0 ? counted.add(leaveRequestId) : counted.remove(leaveRequestId);
+            if (changed) {
+                add(startDate, endDate, delta);
+            }
+        }
+
+        private synchronized void add(LocalDate startDate, LocalDate endDate, int delta) {
+            for (LocalDate date = startDate; !date.isAfter(endDate); date = date.plusDays(1)) {
+                int[] peopleOut = peopleOutByYear.computeIfAbsent(date.getYear(), year -> new int[367]);
+                peopleOut[date.getDayOfYear()] += delta;
+            }
+        }
+
+        private synchronized int peopleOut(LocalDate date) {
+            int[] peopleOut = peopleOutByYear.get(date.getYear());
+            return peopleOut != null ? peopleOut[date.getDayOfYear()] : 0;
+        }
+
+        // First business day on which one more person out would leave fewer than minPresent present
+        private synchronized LocalDate firstShortDay(LocalDate startDate, LocalDate endDate, int minPresent,
+                                                     BusinessDayCalendar businessDayCalendar) {
+            for (LocalDate date = startDate; !date.isAfter(endDate); date = date.plusDays(1)) {
+                if (headcount - peopleOut(date) - 1 < minPresent && businessDayCalendar.isBusinessDay(date)) {
+                    return date;
+                }
+            }
+            return null;
+        }
+    }
+}
@@ -22,6 +22,8 @@ public class DepartmentService {
 
     private final DepartmentRepository departmentRepository;
     private final UserRepository userRepository;
+    private final OrgHierarchyCache orgHierarchy;
+    private final LeaveDayFactService leaveDayFactService;
 
     public List<DepartmentDto> getAllDepartments() {
         return departmentRepository.findAll().stream()
@@ -55,6 +57,7 @@ public class DepartmentService {
                 .build();
 
         Department savedDepartment = departmentRepository.save(department);
+        orgHierarchy.refreshAfterCommit();
         return mapToDepartmentDto(savedDepartment);
     }
     @Transactional
@@ -67,6 +70,7 @@ public class DepartmentService {
 
         department.setHead(head);
         Department updatedDepartment = departmentRepository.save(department);
+        orgHierarchy.refreshAfterCommit();
         return mapToDepartmentDto(updatedDepartment);
     }
 
@@ -77,6 +81,7 @@ public class DepartmentService {
 
         department.setHead(null);
         Department updatedDepartment = departmentRepository.save(department);
+        orgHierarchy.refreshAfterCommit();
         return mapToDepartmentDto(updatedDepartment);
     }
 
@@ -106,6 +111,7 @@ public class DepartmentService {
         }
 
         Department updatedDepartment = departmentRepository.save(department);
+        orgHierarchy.refreshAfterCommit();
         return mapToDepartmentDto(updatedDepartment);
     }
 
@@ -115,6 +121,8 @@ public class DepartmentService {
             throw new ResourceNotFoundException("Department not found with id: " + id);
         }
         departmentRepository.deleteById(id);
+        leaveDayFactService.detachDepartment(id);
+        orgHierarchy.refreshAfterCommit();
     }
 
     public List<DepartmentDto> getDepartmentsByHead(UUID headId) {
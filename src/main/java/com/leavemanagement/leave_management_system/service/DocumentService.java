@@ -2,6 +2,7 @@ package com.leavemanagement.leave_management_system.service;
 
 import com.leavemanagement.leave_management_system.dto.DocumentDTO;
 import com.leavemanagement.leave_management_system.dto.FileUploadResultDTO;
+import com.leavemanagement.leave_management_system.dto.UploadedDocumentDTO;
 import com.leavemanagement.leave_management_system.exceptions.ResourceNotFoundException;
 import com.leavemanagement.leave_management_system.model.Document;
 import com.leavemanagement.leave_management_system.model.LeaveRequest;
@@ -17,6 +18,8 @@ import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.UUID;
 
 @Service
@@ -69,6 +72,40 @@ public class DocumentService {
         return convertToDocumentDTO(savedDocument);
     }
 
+    /**
+     * Uploads the attachments of a leave request that is about to be created, concurrently.
+     * Document records are created together with the leave request; if that fails the uploads
+     * must be removed with {@link #deleteUploads}.
+     */
+    public List<UploadedDocumentDTO> uploadLeaveAttachments(UUID userId, List<MultipartFile> files) throws IOException {
+        List<FileUploadResultDTO> results = fileStorageService.uploadFiles(files, "documents/" + userId + "/leave-requests");
+
+        List<UploadedDocumentDTO> uploads = new ArrayList<>(files.size());
+        for (int i = 0; i < files.size(); i++) {
+            MultipartFile file = files.get(i);
+            uploads.add(UploadedDocumentDTO.builder()
+                    .filename(file.getOriginalFilename())
+                    .fileType(file.getContentType())
+                    .fileUrl(results.get(i).getFileUrl())
+                    .s3Key(results.get(i).getS3Key())
+                    .build());
+        }
+        logger.info("Uploaded {} leave attachments for user: {}", uploads.size(), userId);
+        return uploads;
+    }
+
+    /**
+     * Removes uploaded files whose leave request was never created
+     */
+    public void deleteUploads(List<UploadedDocumentDTO> uploads) {
+        fileStorageService.deleteFiles(uploads.stream()
+                .map(upload -> FileUploadResultDTO.builder()
+                        .fileUrl(upload.getFileUrl())
+                        .s3Key(upload.getS3Key())
+                        .build())
+                .toList());
+    }
+
     /**
      * Convert Document entity to DTO
      */
@@ -9,10 +9,20 @@ import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 import software.amazon.awssdk.core.sync.RequestBody;
 import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.Delete;
+import software.amazon.awssdk.services.s3.model.DeleteObjectsRequest;
+import software.amazon.awssdk.services.s3.model.ObjectIdentifier;
 import software.amazon.awssdk.services.s3.model.PutObjectRequest;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
 
 @Service
 @RequiredArgsConstructor
@@ -27,6 +37,9 @@ public class FileStorageService {
     @Value("${AWS_REGION:eu-north-1}")
     private String region;
 
+    @Value("${app.documents.upload-concurrency:4}")
+    private int uploadConcurrency;
+
     /**
      * Uploads a profile image to S3
      */
@@ -48,6 +61,74 @@ public class FileStorageService {
         return uploadToS3(file, key);
     }
 
+    /**
+     * Uploads several files to S3 concurrently, each on its own virtual thread with at most
+     * app.documents.upload-concurrency uploads in flight. Either all files are uploaded or, if any
+     * upload fails, the ones that succeeded are deleted again and the failure is thrown.
+     * @return Upload results in the order of the given files
+     */
+    public List<FileUploadResultDTO> uploadFiles(List<MultipartFile> files, String basePath) throws IOException {
+        Semaphore permits = new Semaphore(uploadConcurrency);
+        List<Future<FileUploadResultDTO>> uploads = new ArrayList<>(files.size());
+        // Closing the executor waits for every upload to finish
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (MultipartFile file : files) {
+                uploads.add(executor.submit(() -> {
+                    permits.acquire();
+                    try {
+                        return uploadFile(file, basePath);
+                    } finally {
+                        permits.release();
+                    }
+                }));
+            }
+        }
+
+        List<FileUploadResultDTO> results = new ArrayList<>(files.size());
+        Throwable failure = null;
+        for (Future<FileUploadResultDTO> upload : uploads) {
+            try {
+                results.add(upload.get());
+            } catch (ExecutionException e) {
+                failure = failure == null ? e.getCause() : failure;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                failure = failure == null ? e : failure;
+            }
+        }
+
+        if (failure != null) {
+            deleteFiles(results);
+            if (failure instanceof IOException ioException) {
+                throw ioException;
+            }
+            throw new IOException("Failed to upload files to S3", failure);
+        }
+        return results;
+    }
+
+    /**
+     * Deletes uploaded files from S3 in a single request; failures are logged, not thrown
+     */
+    public void deleteFiles(List<FileUploadResultDTO> uploads) {
+        if (uploads.isEmpty()) {
+            return;
+        }
+
+        List<ObjectIdentifier> objects = uploads.stream()
+                .map(upload -> ObjectIdentifier.builder().key(upload.getS3Key()).build())
+                .toList();
+        try {
+            s3Client.deleteObjects(DeleteObjectsRequest.builder()
+                    .bucket(bucketName)
+                    .delete(Delete.builder().objects(objects).quiet(true).build())
+                    .build());
+            logger.info("Deleted {} uploaded files from S3", objects.size());
+        } catch (RuntimeException e) {
+            logger.error("Failed to delete uploaded files from S3: {}", objects, e);
+        }
+    }
+
     /**
      * Common method to handle S3 uploads
      */
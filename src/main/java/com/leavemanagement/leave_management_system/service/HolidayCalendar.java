@@ -0,0 +1,165 @@
+package com.leavemanagement.leave_management_system.service;
+
+import com.leavemanagement.leave_management_system.repository.HolidayRepository;
+import com.leavemanagement.leave_management_system.util.LazySnapshot;
+import com.leavemanagement.leave_management_system.util.TransactionCallbacks;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.MonthDay;
+import java.time.Year;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.stream.Collectors;
+
+/**
+ * In-memory holiday engine. The holidays table is loaded once (it is small) and expanded per country and
+ * year into compiled tables: the year's fixed holidays plus every recurring holiday on the same month and
+ * day, from the year it was first observed on. Recurring 29 February holidays are only observed in leap
+ * years. Tables are compiled on first use without a query, so ranges spanning several years cost none.
+ * <p>
+ * A country's table holds the holidays without a country plus that country's own; the table for a null
+ * country holds every holiday. Adding a holiday reloads the engine once it commits and bumps its
+ * {@link #version()}, which tells dependent indexes to recompile.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class HolidayCalendar {
+    private final HolidayRepository holidayRepository;
+
+    private final LazySnapshot<Snapshot> snapshot = new LazySnapshot<>(this::load);
+
+    public record HolidayOccurrence(UUID holidayId, String name, LocalDate date, boolean recurring, UUID countryId) {
+    }
+
+    private record HolidayEntry(UUID id, String name, LocalDate date, boolean recurring, UUID countryId) {
+        private boolean appliesTo(UUID country) {
+            return country == null || countryId == null || countryId.equals(country);
+        }
+    }
+
+    private record TableKey(UUID countryId, int year) {
+    }
+
+    /**
+     * Compiled holidays of one country and year: occurrences in date order and their days of year
+     */
+    private record YearTable(List<HolidayOccurrence> occurrences, BitSet daysOfYear) {
+    }
+
+    private record Snapshot(long version, Map<Integer, List<HolidayEntry>> fixedByYear, List<HolidayEntry> recurring,
+                            ConcurrentMap<TableKey, YearTable> tables) {
+    }
+
+    /**
+     * Reload all holidays. Runs once the application (including seeders) is ready.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void refresh() {
+        snapshot.refresh();
+    }
+
+    /**
+     * Reload holidays once the current transaction commits (or immediately outside a transaction)
+     */
+    public void refreshAfterCommit() {
+        TransactionCallbacks.afterCommit(this::refresh);
+    }
+
+    private Snapshot load(Snapshot previous) {
+        List<HolidayEntry> holidays = holidayRepository.findAll().stream()
+                .map(holiday -> new HolidayEntry(holiday.getId(), holiday.getName(), holiday.getDate(),
+                        Boolean.TRUE.equals(holiday.getIsRecurring()), holiday.getCountryId()))
+                .toList();
+        Map<Integer, List<HolidayEntry>> fixedByYear = holidays.stream()
+                .filter(holiday -> !holiday.recurring())
+                .collect(Collectors.groupingBy(holiday -> holiday.date().getYear()));
+        List<HolidayEntry> recurring = holidays.stream()
+                .filter(HolidayEntry::recurring)
+                .toList();
+
+        long version = previous != null ? previous.version() + 1 : 1;
+        log.info("Loaded {} holidays ({} recurring)", holidays.size(), recurring.size());
+        return new Snapshot(version, Map.copyOf(fixedByYear), recurring, new ConcurrentHashMap<>());
+    }
+
+    /**
+     * Changes whenever the holidays are reloaded
+     */
+    public long version() {
+        return snapshot().version();
+    }
+
+    /**
+     * Holiday occurrences between two dates, both inclusive, in date order
+     * @param countryId Country whose holidays to include along with the ones without a country; null for all
+     */
+    public List<HolidayOccurrence> between(UUID countryId, LocalDate startDate, LocalDate endDate) {
+        List<HolidayOccurrence> occurrences = new ArrayList<>();
+        if (endDate.isBefore(startDate)) {
+            return occurrences;
+        }
+        Snapshot current = snapshot();
+        for (int year = startDate.getYear(); year <= endDate.getYear(); year++) {
+            for (HolidayOccurrence occurrence : table(current, countryId, year).occurrences()) {
+                if (!occurrence.date().isBefore(startDate) && !occurrence.date().isAfter(endDate)) {
+                    occurrences.add(occurrence);
+                }
+            }
+        }
+        return occurrences;
+    }
+
+    /**
+     * Days of the year (1-based) that are holidays; the returned set is a copy
+     */
+    public BitSet holidayDaysOfYear(UUID countryId, int year) {
+        return (BitSet) table(snapshot(), countryId, year).daysOfYear().clone();
+    }
+
+    private YearTable table(Snapshot current, UUID countryId, int year) {
+        return current.tables().computeIfAbsent(new TableKey(countryId, year), key -> compile(current, key));
+    }
+
+    private YearTable compile(Snapshot current, TableKey key) {
+        List<HolidayOccurrence> occurrences = new ArrayList<>();
+        for (HolidayEntry holiday : current.fixedByYear().getOrDefault(key.year(), List.of())) {
+            if (holiday.appliesTo(key.countryId())) {
+                occurrences.add(occurrence(holiday, holiday.date()));
+            }
+        }
+        for (HolidayEntry holiday : current.recurring()) {
+            MonthDay monthDay = MonthDay.from(holiday.date());
+            if (holiday.appliesTo(key.countryId()) && holiday.date().getYear() <= key.year()
+                    && monthDay.isValidYear(key.year())) {
+                occurrences.add(occurrence(holiday, monthDay.atYear(key.year())));
+            }
+        }
+        occurrences.sort(Comparator.comparing(HolidayOccurrence::date).thenComparing(HolidayOccurrence::name,
+                Comparator.nullsLast(Comparator.naturalOrder())));
+
+        BitSet daysOfYear = new BitSet(Year.of(key.year()).length() + 1);
+        occurrences.forEach(occurrence -> daysOfYear.set(occurrence.date().getDayOfYear()));
+        log.debug("Compiled {} holidays for {} (country {})", occurrences.size(), key.year(), key.countryId());
+        return new YearTable(List.copyOf(occurrences), daysOfYear);
+    }
+
+    private HolidayOccurrence occurrence(HolidayEntry holiday, LocalDate date) {
+        return new HolidayOccurrence(holiday.id(), holiday.name(), date, holiday.recurring(), holiday.countryId());
+    }
+
+    private Snapshot snapshot() {
+        return snapshot.get();
+    }
+}
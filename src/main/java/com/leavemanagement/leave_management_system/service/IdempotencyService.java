@@ -0,0 +1,312 @@
+package com.leavemanagement.leave_management_system.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.leavemanagement.leave_management_system.dto.CacheStatsDTO;
+import com.leavemanagement.leave_management_system.exceptions.IdempotencyKeyException;
+import com.leavemanagement.leave_management_system.model.IdempotencyRecord;
+import com.leavemanagement.leave_management_system.repository.IdempotencyRecordRepository;
+import com.leavemanagement.leave_management_system.util.BoundedCache;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.HexFormat;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Makes POST endpoints safe to retry with an Idempotency-Key header. The first request with a key runs
+ * and its successful response is stored; later requests with the same key and body get that response
+ * back without running again. Concurrent duplicates on this instance wait for the in-flight execution,
+ * and a durable claim row makes duplicates on other instances wait too (409 until it completes).
+ * Recent responses are also kept in a bounded in-memory cache so most replays issue no query.
+ * The action and the storing of its response commit in one transaction, so an action that committed can
+ * always be replayed and is never run again. Failed executions release the key so the client can retry.
+ */
+@Service
+@Slf4j
+public class IdempotencyService {
+    public static final String HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+    private static final int MAX_KEY_LENGTH = 255;
+
+    private final IdempotencyRecordRepository idempotencyRecordRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final Duration ttl;
+    private final Duration lease;
+
+    private final ConcurrentMap<String, CompletableFuture<StoredResponse>> inFlight = new ConcurrentHashMap<>();
+    private final BoundedCache<String, StoredResponse> recent;
+
+    private record StoredResponse(String requestHash, int statusCode, String body, LocalDateTime expiresAt) {
+    }
+
+    // Either the record this execution now owns (and when it claimed it), or the response of a completed one
+    private record Claim(UUID recordId, LocalDateTime claimedAt, StoredResponse completed) {
+    }
+
+    public IdempotencyService(IdempotencyRecordRepository idempotencyRecordRepository,
+                              TransactionTemplate transactionTemplate,
+                              ObjectMapper objectMapper,
+                              @Value("${app.idempotency.ttl-hours:24}") long ttlHours,
+                              @Value("${app.idempotency.lease-seconds:60}") long leaseSeconds,
+                              @Value("${app.idempotency.cache-size:10000}") int cacheSize) {
+        this.idempotencyRecordRepository = idempotencyRecordRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.objectMapper = objectMapper;
+        this.ttl = Duration.ofHours(ttlHours);
+        this.lease = Duration.ofSeconds(leaseSeconds);
+        this.recent = new BoundedCache<>("idempotency", cacheSize, ttl);
+    }
+
+    /**
+     * Run the action once per user, endpoint and idempotency key
+     * @param request Everything that identifies the request; a key reused with a different request is rejected
+     * @param action Runs the request in the transaction that stores its response; only 2xx responses are stored
+     */
+    public <T> ResponseEntity<T> execute(UUID userId, String endpoint, String idempotencyKey, Object request,
+                                         Class<T> responseType, Supplier<ResponseEntity<T>> action) {
+        return execute(userId, endpoint, idempotencyKey, request, responseType,
+                () -> null, prepared -> action.get(), prepared -> {
+                });
+    }
+
+    /**
+     * Run the action once per user, endpoint and idempotency key, after a preparation step that must not
+     * hold a database connection (e.g. uploads)
+     * @param request Everything that identifies the request; a key reused with a different request is rejected
+     * @param prepare Runs before the transaction; its result is passed to the action
+     * @param action Runs the request in the transaction that stores its response; only 2xx responses are stored
+     * @param discard Undoes the preparation when the action's transaction does not commit
+     */
+    public <P, T> ResponseEntity<T> execute(UUID userId, String endpoint, String idempotencyKey, Object request,
+                                            Class<T> responseType, Supplier<P> prepare,
+                                            Function<P, ResponseEntity<T>> action, Consumer<P> discard) {
+        if (idempotencyKey == null || idempotencyKey.isBlank()) {
+            P prepared = prepare.get();
+            try {
+                return action.apply(prepared);
+            } catch (RuntimeException e) {
+                discard.accept(prepared);
+                throw e;
+            }
+        }
+        if (idempotencyKey.length() > MAX_KEY_LENGTH) {
+            throw new IdempotencyKeyException(HEADER + " must be at most " + MAX_KEY_LENGTH + " characters",
+                    HttpStatus.BAD_REQUEST);
+        }
+
+        String scopedKey = userId + " " + endpoint + " " + idempotencyKey;
+        String requestHash = hash(request);
+
+        StoredResponse cached = cached(scopedKey);
+        if (cached != null) {
+            return replay(cached, requestHash, responseType);
+        }
+
+        CompletableFuture<StoredResponse> execution = new CompletableFuture<>();
+        CompletableFuture<StoredResponse> existing = inFlight.putIfAbsent(scopedKey, execution);
+        if (existing != null) {
+            return replay(await(existing), requestHash, responseType);
+        }
+
+        try {
+            Claim claim = transactionTemplate.execute(status -> claim(userId, endpoint, idempotencyKey, requestHash));
+            if (claim.completed() != null) {
+                remember(scopedKey, claim.completed());
+                execution.complete(claim.completed());
+                return replay(claim.completed(), requestHash, responseType);
+            }
+
+            P prepared;
+            try {
+                prepared = prepare.get();
+            } catch (RuntimeException e) {
+                release(claim);
+                throw e;
+            }
+
+            ResponseEntity<T> response;
+            StoredResponse[] stored = new StoredResponse[1];
+            try {
+                response = transactionTemplate.execute(status -> {
+                    ResponseEntity<T> result = action.apply(prepared);
+                    stored[0] = new StoredResponse(requestHash, result.getStatusCode().value(),
+                            toJson(result.getBody()), LocalDateTime.now().plus(ttl));
+                    if (result.getStatusCode().is2xxSuccessful() && idempotencyRecordRepository.complete(
+                            claim.recordId(), claim.claimedAt(), stored[0].statusCode(), stored[0].body()) == 0) {
+                        // Our claim outlived its lease and was taken over; roll back rather than run twice
+                        throw inProgress();
+                    }
+                    return result;
+                });
+            } catch (RuntimeException e) {
+                discard(discard, prepared);
+                release(claim);
+                throw e;
+            }
+
+            if (!response.getStatusCode().is2xxSuccessful()) {
+                // Not stored: waiting duplicates get the same answer, later retries run again
+                release(claim);
+                execution.complete(new StoredResponse(requestHash, stored[0].statusCode(), stored[0].body(), null));
+                return response;
+            }
+
+            remember(scopedKey, stored[0]);
+            execution.complete(stored[0]);
+            return response;
+        } catch (RuntimeException e) {
+            execution.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(scopedKey, execution);
+        }
+    }
+
+    public CacheStatsDTO stats() {
+        return recent.stats();
+    }
+
+    @Scheduled(cron = "${app.idempotency.purge-cron:0 0 3 * * *}")
+    public void purgeExpired() {
+        Integer deleted = transactionTemplate.execute(status -> idempotencyRecordRepository.deleteExpired(LocalDateTime.now()));
+        log.info("Purged {} expired idempotency keys", deleted);
+    }
+
+    /**
+     * Claim the key for this execution, or find the completed response to replay.
+     * A claim left behind by an execution that never finished is taken over once its lease has passed.
+     */
+    private Claim claim(UUID userId, String endpoint, String idempotencyKey, String requestHash) {
+        // Stored with microsecond precision; completing and releasing match on it
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+        LocalDateTime expiresAt = now.plus(ttl);
+        UUID recordId = UUID.randomUUID();
+        if (idempotencyRecordRepository.claim(recordId, userId, endpoint, idempotencyKey, requestHash, now, expiresAt) == 1) {
+            return new Claim(recordId, now, null);
+        }
+
+        IdempotencyRecord existing = idempotencyRecordRepository
+                .findByUserIdAndEndpointAndIdempotencyKey(userId, endpoint, idempotencyKey)
+                .orElseThrow(this::inProgress);
+        boolean expired = existing.getExpiresAt().isBefore(now);
+        if (existing.getStatusCode() != null && !expired) {
+            return new Claim(null, null, new StoredResponse(existing.getRequestHash(), existing.getStatusCode(),
+                    existing.getResponseBody(), existing.getExpiresAt()));
+        }
+
+        boolean abandoned = existing.getStatusCode() == null && existing.getCreatedAt().isBefore(now.minus(lease));
+        if ((expired || abandoned)
+                && idempotencyRecordRepository.reclaim(existing.getId(), existing.getCreatedAt(), requestHash, now, expiresAt) == 1) {
+            return new Claim(existing.getId(), now, null);
+        }
+        throw inProgress();
+    }
+
+    private void release(Claim claim) {
+        try {
+            transactionTemplate.executeWithoutResult(status ->
+                    idempotencyRecordRepository.release(claim.recordId(), claim.claimedAt()));
+        } catch (RuntimeException e) {
+            // The claim expires after the lease, at which point the key can be retried
+            log.warn("Could not release idempotency key {}", claim.recordId(), e);
+        }
+    }
+
+    private <P> void discard(Consumer<P> discard, P prepared) {
+        try {
+            discard.accept(prepared);
+        } catch (RuntimeException e) {
+            log.warn("Could not undo the preparation of a failed idempotent request", e);
+        }
+    }
+
+    private StoredResponse await(CompletableFuture<StoredResponse> execution) {
+        try {
+            return execution.get(lease.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (TimeoutException e) {
+            throw inProgress();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw inProgress();
+        }
+    }
+
+    private <T> ResponseEntity<T> replay(StoredResponse stored, String requestHash, Class<T> responseType) {
+        if (!stored.requestHash().equals(requestHash)) {
+            throw new IdempotencyKeyException(HEADER + " was already used for a different request",
+                    HttpStatus.UNPROCESSABLE_ENTITY);
+        }
+        return ResponseEntity.status(stored.statusCode())
+                .header(REPLAYED_HEADER, "true")
+                .body(fromJson(stored.body(), responseType));
+    }
+
+    private StoredResponse cached(String scopedKey) {
+        StoredResponse stored = recent.getIfPresent(scopedKey);
+        // A response found in the database may expire before its cache entry does
+        return stored != null && !stored.expiresAt().isBefore(LocalDateTime.now()) ? stored : null;
+    }
+
+    private void remember(String scopedKey, StoredResponse stored) {
+        if (stored.expiresAt() != null) {
+            recent.put(scopedKey, stored, recent.stamp());
+        }
+    }
+
+    private IdempotencyKeyException inProgress() {
+        return new IdempotencyKeyException("A request with this " + HEADER + " is still being processed",
+                HttpStatus.CONFLICT);
+    }
+
+    private String hash(Object request) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(toJson(request).getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private String toJson(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize idempotent request or response", e);
+        }
+    }
+
+    private <T> T fromJson(String json, Class<T> type) {
+        try {
+            return json != null ? objectMapper.readValue(json, type) : null;
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not read stored idempotent response", e);
+        }
+    }
+}
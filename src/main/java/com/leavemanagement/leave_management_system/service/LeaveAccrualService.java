@@ -0,0 +1,212 @@
+package com.leavemanagement.leave_management_system.service;
+
+import com.leavemanagement.leave_management_system.dto.LeaveAccrualRunDTO;
+import com.leavemanagement.leave_management_system.model.LeaveAccrualRun;
+import com.leavemanagement.leave_management_system.repository.LeaveAccrualRunRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.math.RoundingMode;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Monthly leave accrual. A balance accrues a twelfth of its leave type's yearly entitlement per month,
+ * pro-rated by the day for the month the user was hired in, capped at the type's max days. Accruals
+ * are posted on the first of the month for that month.
+ * <p>
+ * The monthly run recomputes every balance of the current year in a single statement that locks the
+ * balances, updates the ones whose accrued days changed and appends their ledger entries. A new month
+ * revisits balances still below their cap; beyond that only balances of users and leave types changed
+ * since the previous run are recomputed. Balances created before accrual existed (no accrued days)
+ * keep their up-front entitlement.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class LeaveAccrualService {
+    private static final BigDecimal MONTHS_PER_YEAR = new BigDecimal("12");
+    private static final BigDecimal PTO_ANNUAL_DAYS = new BigDecimal("20");
+    private static final LocalDateTime ALL_CHANGES = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+    // Must stay in line with accruedDays below; LeaveAccrualServiceTest runs both side by side
+    private static final String ACCRUAL_SQL = """
+            WITH target AS (
+                SELECT lb.id AS balance_id, lb.total_days AS previous_total_days, lt.max_days,
+                       LEAST(lt.max_days, ROUND(
+                           CASE WHEN UPPER(lt.name) = 'PTO' THEN 20 ELSE COALESCE(lt.accrual_rate, 0) * 12 END
+                           * CAST(CASE
+                                 WHEN u.hire_date IS NULL OR u.hire_date < :yearStart THEN :month
+                                 WHEN u.hire_date > :periodEnd THEN 0
+                                 ELSE :month - EXTRACT(MONTH FROM u.hire_date)
+                                      + (EXTRACT(DAY FROM date_trunc('month', u.hire_date) + INTERVAL '1 month' - INTERVAL '1 day')
+                                         - EXTRACT(DAY FROM u.hire_date) + 1)
+                                      / EXTRACT(DAY FROM date_trunc('month', u.hire_date) + INTERVAL '1 month' - INTERVAL '1 day')
+                             END AS numeric)
+                           / 12, 2)) AS accrued_days
+                FROM leave_balances lb
+                JOIN users u ON u.id = lb.user_id
+                JOIN leave_types lt ON lt.id = lb.leave_type_id
+                WHERE lb.year = :year
+                  AND lb.accrued_days IS NOT NULL
+                  AND lt.is_active
+                  AND ((:fullRun AND lb.accrued_days < lt.max_days)
+                       OR u.updated_at > :changedSince
+                       OR lt.updated_at > :changedSince)
+                FOR UPDATE OF lb
+            ),
+            updated AS (
+                UPDATE leave_balances lb
+                SET accrued_days = t.accrued_days,
+                    total_days = LEAST(t.max_days, t.accrued_days + lb.adjustment_days) + COALESCE(lb.carried_over_days, 0),
+                    updated_at = :now
+                FROM target t
+                WHERE lb.id = t.balance_id
+                  AND lb.accrued_days IS DISTINCT FROM t.accrued_days
+                RETURNING lb.id AS balance_id, lb.total_days - t.previous_total_days AS total_delta
+            ),
+            ledger AS (
+                INSERT INTO leave_balance_transactions (id, balance_id, type, total_delta, used_delta, pending_delta, reason, created_at)
+                SELECT gen_random_uuid(), balance_id, 'ACCRUAL', total_delta, 0, 0, :reason, :now
+                FROM updated
+                WHERE total_delta <> 0
+                RETURNING 1
+            )
+            SELECT (SELECT COUNT(*) FROM updated) AS balances_updated, (SELECT COUNT(*) FROM ledger) AS entries_recorded
+            """;
+
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final LeaveAccrualRunRepository accrualRunRepository;
+    private final LeaveBalanceCache balanceCache;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    /**
+     * Post this month's accruals
+     */
+    @Scheduled(cron = "${app.accrual.cron:0 30 0 1 * *}")
+    public void runMonthlyAccrual() {
+        LeaveAccrualRunDTO run = runAccrual(YearMonth.now());
+        log.info("Monthly leave accrual for {}-{}: {} balances updated",
+                run.getYear(), run.getMonth(), run.getBalancesUpdated());
+    }
+
+    /**
+     * Recompute accrued days of the month's year through the given month
+     */
+    public LeaveAccrualRunDTO runAccrual(YearMonth month) {
+        if (!running.compareAndSet(false, true)) {
+            throw new IllegalStateException("Leave accrual is already running");
+        }
+        try {
+            return transactionTemplate.execute(status -> {
+                LocalDateTime startedAt = LocalDateTime.now();
+                LeaveAccrualRun previous = accrualRunRepository.findFirstByOrderByStartedAtDesc().orElse(null);
+                LocalDateTime changedSince = previous != null ? previous.getStartedAt() : ALL_CHANGES;
+                // A new month moves every balance that has not reached its cap yet
+                boolean fullRun = previous == null || previous.getYear() != month.getYear()
+                        || previous.getMonth() != month.getMonthValue();
+
+                MapSqlParameterSource params = new MapSqlParameterSource()
+                        .addValue("year", month.getYear())
+                        .addValue("month", month.getMonthValue())
+                        .addValue("yearStart", month.withMonth(1).atDay(1))
+                        .addValue("periodEnd", month.atEndOfMonth())
+                        .addValue("fullRun", fullRun)
+                        .addValue("changedSince", Timestamp.valueOf(changedSince))
+                        .addValue("now", Timestamp.valueOf(startedAt))
+                        .addValue("reason", "Monthly accrual " + month);
+                Integer balancesUpdated = namedParameterJdbcTemplate.queryForObject(ACCRUAL_SQL, params,
+                        (rs, rowNum) -> rs.getInt("balances_updated"));
+                if (balancesUpdated != null && balancesUpdated > 0) {
+                    balanceCache.evictAllAfterCommit();
+                }
+
+                LeaveAccrualRun run = accrualRunRepository.save(LeaveAccrualRun.builder()
+                        .year(month.getYear())
+                        .month(month.getMonthValue())
+                        .fullRun(fullRun)
+                        .balancesUpdated(balancesUpdated != null ? balancesUpdated : 0)
+                        .startedAt(startedAt)
+                        .completedAt(LocalDateTime.now())
+                        .build());
+                return convertToDTO(run);
+            });
+        } finally {
+            running.set(false);
+        }
+    }
+
+    /**
+     * Yearly entitlement of a leave type before pro-rating, adjustments and the max days cap
+     */
+    public BigDecimal annualEntitlement(ReferenceDataRegistry.LeaveTypeEntry leaveType) {
+        // For PTO, use standard 20 days per year
+        if ("PTO".equalsIgnoreCase(leaveType.name())) {
+            return PTO_ANNUAL_DAYS;
+        }
+        // Otherwise monthly accrual * 12
+        return leaveType.accrualRate() != null ? leaveType.accrualRate().multiply(MONTHS_PER_YEAR) : BigDecimal.ZERO;
+    }
+
+    /**
+     * Days accrued in a year as of today: through the current month for this year, the whole of a past
+     * year, nothing yet for a future year
+     */
+    public BigDecimal accruedDays(ReferenceDataRegistry.LeaveTypeEntry leaveType, LocalDate hireDate, int year) {
+        YearMonth currentMonth = YearMonth.now();
+        if (year > currentMonth.getYear()) {
+            return BigDecimal.ZERO.setScale(2);
+        }
+        return accruedDays(leaveType, hireDate, year == currentMonth.getYear() ? currentMonth : YearMonth.of(year, 12));
+    }
+
+    /**
+     * Days accrued in the month's year through that month, as the accrual run for the month posts them
+     */
+    public BigDecimal accruedDays(ReferenceDataRegistry.LeaveTypeEntry leaveType, LocalDate hireDate, YearMonth through) {
+        BigDecimal accrued = annualEntitlement(leaveType)
+                .multiply(accruedMonths(hireDate, through))
+                .divide(MONTHS_PER_YEAR, 2, RoundingMode.HALF_UP);
+        if (leaveType.maxDays() != null) {
+            accrued = accrued.min(new BigDecimal(leaveType.maxDays()));
+        }
+        return accrued;
+    }
+
+    private BigDecimal accruedMonths(LocalDate hireDate, YearMonth through) {
+        if (hireDate == null || hireDate.getYear() < through.getYear()) {
+            return BigDecimal.valueOf(through.getMonthValue());
+        }
+        if (hireDate.isAfter(through.atEndOfMonth())) {
+            return BigDecimal.ZERO;
+        }
+        // Whole months after the hire month, plus the share of the hire month still ahead on the hire date
+        int daysInHireMonth = hireDate.lengthOfMonth();
+        BigDecimal hireMonthShare = BigDecimal.valueOf(daysInHireMonth - hireDate.getDayOfMonth() + 1)
+                .divide(BigDecimal.valueOf(daysInHireMonth), MathContext.DECIMAL64);
+        return BigDecimal.valueOf(through.getMonthValue() - hireDate.getMonthValue()).add(hireMonthShare);
+    }
+
+    private LeaveAccrualRunDTO convertToDTO(LeaveAccrualRun run) {
+        return LeaveAccrualRunDTO.builder()
+                .year(run.getYear())
+                .month(run.getMonth())
+                .fullRun(run.isFullRun())
+                .balancesUpdated(run.getBalancesUpdated())
+                .startedAt(run.getStartedAt())
+                .completedAt(run.getCompletedAt())
+                .build();
+    }
+}
@@ -0,0 +1,268 @@
+package com.leavemanagement.leave_management_system.service;
+
+import com.leavemanagement.leave_management_system.enums.ApprovalLevel;
+import com.leavemanagement.leave_management_system.enums.ApprovalStepStatus;
+import com.leavemanagement.leave_management_system.exceptions.UnauthorizedException;
+import com.leavemanagement.leave_management_system.model.LeaveApprovalStep;
+import com.leavemanagement.leave_management_system.model.LeaveRequest;
+import com.leavemanagement.leave_management_system.repository.LeaveApprovalStepRepository;
+import com.leavemanagement.leave_management_system.repository.LeaveRequestRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Multi-level approval of leave requests. On submission the configured chain ({@code app.approval.chain},
+ * e.g. direct manager, then department head, then HR) is resolved from the {@link OrgHierarchyCache} and
+ * materialized as approval steps: the first step is pending, later steps wait their turn. Pending steps
+ * are the approvers' inboxes. Approving moves the request to the next step; the last approval, a
+ * rejection, or an admin override decides the request.
+ * <p>
+ * A step becoming pending for an approver who is on approved leave today is delegated to their nearest
+ * manager who is not; among several candidates (HR), absent ones are skipped unless all are absent.
+ * Requests without steps (submitted before routing existed, or whose chain resolved to nobody) can be
+ * decided by any manager or admin, as before.
+ */
+@Service
+@Slf4j
+public class LeaveApprovalService {
+    private static final int MAX_DELEGATION_DEPTH = 5;
+
+    private final LeaveApprovalStepRepository approvalStepRepository;
+    private final LeaveRequestRepository leaveRequestRepository;
+    private final OrgHierarchyCache orgHierarchy;
+    private final ReferenceDataRegistry referenceData;
+    private final List<ApprovalLevel> chain;
+
+    public LeaveApprovalService(LeaveApprovalStepRepository approvalStepRepository,
+                                LeaveRequestRepository leaveRequestRepository,
+                                OrgHierarchyCache orgHierarchy,
+                                ReferenceDataRegistry referenceData,
+                                @Value("${app.approval.chain:MANAGER,DEPARTMENT_HEAD,HR}") String chain) {
+        this.approvalStepRepository = approvalStepRepository;
+        this.leaveRequestRepository = leaveRequestRepository;
+        this.orgHierarchy = orgHierarchy;
+        this.referenceData = referenceData;
+        this.chain = Arrays.stream(chain.split(","))
+                .map(String::trim)
+                .filter(level -> !level.isEmpty())
+                .map(level -> ApprovalLevel.valueOf(level.toUpperCase()))
+                .distinct()
+                .toList();
+    }
+
+    /**
+     * Materialize the approval chain of a newly submitted request. The requester never approves their
+     * own request and nobody appears at two levels; levels that resolve to nobody are skipped.
+     * @return Approvers of the first step, empty if the chain resolved to nobody
+     */
+    public List<UUID> route(LeaveRequest leaveRequest) {
+        UUID requesterId = leaveRequest.getUser().getId();
+        Set<UUID> assigned = new HashSet<>();
+        assigned.add(requesterId);
+
+        List<LeaveApprovalStep> steps = new ArrayList<>();
+        int stepOrder = 0;
+        for (ApprovalLevel level : chain) {
+            List<UUID> candidates = candidates(level, requesterId).stream()
+                    .filter(candidateId -> !assigned.contains(candidateId))
+                    .distinct()
+                    .toList();
+            if (candidates.isEmpty()) {
+                continue;
+            }
+            assigned.addAll(candidates);
+            for (UUID candidateId : candidates) {
+                steps.add(LeaveApprovalStep.builder()
+                        .leaveRequestId(leaveRequest.getId())
+                        .stepOrder(stepOrder)
+                        .level(level)
+                        .approverId(candidateId)
+                        .status(ApprovalStepStatus.WAITING)
+                        .build());
+            }
+            stepOrder++;
+        }
+
+        if (steps.isEmpty()) {
+            log.warn("Approval chain of leave request {} resolved to nobody", leaveRequest.getId());
+            return List.of();
+        }
+        List<UUID> approverIds = activate(steps, 0, requesterId);
+        approvalStepRepository.saveAll(steps);
+        return approverIds;
+    }
+
+    public List<LeaveApprovalStep> getSteps(UUID leaveRequestId) {
+        return approvalStepRepository.findByLeaveRequestIdOrderByStepOrder(leaveRequestId);
+    }
+
+    /**
+     * Steps of many requests, loaded with one query
+     */
+    public Map<UUID, List<LeaveApprovalStep>> getSteps(Collection<UUID> leaveRequestIds) {
+        if (leaveRequestIds.isEmpty()) {
+            return Map.of();
+        }
+        return approvalStepRepository.findByLeaveRequestIdInOrderByStepOrder(leaveRequestIds).stream()
+                .collect(Collectors.groupingBy(LeaveApprovalStep::getLeaveRequestId));
+    }
+
+    /**
+     * Check that the decider may decide the request now, without changing anything
+     * @return Whether the decision decides the request, rather than moving it to the next step
+     * @throws UnauthorizedException If the request awaits someone else and the decider is not an admin
+     */
+    public boolean isFinal(List<LeaveApprovalStep> steps, UUID deciderId, String status) {
+        List<LeaveApprovalStep> pending = withStatus(steps, ApprovalStepStatus.PENDING);
+        if (pending.isEmpty()) {
+            return true;
+        }
+
+        Optional<LeaveApprovalStep> own = pending.stream()
+                .filter(step -> step.getApproverId().equals(deciderId))
+                .findFirst();
+        if (own.isEmpty()) {
+            if (!orgHierarchy.isAdmin(deciderId)) {
+                throw new UnauthorizedException("This leave request is awaiting approval by someone else");
+            }
+            // Admins may decide any request outright
+            return true;
+        }
+
+        int nextStepOrder = own.get().getStepOrder() + 1;
+        return !"APPROVED".equals(status) || steps.stream().noneMatch(step -> step.getStepOrder() == nextStepOrder);
+    }
+
+    /**
+     * Record the decision in the approval chain; call {@link #isFinal} first
+     * @return Approvers of the step the request moved to, empty if the decision decides the request
+     */
+    public List<UUID> decide(LeaveRequest leaveRequest, List<LeaveApprovalStep> steps, UUID deciderId, String status) {
+        List<LeaveApprovalStep> pending = withStatus(steps, ApprovalStepStatus.PENDING);
+        if (pending.isEmpty() || "PENDING".equals(status)) {
+            return List.of();
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        LeaveApprovalStep own = pending.stream()
+                .filter(step -> step.getApproverId().equals(deciderId))
+                .findFirst()
+                .orElse(null);
+        if (own == null) {
+            // Admin override: the rest of the chain is no longer needed
+            close(steps, now);
+            return List.of();
+        }
+
+        own.setDecidedAt(now);
+        if (!"APPROVED".equals(status)) {
+            own.setStatus("REJECTED".equals(status) ? ApprovalStepStatus.REJECTED : ApprovalStepStatus.SKIPPED);
+            close(steps, now);
+            return List.of();
+        }
+
+        own.setStatus(ApprovalStepStatus.APPROVED);
+        // One approval per step is enough
+        pending.stream()
+                .filter(step -> step != own && step.getStepOrder() == own.getStepOrder())
+                .forEach(step -> skip(step, now));
+
+        int nextStepOrder = own.getStepOrder() + 1;
+        if (steps.stream().noneMatch(step -> step.getStepOrder() == nextStepOrder)) {
+            return List.of();
+        }
+        return activate(steps, nextStepOrder, leaveRequest.getUser().getId());
+    }
+
+    /**
+     * Make a step pending, delegating away from approvers who are on leave today.
+     * Costs one query for the step's approvers and their managers together.
+     */
+    private List<UUID> activate(List<LeaveApprovalStep> steps, int stepOrder, UUID requesterId) {
+        List<LeaveApprovalStep> rows = steps.stream()
+                .filter(step -> step.getStepOrder() == stepOrder)
+                .toList();
+
+        Set<UUID> people = new LinkedHashSet<>();
+        for (LeaveApprovalStep row : rows) {
+            people.add(row.getApproverId());
+            people.addAll(orgHierarchy.managerChain(row.getApproverId(), MAX_DELEGATION_DEPTH));
+        }
+        Set<UUID> onLeave = new HashSet<>(leaveRequestRepository.findUserIdsOnLeave(
+                people, referenceData.getStatus("APPROVED").id(), LocalDate.now()));
+
+        List<LeaveApprovalStep> present = rows.stream()
+                .filter(row -> !onLeave.contains(row.getApproverId()))
+                .toList();
+        LocalDateTime now = LocalDateTime.now();
+        Set<UUID> approverIds = new LinkedHashSet<>();
+        for (LeaveApprovalStep row : rows) {
+            if (!onLeave.contains(row.getApproverId())) {
+                row.setStatus(ApprovalStepStatus.PENDING);
+            } else if (rows.size() > 1 && !present.isEmpty()) {
+                // Another candidate for this step is in
+                skip(row, now);
+                continue;
+            } else {
+                delegate(row, onLeave, requesterId);
+            }
+            approverIds.add(row.getApproverId());
+        }
+        return List.copyOf(approverIds);
+    }
+
+    private void delegate(LeaveApprovalStep row, Set<UUID> onLeave, UUID requesterId) {
+        row.setStatus(ApprovalStepStatus.PENDING);
+        orgHierarchy.managerChain(row.getApproverId(), MAX_DELEGATION_DEPTH).stream()
+                .filter(managerId -> !onLeave.contains(managerId) && !managerId.equals(requesterId))
+                .findFirst()
+                .ifPresent(delegateId -> {
+                    log.info("Delegating approval of leave request {} from {} to {}",
+                            row.getLeaveRequestId(), row.getApproverId(), delegateId);
+                    row.setDelegatedFromId(row.getApproverId());
+                    row.setApproverId(delegateId);
+                });
+    }
+
+    private List<UUID> candidates(ApprovalLevel level, UUID requesterId) {
+        return switch (level) {
+            case MANAGER -> nullableToList(orgHierarchy.managerOf(requesterId));
+            case DEPARTMENT_HEAD -> nullableToList(orgHierarchy.departmentHeadOf(requesterId));
+            case HR -> orgHierarchy.hrApprovers();
+        };
+    }
+
+    private void close(List<LeaveApprovalStep> steps, LocalDateTime now) {
+        steps.stream()
+                .filter(step -> step.getStatus() == ApprovalStepStatus.PENDING || step.getStatus() == ApprovalStepStatus.WAITING)
+                .forEach(step -> skip(step, now));
+    }
+
+    private void skip(LeaveApprovalStep step, LocalDateTime now) {
+        step.setStatus(ApprovalStepStatus.SKIPPED);
+        step.setDecidedAt(now);
+    }
+
+    private List<LeaveApprovalStep> withStatus(List<LeaveApprovalStep> steps, ApprovalStepStatus status) {
+        return steps.stream().filter(step -> step.getStatus() == status).toList();
+    }
+
+    private List<UUID> nullableToList(UUID id) {
+        return id != null ? List.of(id) : List.of();
+    }
+}
@@ -0,0 +1,91 @@
+package com.leavemanagement.leave_management_system.service;
+
+import com.leavemanagement.leave_management_system.dto.CacheStatsDTO;
+import com.leavemanagement.leave_management_system.dto.LeaveBalanceDTO;
+import com.leavemanagement.leave_management_system.util.BoundedCache;
+import com.leavemanagement.leave_management_system.util.TransactionCallbacks;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Bounded in-memory cache of each user's current-year leave balances, so polling the balances endpoint
+ * issues no SQL. Entries are evicted least recently used beyond {@code app.balance-cache.max-users} and
+ * expire after {@code app.balance-cache.ttl-seconds}, which also bounds staleness from changes made by
+ * other instances.
+ * <p>
+ * Balance changes on this instance refresh the affected users once their transaction commits; as in every
+ * {@link BoundedCache}, a read racing a change can never cache the balances from before it.
+ */
+@Service
+@Slf4j
+public class LeaveBalanceCache {
+    private final BoundedCache<UUID, Entry> cache;
+
+    private record Entry(int year, List<LeaveBalanceDTO> balances) {
+    }
+
+    public LeaveBalanceCache(@Value("${app.balance-cache.max-users:10000}") int maxUsers,
+                             @Value("${app.balance-cache.ttl-seconds:300}") long ttlSeconds) {
+        this.cache = new BoundedCache<>("leave-balances", maxUsers, Duration.ofSeconds(ttlSeconds));
+    }
+
+    /**
+     * The user's balances for the year, loaded and cached on a miss
+     */
+    public List<LeaveBalanceDTO> get(UUID userId, int year, Supplier<List<LeaveBalanceDTO>> loader) {
+        // Cached for last year until the first read of the new year
+        return cache.get(userId, entry -> entry.year() == year,
+                () -> new Entry(year, List.copyOf(loader.get()))).balances();
+    }
+
+    /**
+     * Once the current transaction commits (or now, outside a transaction), drop the users' cached
+     * balances and write through the reloaded ones
+     * @param loader Loads the balances of the given users for the year in one go, in a new transaction
+     */
+    public void refreshAfterCommit(Collection<UUID> userIds, int year,
+                                   Function<Set<UUID>, Map<UUID, List<LeaveBalanceDTO>>> loader) {
+        Set<UUID> users = Set.copyOf(userIds);
+        TransactionCallbacks.afterCommit(() -> {
+            long stamp = cache.invalidate(users);
+            try {
+                Map<UUID, List<LeaveBalanceDTO>> reloaded = loader.apply(users);
+                for (UUID userId : users) {
+                    cache.put(userId, new Entry(year, List.copyOf(reloaded.getOrDefault(userId, List.of()))), stamp);
+                }
+            } catch (RuntimeException e) {
+                // Left evicted; the next read loads them
+                log.warn("Could not reload cached leave balances of {} users", users.size(), e);
+            }
+        });
+    }
+
+    /**
+     * Drop the users' cached balances once the current transaction commits
+     */
+    public void evictAfterCommit(Collection<UUID> userIds) {
+        Set<UUID> users = Set.copyOf(userIds);
+        TransactionCallbacks.afterCommit(() -> cache.invalidate(users));
+    }
+
+    /**
+     * Drop every cached balance once the current transaction commits, e.g. after a bulk accrual run
+     */
+    public void evictAllAfterCommit() {
+        TransactionCallbacks.afterCommit(cache::invalidateAll);
+    }
+
+    public CacheStatsDTO stats() {
+        return cache.stats();
+    }
+}
@@ -0,0 +1,181 @@
+package com.leavemanagement.leave_management_system.service;
+
+import com.leavemanagement.leave_management_system.dto.LeaveBalanceLedgerDTO;
+import com.leavemanagement.leave_management_system.dto.LeaveBalanceTotalsDTO;
+import com.leavemanagement.leave_management_system.dto.LeaveBalanceTransactionDTO;
+import com.leavemanagement.leave_management_system.enums.LeaveBalanceTransactionType;
+import com.leavemanagement.leave_management_system.exceptions.ResourceNotFoundException;
+import com.leavemanagement.leave_management_system.model.LeaveBalanceSnapshot;
+import com.leavemanagement.leave_management_system.model.LeaveBalanceTransaction;
+import com.leavemanagement.leave_management_system.repository.LeaveBalanceRepository;
+import com.leavemanagement.leave_management_system.repository.LeaveBalanceSnapshotRepository;
+import com.leavemanagement.leave_management_system.repository.LeaveBalanceTransactionRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Append-only history of leave balance changes.
+ * Every change to a balance is recorded as a ledger entry in the same transaction as the change itself,
+ * and entries are periodically folded into per-balance snapshots, so a balance can be rebuilt at any
+ * time from its latest snapshot plus the few entries recorded after it.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class LeaveBalanceLedgerService {
+    // As-of instant of opening snapshots: before any ledger entry
+    private static final LocalDateTime LEDGER_EPOCH = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+    private final LeaveBalanceRepository leaveBalanceRepository;
+    private final LeaveBalanceTransactionRepository leaveBalanceTransactionRepository;
+    private final LeaveBalanceSnapshotRepository leaveBalanceSnapshotRepository;
+
+    // Entries younger than this are left for the next fold, so transactions still in flight
+    // when the fold runs are never skipped
+    @Value("${app.ledger.snapshot-lag-seconds:300}")
+    private long snapshotLagSeconds;
+
+    /**
+     * Append a ledger entry for a balance; zero entries are not recorded
+     */
+    @Transactional
+    public void record(UUID balanceId, LeaveBalanceTransactionType type, BigDecimal totalDelta,
+                       BigDecimal usedDelta, BigDecimal pendingDelta, UUID leaveRequestId, String reason) {
+        if (totalDelta.signum() == 0 && usedDelta.signum() == 0 && pendingDelta.signum() == 0) {
+            return;
+        }
+
+        leaveBalanceTransactionRepository.save(LeaveBalanceTransaction.builder()
+                .leaveBalance(leaveBalanceRepository.getReferenceById(balanceId))
+                .type(type)
+                .totalDelta(totalDelta)
+                .usedDelta(usedDelta)
+                .pendingDelta(pendingDelta)
+                .leaveRequestId(leaveRequestId)
+                .reason(reason)
+                .build());
+    }
+
+    /**
+     * Rebuild a balance from its latest snapshot and the ledger entries recorded since
+     */
+    @Transactional(readOnly = true)
+    public LeaveBalanceLedgerDTO getLedger(UUID balanceId) {
+        if (!leaveBalanceRepository.existsById(balanceId)) {
+            throw new ResourceNotFoundException("Leave balance not found");
+        }
+
+        LeaveBalanceSnapshot snapshot = leaveBalanceSnapshotRepository
+                .findFirstByLeaveBalanceIdOrderByAsOfDesc(balanceId)
+                .orElse(null);
+        LocalDateTime asOf = snapshot != null ? snapshot.getAsOf() : LEDGER_EPOCH;
+
+        BigDecimal totalDays = snapshot != null ? snapshot.getTotalDays() : BigDecimal.ZERO;
+        BigDecimal usedDays = snapshot != null ? snapshot.getUsedDays() : BigDecimal.ZERO;
+        BigDecimal pendingDays = snapshot != null ? snapshot.getPendingDays() : BigDecimal.ZERO;
+
+        List<LeaveBalanceTransaction> tail = leaveBalanceTransactionRepository.findByBalanceIdAfter(balanceId, asOf);
+        for (LeaveBalanceTransaction transaction : tail) {
+            totalDays = totalDays.add(transaction.getTotalDelta());
+            usedDays = usedDays.add(transaction.getUsedDelta());
+            pendingDays = pendingDays.add(transaction.getPendingDelta());
+        }
+
+        return LeaveBalanceLedgerDTO.builder()
+                .balanceId(balanceId)
+                .snapshotAsOf(snapshot != null ? asOf : null)
+                .totalDays(totalDays)
+                .usedDays(usedDays)
+                .pendingDays(pendingDays)
+                .availableDays(totalDays.subtract(usedDays).subtract(pendingDays))
+                .transactions(tail.stream().map(this::convertToTransactionDTO).collect(Collectors.toList()))
+                .build();
+    }
+
+    /**
+     * Fold ledger entries into snapshots. Balances without a snapshot first get an opening snapshot,
+     * then every balance with entries since the last fold gets a new snapshot at the fold's as-of instant.
+     */
+    @Scheduled(fixedDelayString = "${app.ledger.snapshot-interval-ms:900000}", initialDelayString = "${app.ledger.snapshot-initial-delay-ms:60000}")
+    @Transactional
+    public void foldSnapshots() {
+        List<LeaveBalanceSnapshot> openingSnapshots = leaveBalanceSnapshotRepository.findOpeningBalancesWithoutSnapshot()
+                .stream()
+                .map(opening -> newSnapshot(opening.getBalanceId(), LEDGER_EPOCH,
+                        opening.getTotalDays(), opening.getUsedDays(), opening.getPendingDays()))
+                .toList();
+        leaveBalanceSnapshotRepository.saveAll(openingSnapshots);
+
+        LocalDateTime lastFold = leaveBalanceSnapshotRepository.findLatestAsOf().orElse(LEDGER_EPOCH);
+        LocalDateTime asOf = LocalDateTime.now().minusSeconds(snapshotLagSeconds);
+        if (!asOf.isAfter(lastFold)) {
+            return;
+        }
+
+        List<LeaveBalanceTotalsDTO> tails = leaveBalanceTransactionRepository.sumByBalanceBetween(lastFold, asOf);
+        if (tails.isEmpty()) {
+            log.debug("Ledger fold: {} opening snapshots, no entries since {}", openingSnapshots.size(), lastFold);
+            return;
+        }
+
+        Map<UUID, LeaveBalanceSnapshot> latestSnapshots = leaveBalanceSnapshotRepository
+                .findLatestByBalanceIds(tails.stream().map(LeaveBalanceTotalsDTO::getBalanceId).toList())
+                .stream()
+                .collect(Collectors.toMap(snapshot -> snapshot.getLeaveBalance().getId(), Function.identity(),
+                        (first, second) -> first));
+
+        List<LeaveBalanceSnapshot> snapshots = tails.stream()
+                .map(tail -> {
+                    LeaveBalanceSnapshot previous = latestSnapshots.get(tail.getBalanceId());
+                    return newSnapshot(tail.getBalanceId(), asOf,
+                            previousValue(previous, LeaveBalanceSnapshot::getTotalDays).add(tail.getTotalDays()),
+                            previousValue(previous, LeaveBalanceSnapshot::getUsedDays).add(tail.getUsedDays()),
+                            previousValue(previous, LeaveBalanceSnapshot::getPendingDays).add(tail.getPendingDays()));
+                })
+                .toList();
+        leaveBalanceSnapshotRepository.saveAll(snapshots);
+
+        log.info("Ledger fold as of {}: {} opening snapshots, {} balances folded",
+                asOf, openingSnapshots.size(), snapshots.size());
+    }
+
+    private BigDecimal previousValue(LeaveBalanceSnapshot previous, Function<LeaveBalanceSnapshot, BigDecimal> value) {
+        return previous != null ? value.apply(previous) : BigDecimal.ZERO;
+    }
+
+    private LeaveBalanceSnapshot newSnapshot(UUID balanceId, LocalDateTime asOf, BigDecimal totalDays,
+                                             BigDecimal usedDays, BigDecimal pendingDays) {
+        return LeaveBalanceSnapshot.builder()
+                .leaveBalance(leaveBalanceRepository.getReferenceById(balanceId))
+                .asOf(asOf)
+                .totalDays(totalDays)
+                .usedDays(usedDays)
+                .pendingDays(pendingDays)
+                .build();
+    }
+
+    private LeaveBalanceTransactionDTO convertToTransactionDTO(LeaveBalanceTransaction transaction) {
+        return LeaveBalanceTransactionDTO.builder()
+                .id(transaction.getId())
+                .type(transaction.getType())
+                .totalDelta(transaction.getTotalDelta())
+                .usedDelta(transaction.getUsedDelta())
+                .pendingDelta(transaction.getPendingDelta())
+                .leaveRequestId(transaction.getLeaveRequestId())
+                .reason(transaction.getReason())
+                .createdAt(transaction.getCreatedAt())
+                .build();
+    }
+}
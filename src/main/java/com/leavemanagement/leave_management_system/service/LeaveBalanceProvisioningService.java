@@ -0,0 +1,294 @@
+package com.leavemanagement.leave_management_system.service;
+
+import com.leavemanagement.leave_management_system.dto.LeaveBalanceProvisioningRunDTO;
+import com.leavemanagement.leave_management_system.enums.ProvisioningStatus;
+import com.leavemanagement.leave_management_system.exceptions.ResourceNotFoundException;
+import com.leavemanagement.leave_management_system.model.LeaveBalanceProvisioningRun;
+import com.leavemanagement.leave_management_system.repository.LeaveBalanceProvisioningRunRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Creates the leave balances of every user for every active leave type at the start of a year, so
+ * submissions normally find their balance. Users hired after the run and requests for a year that has
+ * not been provisioned yet still create theirs lazily (see
+ * {@link LeaveBalanceService#getOrCreateLeaveBalance}). Users are processed in id-ordered chunks; each chunk
+ * is one transaction of JDBC batch inserts (ON CONFLICT DO NOTHING) that also advances the run's
+ * cursor, which makes the job both idempotent and resumable.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class LeaveBalanceProvisioningService {
+    private static final String FIRST_USERS_SQL = "SELECT id, hire_date FROM users ORDER BY id LIMIT ?";
+    private static final String NEXT_USERS_SQL = "SELECT id, hire_date FROM users WHERE id > ? ORDER BY id LIMIT ?";
+
+    private static final String EXISTING_BALANCES_SQL = "SELECT user_id, leave_type_id, year, " +
+            "total_days - used_days - pending_days AS available_days FROM leave_balances " +
+            "WHERE user_id IN (:userIds) AND year IN (:years)";
+
+    private static final String INSERT_BALANCE_SQL = "INSERT INTO leave_balances (id, user_id, leave_type_id, year, " +
+            "total_days, used_days, pending_days, adjustment_days, carried_over_days, accrued_days, created_at, updated_at) " +
+            "VALUES (?, ?, ?, ?, ?, 0, 0, 0, ?, ?, ?, ?) ON CONFLICT (user_id, leave_type_id, year) DO NOTHING";
+
+    // Skipped when a concurrent lazy creation won the insert for the same user, type and year
+    private static final String INSERT_OPENING_ENTRY_SQL = "INSERT INTO leave_balance_transactions (id, balance_id, type, " +
+            "total_delta, used_delta, pending_delta, reason, created_at) SELECT ?, ?, 'ACCRUAL', ?, 0, 0, ?, ? " +
+            "WHERE EXISTS (SELECT 1 FROM leave_balances WHERE id = ?)";
+
+    private static final String UPDATE_PROGRESS_SQL = "UPDATE leave_balance_provisioning_runs SET last_user_id = ?, " +
+            "users_processed = users_processed + ?, balances_created = balances_created + ?, updated_at = ? WHERE year = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final LeaveBalanceProvisioningRunRepository provisioningRunRepository;
+    private final ReferenceDataRegistry referenceData;
+    private final LeaveAccrualService accrualService;
+    private final CarryOverPolicy carryOverPolicy;
+    private final LeaveBalanceCache balanceCache;
+
+    private final Set<Integer> runningYears = ConcurrentHashMap.newKeySet();
+
+    @Value("${app.provisioning.chunk-size:1000}")
+    private int chunkSize;
+
+    private record BalanceKey(UUID userId, UUID leaveTypeId) {
+    }
+
+    private record UserRow(UUID id, LocalDate hireDate) {
+    }
+
+    private record ChunkResult(int users, int balances, UUID lastUserId) {
+    }
+
+    /**
+     * Provision the current year if that has not completed yet; a no-op on every other day of the year
+     */
+    @Scheduled(cron = "${app.provisioning.cron:0 5 0 * * *}")
+    public void provisionCurrentYear() {
+        int year = LocalDate.now().getYear();
+        boolean completed = provisioningRunRepository.findById(year)
+                .map(run -> run.getStatus() == ProvisioningStatus.COMPLETED)
+                .orElse(false);
+        if (!completed && !runningYears.contains(year)) {
+            provisionYear(year);
+        }
+    }
+
+    /**
+     * Provision a year on the calling thread
+     */
+    public LeaveBalanceProvisioningRunDTO provisionYear(int year) {
+        acquire(year);
+        try {
+            return process(beginRun(year));
+        } finally {
+            runningYears.remove(year);
+        }
+    }
+
+    /**
+     * Start provisioning a year in the background and return the run as it stands
+     */
+    public LeaveBalanceProvisioningRunDTO startProvisioning(int year) {
+        acquire(year);
+        try {
+            LeaveBalanceProvisioningRun run = beginRun(year);
+            if (run.getStatus() == ProvisioningStatus.COMPLETED) {
+                runningYears.remove(year);
+                return convertToDTO(run);
+            }
+
+            Thread.ofVirtual().name("balance-provisioning-" + year).start(() -> {
+                try {
+                    process(run);
+                } catch (Exception e) {
+                    log.error("Leave balance provisioning for {} failed, it will resume from its last chunk", year, e);
+                } finally {
+                    runningYears.remove(year);
+                }
+            });
+            return convertToDTO(run);
+        } catch (RuntimeException e) {
+            runningYears.remove(year);
+            throw e;
+        }
+    }
+
+    public LeaveBalanceProvisioningRunDTO getRun(int year) {
+        return provisioningRunRepository.findById(year)
+                .map(this::convertToDTO)
+                .orElseThrow(() -> new ResourceNotFoundException("No leave balance provisioning run for " + year));
+    }
+
+    private void acquire(int year) {
+        if (!runningYears.add(year)) {
+            throw new IllegalStateException("Leave balance provisioning for " + year + " is already running");
+        }
+    }
+
+    private LeaveBalanceProvisioningRun beginRun(int year) {
+        return transactionTemplate.execute(status -> {
+            LocalDateTime now = LocalDateTime.now();
+            LeaveBalanceProvisioningRun run = provisioningRunRepository.findById(year)
+                    .orElseGet(() -> LeaveBalanceProvisioningRun.builder()
+                            .year(year)
+                            .startedAt(now)
+                            .build());
+            if (run.getStatus() == ProvisioningStatus.COMPLETED) {
+                return run;
+            }
+
+            run.setStatus(ProvisioningStatus.RUNNING);
+            run.setLastError(null);
+            run.setUpdatedAt(now);
+            return provisioningRunRepository.save(run);
+        });
+    }
+
+    private LeaveBalanceProvisioningRunDTO process(LeaveBalanceProvisioningRun run) {
+        if (run.getStatus() == ProvisioningStatus.COMPLETED) {
+            return convertToDTO(run);
+        }
+
+        int year = run.getYear();
+        List<ReferenceDataRegistry.LeaveTypeEntry> leaveTypes = referenceData.getActiveLeaveTypes();
+
+        long startTime = System.nanoTime();
+        long users = 0;
+        long balances = 0;
+        UUID cursor = run.getLastUserId();
+        log.info("Provisioning leave balances for {}: {} active leave types, resuming after user {}",
+                year, leaveTypes.size(), cursor);
+
+        try {
+            ChunkResult chunk;
+            do {
+                UUID after = cursor;
+                chunk = transactionTemplate.execute(status -> provisionChunk(year, after, leaveTypes));
+                if (chunk == null || chunk.users() == 0) {
+                    break;
+                }
+
+                cursor = chunk.lastUserId();
+                users += chunk.users();
+                balances += chunk.balances();
+                long elapsedMillis = Math.max(1, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime));
+                log.info("Provisioning {}: {} users, {} balances created ({} balances/s)",
+                        year, users, balances, balances * 1000 / elapsedMillis);
+            } while (chunk.users() == chunkSize);
+
+            transactionTemplate.executeWithoutResult(status -> provisioningRunRepository.findById(year).ifPresent(completed -> {
+                completed.setStatus(ProvisioningStatus.COMPLETED);
+                completed.setCompletedAt(LocalDateTime.now());
+                completed.setUpdatedAt(LocalDateTime.now());
+            }));
+            log.info("Provisioned leave balances for {}: {} users, {} balances in {} ms",
+                    year, users, balances, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime));
+        } catch (RuntimeException e) {
+            transactionTemplate.executeWithoutResult(status -> provisioningRunRepository.findById(year).ifPresent(failed -> {
+                failed.setStatus(ProvisioningStatus.FAILED);
+                failed.setLastError(String.valueOf(e.getMessage()));
+                failed.setUpdatedAt(LocalDateTime.now());
+            }));
+            throw e;
+        }
+
+        return getRun(year);
+    }
+
+    private ChunkResult provisionChunk(int year, UUID afterUserId, List<ReferenceDataRegistry.LeaveTypeEntry> leaveTypes) {
+        RowMapper<UserRow> userRowMapper = (rs, rowNum) ->
+                new UserRow(rs.getObject("id", UUID.class), rs.getObject("hire_date", LocalDate.class));
+        List<UserRow> users = afterUserId == null
+                ? jdbcTemplate.query(FIRST_USERS_SQL, userRowMapper, chunkSize)
+                : jdbcTemplate.query(NEXT_USERS_SQL, userRowMapper, afterUserId, chunkSize);
+        if (users.isEmpty()) {
+            return new ChunkResult(0, 0, afterUserId);
+        }
+        List<UUID> userIds = users.stream().map(UserRow::id).toList();
+
+        // Balances already provisioned this year, and what is left of last year's for carry-over
+        Set<BalanceKey> provisioned = new HashSet<>();
+        Map<BalanceKey, BigDecimal> previousAvailableDays = new HashMap<>();
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("userIds", userIds)
+                .addValue("years", List.of(year - 1, year));
+        namedParameterJdbcTemplate.query(EXISTING_BALANCES_SQL, params, rs -> {
+            BalanceKey key = new BalanceKey(rs.getObject("user_id", UUID.class), rs.getObject("leave_type_id", UUID.class));
+            if (rs.getInt("year") == year) {
+                provisioned.add(key);
+            } else {
+                previousAvailableDays.put(key, rs.getBigDecimal("available_days"));
+            }
+        });
+
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> balanceRows = new ArrayList<>();
+        List<Object[]> openingEntryRows = new ArrayList<>();
+        for (UserRow user : users) {
+            UUID userId = user.id();
+            for (ReferenceDataRegistry.LeaveTypeEntry leaveType : leaveTypes) {
+                BalanceKey key = new BalanceKey(userId, leaveType.id());
+                if (provisioned.contains(key)) {
+                    continue;
+                }
+
+                BigDecimal carriedOverDays = carryOverPolicy.carryOver(leaveType.name(), previousAvailableDays.get(key));
+                BigDecimal accruedDays = accrualService.accruedDays(leaveType, user.hireDate(), year);
+                BigDecimal totalDays = accruedDays.add(carriedOverDays);
+                UUID balanceId = UUID.randomUUID();
+
+                balanceRows.add(new Object[]{balanceId, userId, leaveType.id(), year, totalDays, carriedOverDays,
+                        accruedDays, now, now});
+                if (totalDays.signum() != 0) {
+                    openingEntryRows.add(new Object[]{UUID.randomUUID(), balanceId, totalDays, "Opening entitlement", now, balanceId});
+                }
+            }
+        }
+
+        jdbcTemplate.batchUpdate(INSERT_BALANCE_SQL, balanceRows);
+        jdbcTemplate.batchUpdate(INSERT_OPENING_ENTRY_SQL, openingEntryRows);
+        balanceCache.evictAfterCommit(userIds);
+
+        UUID lastUserId = userIds.get(userIds.size() - 1);
+        jdbcTemplate.update(UPDATE_PROGRESS_SQL, lastUserId, userIds.size(), balanceRows.size(), now, year);
+        return new ChunkResult(userIds.size(), balanceRows.size(), lastUserId);
+    }
+
+    private LeaveBalanceProvisioningRunDTO convertToDTO(LeaveBalanceProvisioningRun run) {
+        return LeaveBalanceProvisioningRunDTO.builder()
+                .year(run.getYear())
+                .status(run.getStatus())
+                .usersProcessed(run.getUsersProcessed())
+                .balancesCreated(run.getBalancesCreated())
+                .startedAt(run.getStartedAt())
+                .updatedAt(run.getUpdatedAt())
+                .completedAt(run.getCompletedAt())
+                .lastError(run.getLastError())
+                .build();
+    }
+}
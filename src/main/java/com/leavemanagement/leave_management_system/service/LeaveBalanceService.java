@@ -0,0 +1,385 @@
+package com.leavemanagement.leave_management_system.service;
+
+import com.leavemanagement.leave_management_system.dto.LeaveBalanceAdjustmentDTO;
+import com.leavemanagement.leave_management_system.dto.LeaveBalanceDTO;
+import com.leavemanagement.leave_management_system.enums.LeaveBalanceTransactionType;
+import com.leavemanagement.leave_management_system.exceptions.ResourceNotFoundException;
+import com.leavemanagement.leave_management_system.model.LeaveBalance;
+import com.leavemanagement.leave_management_system.model.User;
+import com.leavemanagement.leave_management_system.repository.LeaveBalanceRepository;
+import com.leavemanagement.leave_management_system.repository.UserRepository;
+import com.leavemanagement.leave_management_system.util.LeaveUnits;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Owns every change to leave balances. Pending/used day changes are applied as single conditional
+ * UPDATE statements instead of read-modify-write on the entity, so concurrent submissions for the
+ * same user can neither overdraw a balance nor lose an update. Each change is also appended to the
+ * balance ledger in the same transaction.
+ * <p>
+ * Current-year balances are read through {@link LeaveBalanceCache}; every change here refreshes the
+ * affected users' cached balances once it has committed.
+ */
+@Service
+public class LeaveBalanceService {
+    private static final int MAX_CREATE_ATTEMPTS = 3;
+    private static final String APPLY_DELTA_SQL = "UPDATE leave_balances SET pending_days = pending_days + ?, " +
+            "used_days = used_days + ?, updated_at = ? WHERE id = ?";
+
+    private final LeaveBalanceRepository leaveBalanceRepository;
+    private final UserRepository userRepository;
+    private final ReferenceDataRegistry referenceData;
+    private final LeaveBalanceLedgerService ledgerService;
+    private final CarryOverPolicy carryOverPolicy;
+    private final LeaveAccrualService accrualService;
+    private final LeaveBalanceCache balanceCache;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate requiresNewTransaction;
+
+    private static final Logger logger = LoggerFactory.getLogger(LeaveBalanceService.class);
+
+    public LeaveBalanceService(LeaveBalanceRepository leaveBalanceRepository,
+                               UserRepository userRepository,
+                               ReferenceDataRegistry referenceData,
+                               LeaveBalanceLedgerService ledgerService,
+                               CarryOverPolicy carryOverPolicy,
+                               LeaveAccrualService accrualService,
+                               LeaveBalanceCache balanceCache,
+                               JdbcTemplate jdbcTemplate,
+                               PlatformTransactionManager transactionManager) {
+        this.leaveBalanceRepository = leaveBalanceRepository;
+        this.userRepository = userRepository;
+        this.referenceData = referenceData;
+        this.ledgerService = ledgerService;
+        this.carryOverPolicy = carryOverPolicy;
+        this.accrualService = accrualService;
+        this.balanceCache = balanceCache;
+        this.jdbcTemplate = jdbcTemplate;
+        this.requiresNewTransaction = new TransactionTemplate(transactionManager);
+        this.requiresNewTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * Identifies the balance a leave request draws from
+     */
+    public record BalanceKey(UUID userId, UUID leaveTypeId, int year) {
+    }
+
+    /**
+     * Change to the pending and used days of a balance caused by one leave request, in half-day units
+     */
+    public record BalanceDelta(UUID balanceId, UUID userId, LeaveBalanceTransactionType type, UUID leaveRequestId,
+                               long pendingUnits, long usedUnits) {
+        public boolean isZero() {
+            return pendingUnits == 0 && usedUnits == 0;
+        }
+    }
+
+    /**
+     * The user's balances for the current year, served from the balance cache
+     */
+    public List<LeaveBalanceDTO> getUserLeaveBalances(UUID userId) {
+        int currentYear = LocalDate.now().getYear();
+        return balanceCache.get(userId, currentYear, () -> leaveBalanceRepository.findByUserIdAndYear(userId, currentYear).stream()
+                .map(this::convertToLeaveBalanceDTO)
+                .collect(Collectors.toList()));
+    }
+
+    public LeaveBalance getLeaveBalance(UUID userId, UUID leaveTypeId, int year) {
+        return leaveBalanceRepository.findByUserIdAndLeaveTypeIdAndYear(userId, leaveTypeId, year)
+                .orElseThrow(() -> new ResourceNotFoundException("Leave balance not found"));
+    }
+
+    /**
+     * Load the balances for many keys in one query; keys without a balance are absent from the result
+     */
+    public Map<BalanceKey, LeaveBalance> getLeaveBalances(Collection<BalanceKey> keys) {
+        if (keys.isEmpty()) {
+            return Map.of();
+        }
+
+        Set<UUID> userIds = keys.stream().map(BalanceKey::userId).collect(Collectors.toSet());
+        Set<Integer> years = keys.stream().map(BalanceKey::year).collect(Collectors.toSet());
+        Set<BalanceKey> wanted = Set.copyOf(keys);
+
+        return leaveBalanceRepository.findByUserIdsAndYears(userIds, years).stream()
+                .filter(balance -> wanted.contains(balanceKey(balance)))
+                .collect(Collectors.toMap(this::balanceKey, Function.identity()));
+    }
+
+    /**
+     * Days available for new requests on a balance, without creating it: current-year balances come from
+     * the balance cache, a balance that does not exist yet is projected the way it would be created
+     */
+    public BigDecimal getAvailableDays(UUID userId, UUID leaveTypeId, int year) {
+        if (year == LocalDate.now().getYear()) {
+            return getUserLeaveBalances(userId).stream()
+                    .filter(balance -> balance.getLeaveTypeId().equals(leaveTypeId))
+                    .map(LeaveBalanceDTO::getAvailableDays)
+                    .findFirst()
+                    .orElseGet(() -> availableDays(newLeaveBalance(userId, leaveTypeId, year)));
+        }
+        return availableDays(leaveBalanceRepository.findByUserIdAndLeaveTypeIdAndYear(userId, leaveTypeId, year)
+                .orElseGet(() -> newLeaveBalance(userId, leaveTypeId, year)));
+    }
+
+    /**
+     * Find the balance for a user, leave type and year, creating it if it does not exist yet.
+     * The insert runs in its own transaction; if a concurrent request created the same balance first
+     * the unique constraint rejects ours and the existing row is read instead.
+     */
+    public LeaveBalance getOrCreateLeaveBalance(UUID userId, UUID leaveTypeId, int year) {
+        for (int attempt = 1; attempt <= MAX_CREATE_ATTEMPTS; attempt++) {
+            Optional<LeaveBalance> existingBalance = leaveBalanceRepository
+                    .findByUserIdAndLeaveTypeIdAndYear(userId, leaveTypeId, year);
+            if (existingBalance.isPresent()) {
+                return existingBalance.get();
+            }
+
+            // Provisioning normally created it already
+            logger.info("Creating leave balance for user {} and leave type {} in {} outside provisioning",
+                    userId, leaveTypeId, year);
+            try {
+                UUID balanceId = requiresNewTransaction.execute(status -> {
+                    LeaveBalance newBalance = leaveBalanceRepository.save(newLeaveBalance(userId, leaveTypeId, year));
+                    ledgerService.record(newBalance.getId(), LeaveBalanceTransactionType.ACCRUAL,
+                            newBalance.getTotalDays(), BigDecimal.ZERO, BigDecimal.ZERO, null, "Opening entitlement");
+                    balanceCache.evictAfterCommit(List.of(userId));
+                    return newBalance.getId();
+                });
+                return leaveBalanceRepository.findById(balanceId)
+                        .orElseThrow(() -> new ResourceNotFoundException("Leave balance not found"));
+            } catch (DataIntegrityViolationException e) {
+                logger.debug("Leave balance for user {} and leave type {} in {} was created concurrently (attempt {})",
+                        userId, leaveTypeId, year, attempt);
+            }
+        }
+        throw new IllegalStateException("Could not create leave balance after " + MAX_CREATE_ATTEMPTS + " attempts");
+    }
+
+    /**
+     * Reserve pending days, only if enough days are available
+     * @throws IllegalStateException if the balance does not cover the requested days
+     */
+    @Transactional
+    public void reservePendingDays(LeaveBalance leaveBalance, UUID leaveRequestId, long units) {
+        BigDecimal days = LeaveUnits.toDays(units);
+        int updated = leaveBalanceRepository.reservePendingDays(leaveBalance.getId(), days, LocalDateTime.now());
+        if (updated == 0) {
+            throw new IllegalStateException("Insufficient leave balance");
+        }
+        ledgerService.record(leaveBalance.getId(), LeaveBalanceTransactionType.PENDING,
+                BigDecimal.ZERO, BigDecimal.ZERO, days, leaveRequestId, null);
+        refreshCacheAfterCommit(List.of(leaveBalance.getUser().getId()));
+    }
+
+    /**
+     * Atomically add the given deltas (in half-day units) to pending and used days
+     */
+    @Transactional
+    public void applyDelta(LeaveBalance leaveBalance, LeaveBalanceTransactionType type, UUID leaveRequestId,
+                           long pendingUnits, long usedUnits) {
+        if (pendingUnits == 0 && usedUnits == 0) {
+            return;
+        }
+        BigDecimal pendingDelta = LeaveUnits.toDays(pendingUnits);
+        BigDecimal usedDelta = LeaveUnits.toDays(usedUnits);
+        leaveBalanceRepository.applyDelta(leaveBalance.getId(), pendingDelta, usedDelta, LocalDateTime.now());
+        ledgerService.record(leaveBalance.getId(), type, BigDecimal.ZERO, usedDelta, pendingDelta, leaveRequestId, null);
+        refreshCacheAfterCommit(List.of(leaveBalance.getUser().getId()));
+    }
+
+    /**
+     * Apply many deltas at once. Deltas are summed per balance and written as a single JDBC batch of
+     * atomic increments, in balance id order so concurrent batches lock rows in the same order.
+     * Each delta still gets its own ledger entry.
+     */
+    @Transactional
+    public void applyDeltas(List<BalanceDelta> deltas) {
+        Map<UUID, long[]> totalsByBalance = new TreeMap<>();
+        for (BalanceDelta delta : deltas) {
+            if (delta.isZero()) {
+                continue;
+            }
+            long[] totals = totalsByBalance.computeIfAbsent(delta.balanceId(), balanceId -> new long[2]);
+            totals[0] += delta.pendingUnits();
+            totals[1] += delta.usedUnits();
+        }
+        if (totalsByBalance.isEmpty()) {
+            return;
+        }
+
+        Timestamp updatedAt = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> batchArgs = new ArrayList<>(totalsByBalance.size());
+        totalsByBalance.forEach((balanceId, totals) ->
+                batchArgs.add(new Object[]{LeaveUnits.toDays(totals[0]), LeaveUnits.toDays(totals[1]), updatedAt, balanceId}));
+        jdbcTemplate.batchUpdate(APPLY_DELTA_SQL, batchArgs);
+
+        for (BalanceDelta delta : deltas) {
+            if (!delta.isZero()) {
+                ledgerService.record(delta.balanceId(), delta.type(), BigDecimal.ZERO,
+                        LeaveUnits.toDays(delta.usedUnits()), LeaveUnits.toDays(delta.pendingUnits()),
+                        delta.leaveRequestId(), null);
+            }
+        }
+        refreshCacheAfterCommit(deltas.stream()
+                .filter(delta -> !delta.isZero())
+                .map(BalanceDelta::userId)
+                .collect(Collectors.toSet()));
+        logger.debug("Applied {} balance deltas to {} balances", deltas.size(), totalsByBalance.size());
+    }
+
+    @Transactional
+    public LeaveBalanceDTO adjustLeaveBalance(LeaveBalanceAdjustmentDTO adjustmentDTO) {
+        logger.debug("Adjusting leave balance: {}", adjustmentDTO);
+
+        // Default to current year if year is null
+        int year = adjustmentDTO.getYear() != null
+                ? adjustmentDTO.getYear()
+                : LocalDate.now().getYear();
+
+        LeaveBalance leaveBalance = getOrCreateLeaveBalance(
+                adjustmentDTO.getUserId(),
+                adjustmentDTO.getLeaveTypeId(),
+                year);
+
+        // Set adjustment days with null check
+        BigDecimal adjustmentDays = adjustmentDTO.getAdjustmentDays() != null
+                ? adjustmentDTO.getAdjustmentDays()
+                : BigDecimal.ZERO;
+
+        // Lock the row so the recorded total delta matches the total it replaces
+        BigDecimal previousTotalDays = leaveBalanceRepository.lockTotalDays(leaveBalance.getId())
+                .orElseThrow(() -> new ResourceNotFoundException("Leave balance not found"));
+
+        // Recalculate total days from what has accrued so far, keeping days carried over from last year;
+        // used and pending days are left to the atomic updates
+        BigDecimal newTotalDays = calculateTotalDays(leaveBalance, adjustmentDays)
+                .add(carriedOverDays(leaveBalance));
+        leaveBalanceRepository.updateEntitlement(leaveBalance.getId(), adjustmentDays, newTotalDays, LocalDateTime.now());
+        ledgerService.record(leaveBalance.getId(), LeaveBalanceTransactionType.ADJUST,
+                newTotalDays.subtract(previousTotalDays), BigDecimal.ZERO, BigDecimal.ZERO, null, adjustmentDTO.getReason());
+
+        LeaveBalance savedBalance = leaveBalanceRepository.findById(leaveBalance.getId())
+                .orElseThrow(() -> new ResourceNotFoundException("Leave balance not found"));
+        logger.debug("Adjusted balance {}: adjustment {}, total {}", savedBalance.getId(), adjustmentDays, newTotalDays);
+        refreshCacheAfterCommit(List.of(adjustmentDTO.getUserId()));
+
+        return convertToLeaveBalanceDTO(savedBalance);
+    }
+
+    /**
+     * Write the users' current-year balances through to the cache once the change has committed. They are
+     * reloaded in a new transaction, as this one's persistence context may hold balances loaded before
+     * the atomic updates.
+     */
+    private void refreshCacheAfterCommit(Collection<UUID> userIds) {
+        if (userIds.isEmpty()) {
+            return;
+        }
+        int currentYear = LocalDate.now().getYear();
+        balanceCache.refreshAfterCommit(userIds, currentYear, users -> requiresNewTransaction.execute(status ->
+                leaveBalanceRepository.findByUserIdsAndYears(users, List.of(currentYear)).stream()
+                        .map(this::convertToLeaveBalanceDTO)
+                        .collect(Collectors.groupingBy(LeaveBalanceDTO::getUserId))));
+    }
+
+    private BigDecimal calculateTotalDays(LeaveBalance leaveBalance, BigDecimal adjustmentDays) {
+        ReferenceDataRegistry.LeaveTypeEntry leaveType = referenceData.getLeaveType(leaveBalance.getLeaveType().getId());
+
+        // Read after the row lock, as the monthly accrual may have moved it since the entity was loaded
+        BigDecimal baseAccrual = leaveBalanceRepository.findAccruedDays(leaveBalance.getId())
+                .orElseGet(() -> accrualService.annualEntitlement(leaveType));
+        BigDecimal totalWithAdjustment = baseAccrual.add(adjustmentDays);
+        logger.debug("Base accrual: {}, Adjustment: {}, Total before cap: {}",
+                baseAccrual, adjustmentDays, totalWithAdjustment);
+
+        return capAtMaxDays(leaveType, totalWithAdjustment);
+    }
+
+    private BigDecimal capAtMaxDays(ReferenceDataRegistry.LeaveTypeEntry leaveType, BigDecimal days) {
+        if (leaveType.maxDays() != null &&
+                days.compareTo(new BigDecimal(leaveType.maxDays())) > 0) {
+            return new BigDecimal(leaveType.maxDays());
+        }
+        return days;
+    }
+
+    private BalanceKey balanceKey(LeaveBalance leaveBalance) {
+        return new BalanceKey(leaveBalance.getUser().getId(), leaveBalance.getLeaveType().getId(), leaveBalance.getYear());
+    }
+
+    private BigDecimal carriedOverDays(LeaveBalance leaveBalance) {
+        return leaveBalance.getCarriedOverDays() != null ? leaveBalance.getCarriedOverDays() : BigDecimal.ZERO;
+    }
+
+    private LeaveBalance newLeaveBalance(UUID userId, UUID leaveTypeId, int year) {
+        ReferenceDataRegistry.LeaveTypeEntry leaveType = referenceData.getLeaveType(leaveTypeId);
+        BigDecimal previousAvailableDays = leaveBalanceRepository
+                .findByUserIdAndLeaveTypeIdAndYear(userId, leaveTypeId, year - 1)
+                .map(previous -> previous.getTotalDays().subtract(previous.getUsedDays()).subtract(previous.getPendingDays()))
+                .orElse(null);
+        BigDecimal carriedOverDays = carryOverPolicy.carryOver(leaveType.name(), previousAvailableDays);
+        LocalDate hireDate = userRepository.findById(userId).map(User::getHireDate).orElse(null);
+        BigDecimal accruedDays = accrualService.accruedDays(leaveType, hireDate, year);
+
+        return LeaveBalance.builder()
+                .user(userRepository.getReferenceById(userId))
+                .leaveType(referenceData.leaveTypeReference(leaveTypeId))
+                .year(year)
+                .totalDays(accruedDays.add(carriedOverDays))
+                .usedDays(BigDecimal.ZERO)
+                .pendingDays(BigDecimal.ZERO)
+                .adjustmentDays(BigDecimal.ZERO)
+                .carriedOverDays(carriedOverDays)
+                .accruedDays(accruedDays)
+                .build();
+    }
+
+    private BigDecimal availableDays(LeaveBalance leaveBalance) {
+        return leaveBalance.getTotalDays()
+                .subtract(leaveBalance.getUsedDays())
+                .subtract(leaveBalance.getPendingDays());
+    }
+
+    private LeaveBalanceDTO convertToLeaveBalanceDTO(LeaveBalance leaveBalance) {
+        BigDecimal availableDays = availableDays(leaveBalance);
+
+        return LeaveBalanceDTO.builder()
+                .id(leaveBalance.getId())
+                .userId(leaveBalance.getUser().getId())
+                .leaveTypeId(leaveBalance.getLeaveType().getId())
+                .leaveTypeName(referenceData.getLeaveType(leaveBalance.getLeaveType().getId()).name())
+                .year(leaveBalance.getYear())
+                .totalDays(leaveBalance.getTotalDays())
+                .usedDays(leaveBalance.getUsedDays())
+                .pendingDays(leaveBalance.getPendingDays())
+                .adjustmentDays(leaveBalance.getAdjustmentDays())
+                .carriedOverDays(carriedOverDays(leaveBalance))
+                .availableDays(availableDays)
+                .build();
+    }
+}
@@ -0,0 +1,280 @@
+package com.leavemanagement.leave_management_system.service;
+
+import com.leavemanagement.leave_management_system.model.LeaveRequest;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Maintains leave_day_facts, one row per business day of every leave request. Facts are written in the
+ * transaction that creates or decides the request, so they are exactly as current as the requests.
+ * <p>
+ * Facts add up to each request's stored leave_duration, the days its balance was charged with, so
+ * statistics agree with balances and report rows. A holiday added later does not recount them; the days
+ * the calendar no longer counts are taken from the leave's weekdays that have become holidays.
+ * <p>
+ * The rebuild repairs the table and fills it for requests that predate it. It walks leave requests in
+ * id-ordered chunks, each chunk one transaction that share-locks its requests, so decisions taken
+ * meanwhile are never overwritten with a stale status.
+ * <p>
+ * Every change also evicts the cached statistics it affects once committed.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class LeaveDayFactService {
+    private static final BigDecimal FULL_DAY = new BigDecimal("1.0");
+    private static final BigDecimal HALF_DAY = new BigDecimal("0.5");
+
+    private static final String INSERT_FACT_SQL = "INSERT INTO leave_day_facts (id, leave_request_id, leave_date, " +
+            "user_id, department_id, leave_type_id, status_id, day_fraction) VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String DELETE_FACTS_SQL = "DELETE FROM leave_day_facts WHERE leave_request_id IN (:leaveRequestIds)";
+    private static final String UPDATE_STATUS_SQL = "UPDATE leave_day_facts SET status_id = ? WHERE leave_request_id = ?";
+    private static final String DETACH_DEPARTMENT_SQL = "UPDATE leave_day_facts SET department_id = NULL " +
+            "WHERE department_id = ?";
+    private static final String FACT_DEPARTMENTS_SQL = "SELECT DISTINCT leave_request_id, department_id FROM leave_day_facts " +
+            "WHERE leave_request_id IN (:leaveRequestIds) AND department_id IS NOT NULL";
+
+    private static final String REQUESTS_SQL = "SELECT lr.id, lr.user_id, u.department_id, lr.leave_type_id, lr.status_id, " +
+            "lr.start_date, lr.end_date, lr.full_day, lr.leave_duration FROM leave_requests lr JOIN users u ON u.id = lr.user_id ";
+    private static final String FIRST_REQUESTS_SQL = REQUESTS_SQL + "ORDER BY lr.id LIMIT ? FOR SHARE OF lr";
+    private static final String NEXT_REQUESTS_SQL = REQUESTS_SQL + "WHERE lr.id > ? ORDER BY lr.id LIMIT ? FOR SHARE OF lr";
+    private static final String DELETE_ORPHANS_SQL = "DELETE FROM leave_day_facts f WHERE NOT EXISTS " +
+            "(SELECT 1 FROM leave_requests lr WHERE lr.id = f.leave_request_id)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final BusinessDayCalendar businessDayCalendar;
+    private final OrgHierarchyCache orgHierarchy;
+    private final ReportStatisticsCache reportStatisticsCache;
+
+    private final AtomicBoolean rebuilding = new AtomicBoolean();
+    private final AtomicBoolean rebuildRequested = new AtomicBoolean();
+
+    @Value("${app.leave-day-facts.rebuild-chunk-size:1000}")
+    private int chunkSize;
+
+    private record RequestRow(UUID id, UUID userId, UUID departmentId, UUID leaveTypeId, UUID statusId,
+                              LocalDate startDate, LocalDate endDate, Boolean fullDay, BigDecimal leaveDuration) {
+    }
+
+    private record Chunk(int requests, UUID lastId, int facts) {
+    }
+
+    /**
+     * Write the facts of a newly created leave request; call within its transaction
+     */
+    public void record(LeaveRequest leaveRequest) {
+        UUID userId = leaveRequest.getUser().getId();
+        RequestRow row = new RequestRow(leaveRequest.getId(), userId, orgHierarchy.departmentOf(userId),
+                leaveRequest.getLeaveType().getId(), leaveRequest.getStatus().getId(),
+                leaveRequest.getStartDate(), leaveRequest.getEndDate(), leaveRequest.getFullDay(),
+                leaveRequest.getLeaveDuration());
+        jdbcTemplate.batchUpdate(INSERT_FACT_SQL, facts(row));
+        reportStatisticsCache.evictAfterCommit(List.of(new ReportStatisticsCache.LeaveChange(userId, row.departmentId(),
+                row.leaveTypeId(), row.startDate(), row.endDate())));
+    }
+
+    /**
+     * Move the facts of decided leave requests to their current status; call within the deciding transaction
+     */
+    public void updateStatuses(Collection<LeaveRequest> leaveRequests) {
+        if (leaveRequests.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(UPDATE_STATUS_SQL, leaveRequests.stream()
+                .map(leaveRequest -> new Object[]{leaveRequest.getStatus().getId(), leaveRequest.getId()})
+                .toList());
+
+        // Facts keep the department the user was in when they were written, which may not be the current one
+        Map<UUID, Set<UUID>> departmentIds = new HashMap<>();
+        namedParameterJdbcTemplate.query(FACT_DEPARTMENTS_SQL, new MapSqlParameterSource("leaveRequestIds",
+                leaveRequests.stream().map(LeaveRequest::getId).toList()), rs -> {
+            departmentIds.computeIfAbsent(rs.getObject("leave_request_id", UUID.class), id -> new HashSet<>())
+                    .add(rs.getObject("department_id", UUID.class));
+        });
+        List<ReportStatisticsCache.LeaveChange> changes = new ArrayList<>();
+        for (LeaveRequest leaveRequest : leaveRequests) {
+            UUID userId = leaveRequest.getUser().getId();
+            Set<UUID> departments = new HashSet<>(departmentIds.getOrDefault(leaveRequest.getId(), Set.of()));
+            departments.add(orgHierarchy.departmentOf(userId));
+            for (UUID departmentId : departments) {
+                changes.add(new ReportStatisticsCache.LeaveChange(userId, departmentId,
+                        leaveRequest.getLeaveType().getId(), leaveRequest.getStartDate(), leaveRequest.getEndDate()));
+            }
+        }
+        reportStatisticsCache.evictAfterCommit(changes);
+    }
+
+    /**
+     * Move the facts of a department being deleted to no department, so company statistics partitioned by
+     * department still cover them; call within the deleting transaction
+     */
+    public void detachDepartment(UUID departmentId) {
+        int detached = jdbcTemplate.update(DETACH_DEPARTMENT_SQL, departmentId);
+        if (detached > 0) {
+            reportStatisticsCache.evictAllAfterCommit();
+        }
+    }
+
+    /**
+     * Rebuild the facts in the background. A rebuild requested while one runs is run again afterwards,
+     * so it sees whatever prompted the request.
+     * @return Whether a new rebuild was started, rather than queued behind the running one
+     */
+    public boolean startRebuild() {
+        rebuildRequested.set(true);
+        if (!rebuilding.compareAndSet(false, true)) {
+            return false;
+        }
+        Thread.ofVirtual().name("leave-day-fact-rebuild").start(() -> {
+            try {
+                while (rebuildRequested.getAndSet(false)) {
+                    long written = rebuild();
+                    log.info("Leave day fact rebuild complete: {} facts written", written);
+                }
+            } catch (Exception e) {
+                log.error("Leave day fact rebuild failed", e);
+            } finally {
+                rebuilding.set(false);
+                // Requested between the last check and now
+                if (rebuildRequested.get()) {
+                    startRebuild();
+                }
+            }
+        });
+        return true;
+    }
+
+    /**
+     * Start a rebuild if there are leave requests but no facts yet, e.g. on the first start after upgrading
+     */
+    public boolean rebuildIfEmpty() {
+        Boolean empty = jdbcTemplate.queryForObject("SELECT NOT EXISTS (SELECT 1 FROM leave_day_facts) " +
+                "AND EXISTS (SELECT 1 FROM leave_requests)", Boolean.class);
+        return Boolean.TRUE.equals(empty) && startRebuild();
+    }
+
+    public boolean isRebuilding() {
+        return rebuilding.get();
+    }
+
+    /**
+     * Rewrite the facts of every leave request, chunk by chunk, then drop facts of deleted requests
+     * @return The number of facts written
+     */
+    public long rebuild() {
+        long written = 0;
+        long requests = 0;
+        UUID lastId = null;
+
+        while (true) {
+            UUID cursor = lastId;
+            Chunk chunk = transactionTemplate.execute(status -> rebuildChunk(cursor));
+            if (chunk == null || chunk.requests() == 0) {
+                break;
+            }
+            reportStatisticsCache.evictAllAfterCommit();
+            requests += chunk.requests();
+            written += chunk.facts();
+            lastId = chunk.lastId();
+            log.info("Leave day fact rebuild progress: {} leave requests processed", requests);
+            if (chunk.requests() < chunkSize) {
+                break;
+            }
+        }
+
+        int orphans = jdbcTemplate.update(DELETE_ORPHANS_SQL);
+        if (orphans > 0) {
+            reportStatisticsCache.evictAllAfterCommit();
+            log.info("Removed {} leave day facts of deleted leave requests", orphans);
+        }
+        return written;
+    }
+
+    private Chunk rebuildChunk(UUID lastId) {
+        List<RequestRow> rows = lastId == null
+                ? jdbcTemplate.query(FIRST_REQUESTS_SQL, (rs, rowNum) -> requestRow(rs), chunkSize)
+                : jdbcTemplate.query(NEXT_REQUESTS_SQL, (rs, rowNum) -> requestRow(rs), lastId, chunkSize);
+        if (rows.isEmpty()) {
+            return new Chunk(0, lastId, 0);
+        }
+
+        namedParameterJdbcTemplate.update(DELETE_FACTS_SQL, new MapSqlParameterSource("leaveRequestIds",
+                rows.stream().map(RequestRow::id).toList()));
+        List<Object[]> batchArgs = new ArrayList<>();
+        rows.forEach(row -> batchArgs.addAll(facts(row)));
+        jdbcTemplate.batchUpdate(INSERT_FACT_SQL, batchArgs);
+        return new Chunk(rows.size(), rows.get(rows.size() - 1).id(), batchArgs.size());
+    }
+
+    private RequestRow requestRow(ResultSet rs) throws SQLException {
+        return new RequestRow(
+                rs.getObject("id", UUID.class),
+                rs.getObject("user_id", UUID.class),
+                rs.getObject("department_id", UUID.class),
+                rs.getObject("leave_type_id", UUID.class),
+                rs.getObject("status_id", UUID.class),
+                rs.getObject("start_date", LocalDate.class),
+                rs.getObject("end_date", LocalDate.class),
+                rs.getBoolean("full_day"),
+                rs.getBigDecimal("leave_duration"));
+    }
+
+    /**
+     * Insert arguments for the days of a leave request; the last day of a leave that is not full day counts
+     * half, as in {@link BusinessDayCalendar#leaveUnits(LocalDate, LocalDate, Boolean)}. The days add up to the
+     * stored duration: business days first, then, if holidays were added since the request was counted,
+     * the weekdays that became holidays. Rows not backfilled yet take every business day.
+     */
+    private List<Object[]> facts(RequestRow row) {
+        List<Object[]> facts = new ArrayList<>();
+        BigDecimal remaining = row.leaveDuration();
+        for (boolean businessDays : new boolean[]{true, false}) {
+            for (LocalDate date = row.startDate(); !date.isAfter(row.endDate()); date = date.plusDays(1)) {
+                if (remaining != null && remaining.signum() <= 0) {
+                    return facts;
+                }
+                boolean counted = businessDays
+                        ? businessDayCalendar.isBusinessDay(date)
+                        : remaining != null && isWeekday(date) && !businessDayCalendar.isBusinessDay(date);
+                if (!counted) {
+                    continue;
+                }
+                BigDecimal dayFraction = date.equals(row.endDate()) && Boolean.FALSE.equals(row.fullDay()) ? HALF_DAY : FULL_DAY;
+                if (remaining != null) {
+                    dayFraction = dayFraction.min(remaining);
+                    remaining = remaining.subtract(dayFraction);
+                }
+                facts.add(new Object[]{UUID.randomUUID(), row.id(), date, row.userId(), row.departmentId(),
+                        row.leaveTypeId(), row.statusId(), dayFraction});
+            }
+        }
+        return facts;
+    }
+
+    private static boolean isWeekday(LocalDate date) {
+        return date.getDayOfWeek() != DayOfWeek.SATURDAY && date.getDayOfWeek() != DayOfWeek.SUNDAY;
+    }
+}
@@ -0,0 +1,62 @@
+package com.leavemanagement.leave_management_system.service;
+
+import com.leavemanagement.leave_management_system.model.LeaveRequest;
+import com.leavemanagement.leave_management_system.repository.LeaveRequestRepository;
+import com.leavemanagement.leave_management_system.util.LeaveUnits;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+/**
+ * Fills the stored leave_duration column for leave requests created before it was populated on write.
+ * Each chunk runs in its own transaction and only ever selects rows that are still missing a duration,
+ * so the job can be stopped at any point and simply picks up where it left off on the next run.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class LeaveDurationBackfillService {
+    private final LeaveRequestRepository leaveRequestRepository;
+    private final BusinessDayCalendar businessDayCalendar;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${app.backfill.leave-duration.chunk-size:500}")
+    private int chunkSize;
+
+    /**
+     * Backfill all leave requests without a stored duration
+     * @return The number of leave requests updated
+     */
+    public long backfill() {
+        long updated = 0;
+        int chunkUpdated;
+
+        do {
+            Integer result = transactionTemplate.execute(status -> backfillChunk());
+            chunkUpdated = result != null ? result : 0;
+            updated += chunkUpdated;
+            if (chunkUpdated > 0) {
+                log.info("Leave duration backfill progress: {} leave requests updated", updated);
+            }
+        } while (chunkUpdated == chunkSize);
+
+        return updated;
+    }
+
+    private int backfillChunk() {
+        List<LeaveRequest> leaveRequests = leaveRequestRepository.findWithoutLeaveDuration(PageRequest.of(0, chunkSize));
+
+        for (LeaveRequest leaveRequest : leaveRequests) {
+            leaveRequest.setLeaveDuration(LeaveUnits.toDays(businessDayCalendar.leaveUnits(
+                    leaveRequest.getStartDate(), leaveRequest.getEndDate(), leaveRequest.getFullDay())));
+        }
+
+        // Dirty entities are flushed on commit as JDBC batched updates (hibernate.jdbc.batch_size)
+        return leaveRequests.size();
+    }
+}
@@ -0,0 +1,188 @@
+package com.leavemanagement.leave_management_system.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.leavemanagement.leave_management_system.enums.OutboxEventStatus;
+import com.leavemanagement.leave_management_system.events.LeaveEvent;
+import com.leavemanagement.leave_management_system.model.OutboxEvent;
+import com.leavemanagement.leave_management_system.repository.OutboxEventRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Delivers outbox events to {@link LeaveEventHandler} on virtual threads, with at most
+ * {@code app.outbox.max-concurrency} handlers (SMTP and Graph calls) running at once.
+ * Events are claimed with a conditional update, so each is handled by one worker even with several
+ * instances running. Handlers run outside any transaction, so a slow mail server or Graph call does not hold
+ * a pooled connection; only the claim and the status updates are (short) transactions.
+ * Failed events are retried with exponential backoff by the scheduled relay, which also picks up events
+ * whose after-commit dispatch was lost (e.g. a crash right after commit).
+ */
+@Service
+public class LeaveEventDispatcher {
+    private static final int MAX_ERROR_LENGTH = 2000;
+
+    private static final Map<String, Class<? extends LeaveEvent>> EVENT_TYPES = Arrays.stream(LeaveEvent.class.getPermittedSubclasses())
+            .collect(Collectors.toUnmodifiableMap(Class::getSimpleName, type -> type.asSubclass(LeaveEvent.class)));
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final LeaveEventHandler leaveEventHandler;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final Semaphore permits;
+    private final Set<UUID> inFlight = ConcurrentHashMap.newKeySet();
+
+    @Value("${app.outbox.max-attempts:8}")
+    private int maxAttempts;
+
+    @Value("${app.outbox.retry-backoff-seconds:30}")
+    private long retryBackoffSeconds;
+
+    @Value("${app.outbox.stale-after-seconds:600}")
+    private long staleAfterSeconds;
+
+    @Value("${app.outbox.relay-batch-size:100}")
+    private int relayBatchSize;
+
+    private static final Logger logger = LoggerFactory.getLogger(LeaveEventDispatcher.class);
+
+    public LeaveEventDispatcher(OutboxEventRepository outboxEventRepository,
+                                LeaveEventHandler leaveEventHandler,
+                                ObjectMapper objectMapper,
+                                TransactionTemplate transactionTemplate,
+                                @Value("${app.outbox.max-concurrency:4}") int maxConcurrency) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.leaveEventHandler = leaveEventHandler;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = transactionTemplate;
+        this.permits = new Semaphore(maxConcurrency);
+    }
+
+    /**
+     * Hand events to the worker pool; events already queued or running on this instance are skipped
+     */
+    public void dispatch(Collection<UUID> eventIds) {
+        for (UUID eventId : eventIds) {
+            if (!inFlight.add(eventId)) {
+                continue;
+            }
+            try {
+                executor.execute(() -> run(eventId));
+            } catch (RejectedExecutionException e) {
+                // Shutting down; the event stays pending and is relayed after restart
+                inFlight.remove(eventId);
+            }
+        }
+    }
+
+    /**
+     * Re-dispatch due events: retries, and events whose after-commit dispatch never happened
+     */
+    @Scheduled(fixedDelayString = "${app.outbox.relay-interval-ms:30000}")
+    public void relay() {
+        LocalDateTime now = LocalDateTime.now();
+        Integer released = transactionTemplate.execute(status -> outboxEventRepository.releaseStale(
+                OutboxEventStatus.PENDING, OutboxEventStatus.PROCESSING, now.minusSeconds(staleAfterSeconds)));
+        if (released != null && released > 0) {
+            logger.warn("Released {} outbox events stuck in processing", released);
+        }
+
+        List<UUID> dueEventIds = outboxEventRepository.findDueIds(
+                OutboxEventStatus.PENDING, now, PageRequest.of(0, relayBatchSize));
+        if (!dueEventIds.isEmpty()) {
+            logger.debug("Relaying {} outbox events", dueEventIds.size());
+            dispatch(dueEventIds);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        executor.shutdown();
+        if (!executor.awaitTermination(10, TimeUnit.SECONDS)) {
+            logger.warn("Outbox workers still running at shutdown; unfinished events will be relayed after restart");
+        }
+    }
+
+    private void run(UUID eventId) {
+        try {
+            permits.acquire();
+            try {
+                process(eventId);
+            } finally {
+                permits.release();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            inFlight.remove(eventId);
+        }
+    }
+
+    private void process(UUID eventId) {
+        Integer claimed = transactionTemplate.execute(status -> outboxEventRepository.claim(
+                eventId, OutboxEventStatus.PENDING, OutboxEventStatus.PROCESSING, LocalDateTime.now()));
+        if (claimed == null || claimed == 0) {
+            return;
+        }
+
+        OutboxEvent outboxEvent = outboxEventRepository.findById(eventId).orElse(null);
+        if (outboxEvent == null) {
+            return;
+        }
+
+        try {
+            LeaveEvent event = readEvent(outboxEvent);
+            leaveEventHandler.handle(event);
+            transactionTemplate.executeWithoutResult(status ->
+                    outboxEventRepository.markProcessed(eventId, OutboxEventStatus.PROCESSED, LocalDateTime.now()));
+        } catch (Exception e) {
+            int attempts = outboxEvent.getAttempts();
+            boolean exhausted = attempts >= maxAttempts;
+            LocalDateTime nextAttemptAt = LocalDateTime.now()
+                    .plusSeconds(retryBackoffSeconds << Math.min(attempts - 1, 10));
+            String error = String.valueOf(e.getMessage());
+
+            transactionTemplate.executeWithoutResult(status -> outboxEventRepository.markFailed(eventId,
+                    exhausted ? OutboxEventStatus.FAILED : OutboxEventStatus.PENDING, nextAttemptAt,
+                    error.length() > MAX_ERROR_LENGTH ? error.substring(0, MAX_ERROR_LENGTH) : error));
+
+            if (exhausted) {
+                logger.error("Outbox event {} ({}) failed after {} attempts", eventId, outboxEvent.getEventType(), attempts, e);
+            } else {
+                logger.warn("Outbox event {} ({}) failed on attempt {}, retrying at {}",
+                        eventId, outboxEvent.getEventType(), attempts, nextAttemptAt, e);
+            }
+        }
+    }
+
+    private LeaveEvent readEvent(OutboxEvent outboxEvent) throws JsonProcessingException {
+        Class<? extends LeaveEvent> eventType = EVENT_TYPES.get(outboxEvent.getEventType());
+        if (eventType == null) {
+            throw new IllegalStateException("Unknown outbox event type: " + outboxEvent.getEventType());
+        }
+        return objectMapper.readValue(outboxEvent.getPayload(), eventType);
+    }
+}
@@ -0,0 +1,123 @@
+package com.leavemanagement.leave_management_system.service;
+
+import com.leavemanagement.leave_management_system.dto.CalendarEventDTO;
+import com.leavemanagement.leave_management_system.dto.LeaveRequestDTO;
+import com.leavemanagement.leave_management_system.events.LeaveApprovalRequested;
+import com.leavemanagement.leave_management_system.events.LeaveDecided;
+import com.leavemanagement.leave_management_system.events.LeaveEvent;
+import com.leavemanagement.leave_management_system.events.LeaveSubmitted;
+import com.leavemanagement.leave_management_system.model.CalendarEvent;
+import com.leavemanagement.leave_management_system.model.User;
+import com.leavemanagement.leave_management_system.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Side effects of leave events: calendar entries (possibly synced to Outlook) and notifications.
+ * Runs outside any transaction, so each repository call commits on its own and no connection is held
+ * while mail or Graph calls are made; handlers may run more than once for the same
+ * event after a failure, so they skip work that was already done where they can.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class LeaveEventHandler {
+    private final CalendarService calendarService;
+    private final NotificationService notificationService;
+    private final UserRepository userRepository;
+
+    public void handle(LeaveEvent event) {
+        switch (event) {
+            case LeaveSubmitted submitted -> onLeaveSubmitted(submitted);
+            case LeaveApprovalRequested requested -> onLeaveApprovalRequested(requested);
+            case LeaveDecided decided -> onLeaveDecided(decided);
+        }
+    }
+
+    private void onLeaveSubmitted(LeaveSubmitted event) {
+        LeaveRequestDTO leaveRequest = event.leaveRequest();
+
+        // A retried event must not create a second calendar entry
+        if (calendarService.getCalendarEventsByReferenceId(leaveRequest.getId()).isEmpty()) {
+            createCalendarEvent(leaveRequest);
+        }
+
+        notificationService.notifyLeaveRequestSubmitted(leaveRequest, approvers(leaveRequest, event.approverIds()));
+    }
+
+    private void onLeaveApprovalRequested(LeaveApprovalRequested event) {
+        notificationService.notifyApprovalRequested(event.leaveRequest(), approvers(event.leaveRequest(), event.approverIds()));
+    }
+
+    /**
+     * The routed approvers, or the department's managers for requests without an approval chain
+     */
+    private List<User> approvers(LeaveRequestDTO leaveRequest, List<UUID> approverIds) {
+        if (approverIds != null && !approverIds.isEmpty()) {
+            return userRepository.findAllById(approverIds);
+        }
+        return leaveRequest.getDepartmentId() != null
+                ? userRepository.findManagersByDepartmentId(leaveRequest.getDepartmentId())
+                : List.of();
+    }
+
+    private void onLeaveDecided(LeaveDecided event) {
+        updateCalendarEvent(event.leaveRequest());
+        notificationService.notifyLeaveRequestUpdated(event.leaveRequest(), event.status());
+    }
+
+    private void createCalendarEvent(LeaveRequestDTO leaveRequest) {
+        String title = leaveRequest.getUserName() + " - " + leaveRequest.getLeaveTypeName();
+
+        CalendarEventDTO calendarEventDTO = CalendarEventDTO.builder()
+                .title(title)
+                .description(leaveRequest.getReason())
+                .startTime(leaveRequest.getStartDate().atStartOfDay())
+                .endTime(leaveRequest.getEndDate().atTime(23, 59, 59))
+                .eventType("LEAVE")
+                .referenceId(leaveRequest.getId())
+                .build();
+
+        // For now, passing null as departmentId (global/company-wide event)
+        UUID departmentId = null; // This creates a global event
+
+        calendarService.createCalendarEvent(calendarEventDTO, departmentId, leaveRequest.getUserId());
+    }
+
+    private void updateCalendarEvent(LeaveRequestDTO leaveRequest) {
+        List<CalendarEvent> events = calendarService.getCalendarEventsByReferenceId(leaveRequest.getId());
+
+        if (!events.isEmpty()) {
+            CalendarEvent event = events.get(0);
+
+            // For now, passing null as departmentId (global/company-wide event)
+            UUID departmentId = null; // This creates a global event
+
+            // If request is rejected, delete the event
+            if ("REJECTED".equals(leaveRequest.getStatus())) {
+                calendarService.deleteCalendarEvent(event.getId(), departmentId, leaveRequest.getUserId());
+                return;
+            }
+
+            // Otherwise update the event
+            String title = leaveRequest.getUserName() + " - " + leaveRequest.getLeaveTypeName();
+
+            CalendarEventDTO calendarEventDTO = CalendarEventDTO.builder()
+                    .id(event.getId())
+                    .title(title)
+                    .description(leaveRequest.getReason())
+                    .startTime(leaveRequest.getStartDate().atStartOfDay())
+                    .endTime(leaveRequest.getEndDate().atTime(23, 59, 59))
+                    .eventType("LEAVE")
+                    .referenceId(leaveRequest.getId())
+                    .outlookEventId(event.getOutlookEventId())
+                    .build();
+
+            calendarService.updateCalendarEvent(calendarEventDTO, departmentId, leaveRequest.getUserId());
+        }
+    }
+}
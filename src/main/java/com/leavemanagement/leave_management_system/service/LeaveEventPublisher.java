@@ -0,0 +1,68 @@
+package com.leavemanagement.leave_management_system.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.leavemanagement.leave_management_system.enums.OutboxEventStatus;
+import com.leavemanagement.leave_management_system.events.LeaveEvent;
+import com.leavemanagement.leave_management_system.model.OutboxEvent;
+import com.leavemanagement.leave_management_system.repository.OutboxEventRepository;
+import com.leavemanagement.leave_management_system.util.TransactionCallbacks;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Publishes leave domain events through the transactional outbox: events are inserted in the caller's
+ * transaction, so they exist if and only if the change that raised them committed, and are handed to
+ * the dispatcher once that transaction has committed.
+ */
+@Service
+@RequiredArgsConstructor
+public class LeaveEventPublisher {
+    private final OutboxEventRepository outboxEventRepository;
+    private final LeaveEventDispatcher leaveEventDispatcher;
+    private final ObjectMapper objectMapper;
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void publish(LeaveEvent event) {
+        publishAll(List.of(event));
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void publishAll(List<? extends LeaveEvent> events) {
+        if (events.isEmpty()) {
+            return;
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        List<OutboxEvent> outboxEvents = events.stream()
+                .map(event -> OutboxEvent.builder()
+                        .eventType(event.getClass().getSimpleName())
+                        .aggregateId(event.leaveRequest().getId())
+                        .payload(toJson(event))
+                        .status(OutboxEventStatus.PENDING)
+                        .attempts(0)
+                        .nextAttemptAt(now)
+                        .build())
+                .toList();
+
+        List<UUID> eventIds = outboxEventRepository.saveAll(outboxEvents).stream()
+                .map(OutboxEvent::getId)
+                .toList();
+
+        TransactionCallbacks.afterCommit(() -> leaveEventDispatcher.dispatch(eventIds));
+    }
+
+    private String toJson(LeaveEvent event) {
+        try {
+            return objectMapper.writeValueAsString(event);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize " + event.getClass().getSimpleName(), e);
+        }
+    }
+}
@@ -1,20 +1,33 @@
 package com.leavemanagement.leave_management_system.service;
 import com.leavemanagement.leave_management_system.dto.*;
+import com.leavemanagement.leave_management_system.enums.ApprovalStepStatus;
+import com.leavemanagement.leave_management_system.enums.LeaveBalanceTransactionType;
+import com.leavemanagement.leave_management_system.events.LeaveApprovalRequested;
+import com.leavemanagement.leave_management_system.events.LeaveDecided;
+import com.leavemanagement.leave_management_system.events.LeaveSubmitted;
+import com.leavemanagement.leave_management_system.exceptions.InvalidLeaveStatusException;
+import com.leavemanagement.leave_management_system.exceptions.LeaveRequestConflictException;
 import com.leavemanagement.leave_management_system.exceptions.ResourceNotFoundException;
+import com.leavemanagement.leave_management_system.exceptions.UnauthorizedException;
 import com.leavemanagement.leave_management_system.model.*;
 import com.leavemanagement.leave_management_system.repository.*;
+import com.leavemanagement.leave_management_system.util.LeaveUnits;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import jakarta.annotation.PostConstruct;
 import java.math.BigDecimal;
-import java.time.DayOfWeek;
 import java.time.LocalDate;
-import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Optional;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 import java.util.UUID;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -24,14 +37,19 @@ import org.slf4j.LoggerFactory;
 public class LeaveService {
     private final LeaveRequestRepository leaveRequestRepository;
     private final LeaveTypeRepository leaveTypeRepository;
-    private final LeaveBalanceRepository leaveBalanceRepository;
+    private final LeaveBalanceService leaveBalanceService;
     private final LeaveRequestStatusRepository leaveRequestStatusRepository;
     private final DocumentRepository documentRepository;
-    private final HolidayRepository holidayRepository;
+    private final BusinessDayCalendar businessDayCalendar;
     private final UserService userService;
-    private final CalendarService calendarService;
     private final UserRepository userRepository;
-    private final NotificationService notificationService;
+    private final LeaveEventPublisher leaveEventPublisher;
+    private final ReferenceDataRegistry referenceData;
+    private final LeaveBalanceLedgerService leaveBalanceLedgerService;
+    private final DepartmentCoverageService departmentCoverageService;
+    private final LeaveApprovalService leaveApprovalService;
+    private final OrgHierarchyCache orgHierarchy;
+    private final LeaveDayFactService leaveDayFactService;
 
     private static final Logger logger = LoggerFactory.getLogger(LeaveService.class);
 
@@ -76,336 +94,436 @@ public class LeaveService {
     }
 
     public List<LeaveTypeDTO> getAllLeaveTypes() {
-        return leaveTypeRepository.findByIsActiveTrue().stream()
+        return referenceData.getActiveLeaveTypes().stream()
                 .map(this::convertToLeaveTypeDTO)
                 .collect(Collectors.toList());
     }
 
     public List<LeaveBalanceDTO> getUserLeaveBalances(UUID userId) {
-        int currentYear = LocalDate.now().getYear();
-        return leaveBalanceRepository.findByUserIdAndYear(userId, currentYear).stream()
-                .map(this::convertToLeaveBalanceDTO)
-                .collect(Collectors.toList());
+        return leaveBalanceService.getUserLeaveBalances(userId);
     }
 
     public List<LeaveRequestDTO> getUserLeaveRequests(UUID userId) {
-        return leaveRequestRepository.findByUserId(userId).stream()
+        return leaveRequestRepository.findWithDetailsByUserId(userId).stream()
                 .map(this::convertToLeaveRequestDTO)
                 .collect(Collectors.toList());
     }
 
 
-    @Transactional
-    public LeaveRequestDTO createLeaveRequest(UUID userId, LeaveRequestCreateDTO createDTO) {
-        // Get user entity from repository
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new ResourceNotFoundException("User not found"));
+    /**
+     * Check what a leave request would cost and whether it would be accepted, without creating it.
+     * Runs the checks of {@link #createLeaveRequest} against the in-memory org hierarchy, business day,
+     * coverage and balance caches; only the overlap check reads the user's own requests. Nothing is
+     * written and no events are published.
+     */
+    @Transactional(readOnly = true)
+    public LeaveSimulationDTO simulateLeaveRequest(UUID userId, LeaveRequestCreateDTO createDTO) {
+        if (!orgHierarchy.contains(userId)) {
+            throw new ResourceNotFoundException("User not found");
+        }
+        ReferenceDataRegistry.LeaveTypeEntry leaveType = referenceData.getLeaveType(createDTO.getLeaveTypeId());
+        LeaveSimulationDTO.LeaveSimulationDTOBuilder simulation = LeaveSimulationDTO.builder()
+                .leaveTypeId(leaveType.id())
+                .leaveTypeName(leaveType.name())
+                .startDate(createDTO.getStartDate())
+                .endDate(createDTO.getEndDate())
+                .fullDay(createDTO.getFullDay());
 
-        LeaveType leaveType = leaveTypeRepository.findById(createDTO.getLeaveTypeId())
-                .orElseThrow(() -> new ResourceNotFoundException("LeaveType not found"));
+        List<String> violations = new ArrayList<>();
+        List<String> warnings = new ArrayList<>();
+        if (createDTO.getStartDate() == null || createDTO.getEndDate() == null) {
+            violations.add("Start and end date are required");
+            return simulation.allowed(false).violations(violations).warnings(warnings).build();
+        }
+        if (createDTO.getEndDate().isBefore(createDTO.getStartDate())) {
+            violations.add("End date is before start date");
+            return simulation.allowed(false).violations(violations).warnings(warnings).build();
+        }
 
-        // Calculate business days (excluding weekends and holidays)
-        BigDecimal leaveDuration = calculateBusinessDays(createDTO.getStartDate(), createDTO.getEndDate());
+        long leaveUnits = businessDayCalendar.leaveUnits(createDTO.getStartDate(), createDTO.getEndDate(), createDTO.getFullDay());
+        if (leaveUnits == 0) {
+            warnings.add("The selected dates contain no business days");
+        }
+        if (Boolean.TRUE.equals(leaveType.requiresDoc())
+                && (createDTO.getDocumentIds() == null || createDTO.getDocumentIds().isEmpty())) {
+            warnings.add(leaveType.name() + " leave requires supporting documents");
+        }
 
-        // Check leave balance
-        LeaveBalance leaveBalance = getOrCreateLeaveBalance(userId, leaveType.getId(), createDTO.getStartDate().getYear());
+        try {
+            checkNoOverlap(userId, createDTO.getStartDate(), createDTO.getEndDate());
+        } catch (LeaveRequestConflictException e) {
+            violations.add(e.getMessage());
+        }
 
-        BigDecimal availableBalance = leaveBalance.getTotalDays()
-                .subtract(leaveBalance.getUsedDays())
-                .subtract(leaveBalance.getPendingDays());
+        try {
+            String coverageWarning = departmentCoverageService.checkCoverage(
+                    orgHierarchy.departmentOf(userId), createDTO.getStartDate(), createDTO.getEndDate());
+            if (coverageWarning != null) {
+                warnings.add(coverageWarning);
+            }
+        } catch (LeaveRequestConflictException e) {
+            violations.add(e.getMessage());
+        }
 
-        if (availableBalance.compareTo(leaveDuration) < 0) {
-            throw new IllegalStateException("Insufficient leave balance");
+        BigDecimal leaveDuration = LeaveUnits.toDays(leaveUnits);
+        BigDecimal availableDays = leaveBalanceService.getAvailableDays(
+                userId, leaveType.id(), createDTO.getStartDate().getYear());
+        BigDecimal remainingDays = availableDays.subtract(leaveDuration);
+        if (remainingDays.signum() < 0) {
+            violations.add("Insufficient leave balance");
         }
 
-        // Update pending days
-        leaveBalance.setPendingDays(leaveBalance.getPendingDays().add(leaveDuration));
-        leaveBalanceRepository.save(leaveBalance);
+        return simulation
+                .leaveDuration(leaveDuration)
+                .availableDays(availableDays)
+                .remainingDays(remainingDays)
+                .allowed(violations.isEmpty())
+                .violations(violations)
+                .warnings(warnings)
+                .build();
+    }
 
-        // Try to find PENDING status, with fallback to create it if needed
-        LeaveRequestStatus pendingStatus;
-        Optional<LeaveRequestStatus> statusOpt = leaveRequestStatusRepository.findByName("PENDING");
+    @Transactional
+    public LeaveRequestDTO createLeaveRequest(UUID userId, LeaveRequestCreateDTO createDTO) {
+        return createLeaveRequest(userId, createDTO, List.of());
+    }
 
-        if (statusOpt.isPresent()) {
-            pendingStatus = statusOpt.get();
-        } else {
-            logger.info("PENDING status not found during request creation, creating it now");
-            pendingStatus = new LeaveRequestStatus();
-            pendingStatus.setName("PENDING");
-            pendingStatus.setDescription("Leave request is pending approval");
-            pendingStatus = leaveRequestStatusRepository.save(pendingStatus);
-        }
+    /**
+     * Create a leave request together with document records for files already uploaded to S3
+     */
+    @Transactional
+    public LeaveRequestDTO createLeaveRequest(UUID userId, LeaveRequestCreateDTO createDTO, List<UploadedDocumentDTO> uploads) {
+        // Lock the user so concurrent submissions by the same user cannot both pass the overlap check
+        userRepository.lockById(userId)
+                .orElseThrow(() -> new ResourceNotFoundException("User not found"));
+        User user = userRepository.findById(userId)
+                .orElseThrow(() -> new ResourceNotFoundException("User not found"));
+
+        checkNoOverlap(userId, createDTO.getStartDate(), createDTO.getEndDate());
+        String coverageWarning = departmentCoverageService.checkCoverage(
+                user.getDepartment() != null ? user.getDepartment().getId() : null,
+                createDTO.getStartDate(), createDTO.getEndDate());
+
+        ReferenceDataRegistry.LeaveTypeEntry leaveType = referenceData.getLeaveType(createDTO.getLeaveTypeId());
+
+        // Calculate business days (excluding weekends and holidays), counting a half-day leave's last day as half
+        long leaveUnits = businessDayCalendar.leaveUnits(createDTO.getStartDate(), createDTO.getEndDate(), createDTO.getFullDay());
+
+        // Provisioned at the start of the year; created here only for users hired since, or a year not provisioned yet
+        LeaveBalance leaveBalance = leaveBalanceService.getOrCreateLeaveBalance(
+                userId, leaveType.id(), createDTO.getStartDate().getYear());
 
         // Create leave request
         LeaveRequest leaveRequest = LeaveRequest.builder()
                 .user(user)
-                .leaveType(leaveType)
+                .leaveType(referenceData.leaveTypeReference(leaveType.id()))
                 .startDate(createDTO.getStartDate())
                 .endDate(createDTO.getEndDate())
-                .status(pendingStatus)
+                .status(referenceData.statusReference("PENDING"))
                 .reason(createDTO.getReason())
                 .fullDay(createDTO.getFullDay())
+                .leaveDuration(LeaveUnits.toDays(leaveUnits))
                 .build();
 
         LeaveRequest savedRequest = leaveRequestRepository.save(leaveRequest);
 
-        // Associate documents if any
+        // Check leave balance and reserve pending days in one guarded update;
+        // an insufficient balance rolls back the request as well
+        leaveBalanceService.reservePendingDays(leaveBalance, savedRequest.getId(), leaveUnits);
+        leaveDayFactService.record(savedRequest);
+
+        // Associate documents if any; the changes are flushed as batched statements
+        List<Document> documents = new ArrayList<>();
         if (createDTO.getDocumentIds() != null && !createDTO.getDocumentIds().isEmpty()) {
-            createDTO.getDocumentIds().forEach(docId -> {
-                Document doc = documentRepository.findById(docId)
-                        .orElseThrow(() -> new ResourceNotFoundException("Document not found"));
-                doc.setLeaveRequest(savedRequest);
-                documentRepository.save(doc);
-            });
+            Set<UUID> documentIds = Set.copyOf(createDTO.getDocumentIds());
+            List<Document> existingDocuments = documentRepository.findAllById(documentIds);
+            if (existingDocuments.size() != documentIds.size()) {
+                throw new ResourceNotFoundException("Document not found");
+            }
+            existingDocuments.forEach(doc -> doc.setLeaveRequest(savedRequest));
+            documents.addAll(existingDocuments);
+        }
+        if (!uploads.isEmpty()) {
+            documents.addAll(documentRepository.saveAll(uploads.stream()
+                    .map(upload -> Document.builder()
+                            .filename(upload.getFilename())
+                            .fileUrl(upload.getFileUrl())
+                            .fileType(upload.getFileType())
+                            .s3Key(upload.getS3Key())
+                            .user(user)
+                            .leaveRequest(savedRequest)
+                            .build())
+                    .toList()));
         }
 
-        // Create calendar event
-        createCalendarEvent(savedRequest);
+        List<UUID> approverIds = leaveApprovalService.route(savedRequest);
 
-        // Send notifications
+        // Calendar event and notifications are handled asynchronously after commit
         LeaveRequestDTO savedRequestDTO = convertToLeaveRequestDTO(savedRequest);
-        List<User> managers = userRepository.findManagersByDepartmentId(user.getDepartment().getId());
-        notificationService.notifyLeaveRequestSubmitted(savedRequestDTO, managers);
+        if (!documents.isEmpty()) {
+            savedRequestDTO.setDocuments(documents.stream().map(this::convertToDocumentDTO).toList());
+        }
+        leaveEventPublisher.publish(new LeaveSubmitted(savedRequestDTO, approverIds));
 
+        savedRequestDTO.setCoverageWarning(coverageWarning);
         return savedRequestDTO;
     }
 
+    /**
+     * Decide a leave request. An approval short of the last step of its approval chain moves it to the
+     * next approvers and leaves it pending.
+     * @param deciderId The deciding user; must be a current approver of the request, or an admin
+     */
     @Transactional
-    public LeaveRequestDTO updateLeaveRequestStatus(UUID requestId, LeaveRequestUpdateDTO updateDTO) {
-        LeaveRequest leaveRequest = leaveRequestRepository.findById(requestId)
+    public LeaveRequestDTO updateLeaveRequestStatus(UUID requestId, LeaveRequestUpdateDTO updateDTO, UUID deciderId) {
+        LeaveRequest leaveRequest = leaveRequestRepository.findWithDetailsById(requestId)
                 .orElseThrow(() -> new ResourceNotFoundException("Leave request not found"));
 
-        // Try to find status with fallback to create it if needed
-        LeaveRequestStatus newStatus;
-        Optional<LeaveRequestStatus> statusOpt = leaveRequestStatusRepository.findByName(updateDTO.getStatus());
-
-        if (statusOpt.isPresent()) {
-            newStatus = statusOpt.get();
-        } else {
-            logger.info("Status '{}' not found during status update, creating it now", updateDTO.getStatus());
-            newStatus = new LeaveRequestStatus();
-            newStatus.setName(updateDTO.getStatus());
-            newStatus.setDescription(updateDTO.getStatus() + " status");
-            newStatus = leaveRequestStatusRepository.save(newStatus);
+        // Unknown statuses are rejected rather than created on the fly
+        LeaveRequestStatus newStatus = referenceData.statusReference(updateDTO.getStatus());
+
+        List<LeaveApprovalStep> approvalSteps = leaveApprovalService.getSteps(requestId);
+        if (!leaveApprovalService.isFinal(approvalSteps, deciderId, updateDTO.getStatus())) {
+            List<UUID> nextApproverIds = leaveApprovalService.decide(leaveRequest, approvalSteps, deciderId, updateDTO.getStatus());
+            leaveRequest.setComments(updateDTO.getComments());
+            LeaveRequestDTO advancedRequestDTO = convertToLeaveRequestDTO(leaveRequestRepository.save(leaveRequest));
+            leaveEventPublisher.publish(new LeaveApprovalRequested(advancedRequestDTO, nextApproverIds));
+            return advancedRequestDTO;
         }
 
-        LeaveRequestStatus oldStatus = leaveRequest.getStatus();
+        String oldStatusName = referenceData.getStatus(leaveRequest.getStatus().getId()).name();
+        String coverageWarning = updateCoverage(leaveRequest, oldStatusName, updateDTO.getStatus());
+        leaveApprovalService.decide(leaveRequest, approvalSteps, deciderId, updateDTO.getStatus());
         leaveRequest.setStatus(newStatus);
         leaveRequest.setComments(updateDTO.getComments());
 
         // Update leave balance
-        LeaveBalance leaveBalance = leaveBalanceRepository
-                .findByUserIdAndLeaveTypeIdAndYear(
-                        leaveRequest.getUser().getId(),
-                        leaveRequest.getLeaveType().getId(),
-                        leaveRequest.getStartDate().getYear())
-                .orElseThrow(() -> new ResourceNotFoundException("Leave balance not found"));
-
-        BigDecimal leaveDuration = calculateBusinessDays(leaveRequest.getStartDate(), leaveRequest.getEndDate());
-
-        if ("APPROVED".equals(updateDTO.getStatus()) && !"APPROVED".equals(oldStatus.getName())) {
-            // If previously pending, remove from pending and add to used
-            leaveBalance.setPendingDays(leaveBalance.getPendingDays().subtract(leaveDuration));
-            leaveBalance.setUsedDays(leaveBalance.getUsedDays().add(leaveDuration));
-        } else if ("REJECTED".equals(updateDTO.getStatus()) && !"REJECTED".equals(oldStatus.getName())) {
-            // If previously pending or approved, adjust accordingly
-            if ("PENDING".equals(oldStatus.getName())) {
-                leaveBalance.setPendingDays(leaveBalance.getPendingDays().subtract(leaveDuration));
-            } else if ("APPROVED".equals(oldStatus.getName())) {
-                leaveBalance.setUsedDays(leaveBalance.getUsedDays().subtract(leaveDuration));
-            }
-        }
-
-        leaveBalanceRepository.save(leaveBalance);
+        LeaveBalance leaveBalance = leaveBalanceService.getLeaveBalance(
+                leaveRequest.getUser().getId(),
+                leaveRequest.getLeaveType().getId(),
+                leaveRequest.getStartDate().getYear());
+
+        LeaveBalanceService.BalanceDelta delta = balanceDelta(leaveBalance, leaveRequest, oldStatusName, updateDTO.getStatus());
+        leaveBalanceService.applyDelta(leaveBalance, delta.type(), leaveRequest.getId(), delta.pendingUnits(), delta.usedUnits());
+        leaveDayFactService.updateStatuses(List.of(leaveRequest));
         LeaveRequest updatedRequest = leaveRequestRepository.save(leaveRequest);
-
-        // Update calendar event
-        updateCalendarEvent(updatedRequest);
-
-        // Send notifications
         LeaveRequestDTO updatedRequestDTO = convertToLeaveRequestDTO(updatedRequest);
-        notificationService.notifyLeaveRequestUpdated(updatedRequestDTO, updateDTO.getStatus());
 
+        // Calendar event and notifications are handled asynchronously after commit
+        leaveEventPublisher.publish(new LeaveDecided(updatedRequestDTO, updateDTO.getStatus()));
+
+        updatedRequestDTO.setCoverageWarning(coverageWarning);
         return updatedRequestDTO;
     }
 
+    /**
+     * Apply many status decisions in one transaction. Requests and balances are loaded with one query each,
+     * balance changes are written as a single batch and request updates are flushed as batched updates.
+     * Approval steps are loaded with one query too. Invalid or unauthorized decisions are reported per item
+     * and skipped; calendar and notification side effects are published as events and handled once the
+     * transaction has committed.
+     */
     @Transactional
-    public LeaveBalanceDTO adjustLeaveBalance(LeaveBalanceAdjustmentDTO adjustmentDTO) {
-        // Add debug logging
-        logger.debug("Adjusting leave balance: {}", adjustmentDTO);
-
-        // Default to current year if year is null
-        int year = adjustmentDTO.getYear() != null
-                ? adjustmentDTO.getYear()
-                : LocalDate.now().getYear();
+    public List<LeaveDecisionResultDTO> updateLeaveRequestStatuses(List<LeaveRequestUpdateDTO> decisions, UUID deciderId) {
+        Set<UUID> requestIds = decisions.stream()
+                .map(LeaveRequestUpdateDTO::getId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        Map<UUID, LeaveRequest> leaveRequests = requestIds.isEmpty() ? Map.of() :
+                leaveRequestRepository.findWithDetailsByIdIn(requestIds).stream()
+                        .collect(Collectors.toMap(LeaveRequest::getId, Function.identity()));
+
+        Map<LeaveBalanceService.BalanceKey, LeaveBalance> leaveBalances = leaveBalanceService.getLeaveBalances(
+                leaveRequests.values().stream().map(this::balanceKey).collect(Collectors.toSet()));
+        Map<UUID, List<LeaveApprovalStep>> approvalSteps = leaveApprovalService.getSteps(leaveRequests.keySet());
+
+        List<LeaveDecisionResultDTO> results = new ArrayList<>(decisions.size());
+        List<LeaveBalanceService.BalanceDelta> deltas = new ArrayList<>();
+        Map<UUID, String> decidedStatuses = new LinkedHashMap<>();
+        List<LeaveApprovalRequested> advanced = new ArrayList<>();
+
+        for (LeaveRequestUpdateDTO decision : decisions) {
+            LeaveRequest leaveRequest = decision.getId() != null ? leaveRequests.get(decision.getId()) : null;
+            if (leaveRequest == null) {
+                results.add(failedDecision(decision, "Leave request not found"));
+                continue;
+            }
 
-        LeaveBalance leaveBalance = leaveBalanceRepository
-                .findByUserIdAndLeaveTypeIdAndYear(
-                        adjustmentDTO.getUserId(),
-                        adjustmentDTO.getLeaveTypeId(),
-                        year)
-                .orElseGet(() -> getOrCreateLeaveBalance(
-                        adjustmentDTO.getUserId(),
-                        adjustmentDTO.getLeaveTypeId(),
-                        year));
+            LeaveRequestStatus newStatus;
+            try {
+                newStatus = referenceData.statusReference(decision.getStatus());
+            } catch (InvalidLeaveStatusException e) {
+                results.add(failedDecision(decision, e.getMessage()));
+                continue;
+            }
 
-        // Log the current state before changes
-        logger.debug("Before adjustment - Balance: {}", leaveBalance);
+            List<LeaveApprovalStep> steps = approvalSteps.getOrDefault(leaveRequest.getId(), List.of());
+            boolean finalDecision;
+            try {
+                finalDecision = leaveApprovalService.isFinal(steps, deciderId, decision.getStatus());
+            } catch (UnauthorizedException e) {
+                results.add(failedDecision(decision, e.getMessage()));
+                continue;
+            }
+            if (!finalDecision) {
+                List<UUID> nextApproverIds = leaveApprovalService.decide(leaveRequest, steps, deciderId, decision.getStatus());
+                leaveRequest.setComments(decision.getComments());
+                advanced.add(new LeaveApprovalRequested(convertToLeaveRequestDTO(leaveRequest), nextApproverIds));
+                results.add(LeaveDecisionResultDTO.builder()
+                        .requestId(leaveRequest.getId())
+                        .success(true)
+                        .status("PENDING")
+                        .build());
+                continue;
+            }
 
-        // Set adjustment days with null check
-        BigDecimal adjustmentDays = adjustmentDTO.getAdjustmentDays() != null
-                ? adjustmentDTO.getAdjustmentDays()
-                : BigDecimal.ZERO;
+            LeaveBalance leaveBalance = leaveBalances.get(balanceKey(leaveRequest));
+            if (leaveBalance == null) {
+                results.add(failedDecision(decision, "Leave balance not found"));
+                continue;
+            }
 
-        leaveBalance.setAdjustmentDays(adjustmentDays);
+            String oldStatusName = referenceData.getStatus(leaveRequest.getStatus().getId()).name();
+            String coverageWarning;
+            try {
+                coverageWarning = updateCoverage(leaveRequest, oldStatusName, decision.getStatus());
+            } catch (LeaveRequestConflictException e) {
+                results.add(failedDecision(decision, e.getMessage()));
+                continue;
+            }
+            leaveApprovalService.decide(leaveRequest, steps, deciderId, decision.getStatus());
+            deltas.add(balanceDelta(leaveBalance, leaveRequest, oldStatusName, decision.getStatus()));
+
+            // Managed entities are flushed as batched updates on commit
+            leaveRequest.setStatus(newStatus);
+            leaveRequest.setComments(decision.getComments());
+            decidedStatuses.put(leaveRequest.getId(), decision.getStatus());
+
+            results.add(LeaveDecisionResultDTO.builder()
+                    .requestId(leaveRequest.getId())
+                    .success(true)
+                    .status(decision.getStatus())
+                    .coverageWarning(coverageWarning)
+                    .build());
+        }
 
-        // Recalculate total days
-        BigDecimal newTotalDays = calculateTotalDays(leaveBalance);
-        leaveBalance.setTotalDays(newTotalDays);
+        leaveBalanceService.applyDeltas(deltas);
+        leaveDayFactService.updateStatuses(decidedStatuses.keySet().stream().map(leaveRequests::get).toList());
 
-        // Log what we're about to save
-        logger.debug("After adjustment - Balance with new total days: {}", leaveBalance);
+        leaveEventPublisher.publishAll(decidedStatuses.entrySet().stream()
+                .map(decided -> new LeaveDecided(
+                        convertToLeaveRequestDTO(leaveRequests.get(decided.getKey())), decided.getValue()))
+                .toList());
+        leaveEventPublisher.publishAll(advanced);
 
-        LeaveBalance savedBalance = leaveBalanceRepository.save(leaveBalance);
+        logger.info("Applied {} of {} leave decisions, {} moved to the next approval step",
+                decidedStatuses.size() + advanced.size(), decisions.size(), advanced.size());
+        return results;
+    }
 
-        // Make sure the save worked
-        logger.debug("Saved balance from database: {}", savedBalance);
+    public LeaveBalanceDTO adjustLeaveBalance(LeaveBalanceAdjustmentDTO adjustmentDTO) {
+        return leaveBalanceService.adjustLeaveBalance(adjustmentDTO);
+    }
 
-        return convertToLeaveBalanceDTO(savedBalance);
+    public LeaveBalanceLedgerDTO getLeaveBalanceLedger(UUID balanceId) {
+        return leaveBalanceLedgerService.getLedger(balanceId);
     }
-    public List<LeaveRequestDTO> getPendingApprovals() {
-        return leaveRequestRepository.findByStatus("PENDING").stream()
+
+    /**
+     * The user's approval inbox: requests whose current approval step awaits them. Admins also see
+     * pending requests without an approval chain.
+     */
+    public List<LeaveRequestDTO> getPendingApprovals(UUID userId) {
+        List<LeaveRequest> pending = new ArrayList<>(
+                leaveRequestRepository.findWithDetailsByApprover(userId, ApprovalStepStatus.PENDING));
+        if (orgHierarchy.isAdmin(userId)) {
+            pending.addAll(leaveRequestRepository.findWithDetailsByStatusWithoutApprovalSteps("PENDING"));
+            pending.sort(Comparator.comparing(LeaveRequest::getStartDate));
+        }
+        return pending.stream()
                 .map(this::convertToLeaveRequestDTO)
                 .collect(Collectors.toList());
     }
 
     public LeaveRequestDTO getLeaveRequest(UUID requestId) {
-        return convertToLeaveRequestDTO(leaveRequestRepository.findById(requestId)
+        return convertToLeaveRequestDTO(leaveRequestRepository.findWithDetailsById(requestId)
                 .orElseThrow(() -> new ResourceNotFoundException("Leave request not found")));
     }
 
-    private BigDecimal calculateBusinessDays(LocalDate startDate, LocalDate endDate) {
-        BigDecimal businessDays = BigDecimal.ZERO;
-        LocalDate currentDate = startDate;
-
-        // Get holidays between the dates
-        List<Holiday> holidays = holidayRepository.findHolidaysBetweenDates(startDate, endDate);
-
-        while (!currentDate.isAfter(endDate)) {
-            // Skip weekends
-            if (!(currentDate.getDayOfWeek() == DayOfWeek.SATURDAY ||
-                    currentDate.getDayOfWeek() == DayOfWeek.SUNDAY)) {
-                // Skip holidays
-                LocalDate finalCurrentDate = currentDate;
-                boolean isHoliday = holidays.stream()
-                        .anyMatch(holiday -> holiday.getDate().isEqual(finalCurrentDate));
-
-                if (!isHoliday) {
-                    businessDays = businessDays.add(BigDecimal.ONE);
-                }
-            }
-            currentDate = currentDate.plusDays(1);
+    /**
+     * Reject a request overlapping another request of the same user that is not rejected or cancelled
+     */
+    private void checkNoOverlap(UUID userId, LocalDate startDate, LocalDate endDate) {
+        List<UUID> inactiveStatusIds = List.of(
+                referenceData.getStatus("REJECTED").id(),
+                referenceData.getStatus("CANCELLED").id());
+
+        List<LeaveRequest> overlapping = leaveRequestRepository.findOverlapping(userId, startDate, endDate, inactiveStatusIds);
+        if (!overlapping.isEmpty()) {
+            LeaveRequest existing = overlapping.get(0);
+            throw new LeaveRequestConflictException("Leave request overlaps an existing " + statusName(existing).toLowerCase() +
+                    " request from " + existing.getStartDate() + " to " + existing.getEndDate());
         }
-
-        return businessDays;
     }
 
-    private LeaveBalance getOrCreateLeaveBalance(UUID userId, UUID leaveTypeId, int year) {
-        Optional<LeaveBalance> existingBalance = leaveBalanceRepository
-                .findByUserIdAndLeaveTypeIdAndYear(userId, leaveTypeId, year);
-
-        if (existingBalance.isPresent()) {
-            return existingBalance.get();
-        } else {
-            // Get user entity from repository
-            User user = userRepository.findById(userId)
-                    .orElseThrow(() -> new ResourceNotFoundException("User not found"));
-
-            LeaveType leaveType = leaveTypeRepository.findById(leaveTypeId)
-                    .orElseThrow(() -> new ResourceNotFoundException("LeaveType not found"));
-
-            // Calculate total days based on accrual rate
-            BigDecimal totalDays = leaveType.getAccrualRate().multiply(new BigDecimal("12")); // Monthly accrual * 12
-
-            // For PTO, use standard 20 days per year
-            if ("PTO".equalsIgnoreCase(leaveType.getName())) {
-                totalDays = new BigDecimal("20");
-            }
-
-            // Cap at max days if applicable
-            if (leaveType.getMaxDays() != null &&
-                    totalDays.compareTo(new BigDecimal(leaveType.getMaxDays())) > 0) {
-                totalDays = new BigDecimal(leaveType.getMaxDays());
-            }
-
-            LeaveBalance newBalance = LeaveBalance.builder()
-                    .user(user)
-                    .leaveType(leaveType)
-                    .year(year)
-                    .totalDays(totalDays)
-                    .usedDays(BigDecimal.ZERO)
-                    .pendingDays(BigDecimal.ZERO)
-                    .adjustmentDays(BigDecimal.ZERO)
-                    .build();
-
-            return leaveBalanceRepository.save(newBalance);
+    /**
+     * Keep the department coverage index in step with a status change; approving checks coverage first
+     * @return A coverage warning for the approval, if any
+     */
+    private String updateCoverage(LeaveRequest leaveRequest, String oldStatusName, String newStatusName) {
+        Department department = leaveRequest.getUser().getDepartment();
+        if (department == null || oldStatusName.equals(newStatusName)) {
+            return null;
         }
-    }
-
-    private BigDecimal calculateTotalDays(LeaveBalance leaveBalance) {
-        // Log entry point
-        logger.debug("Calculating total days for balance: {}", leaveBalance);
-
-        BigDecimal baseAccrual = leaveBalance.getLeaveType().getAccrualRate().multiply(new BigDecimal("12"));
 
-        // For PTO, use standard 20 days
-        if ("PTO".equalsIgnoreCase(leaveBalance.getLeaveType().getName())) {
-            baseAccrual = new BigDecimal("20");
+        if ("APPROVED".equals(newStatusName)) {
+            return departmentCoverageService.markOut(department.getId(), leaveRequest.getId(), leaveRequest.getStartDate(), leaveRequest.getEndDate());
         }
+        if ("APPROVED".equals(oldStatusName)) {
+            departmentCoverageService.markBack(department.getId(), leaveRequest.getId(), leaveRequest.getStartDate(), leaveRequest.getEndDate());
+        }
+        return null;
+    }
 
-        // Add adjustment days (with null check)
-        BigDecimal adjustmentDays = leaveBalance.getAdjustmentDays() != null ?
-                leaveBalance.getAdjustmentDays() : BigDecimal.ZERO;
-
-        BigDecimal totalWithAdjustment = baseAccrual.add(adjustmentDays);
-
-        // Log calculations
-        logger.debug("Base accrual: {}, Adjustment: {}, Total before cap: {}",
-                baseAccrual, adjustmentDays, totalWithAdjustment);
+    private LeaveBalanceService.BalanceDelta balanceDelta(LeaveBalance leaveBalance, LeaveRequest leaveRequest,
+                                                          String oldStatusName, String newStatusName) {
+        long leaveUnits = businessDayCalendar.leaveUnits(leaveRequest);
+        long pendingUnits = 0;
+        long usedUnits = 0;
+        LeaveBalanceTransactionType transactionType = LeaveBalanceTransactionType.REJECT;
 
-        // Cap at max days if applicable
-        BigDecimal result;
-        if (leaveBalance.getLeaveType().getMaxDays() != null &&
-                totalWithAdjustment.compareTo(new BigDecimal(leaveBalance.getLeaveType().getMaxDays())) > 0) {
-            result = new BigDecimal(leaveBalance.getLeaveType().getMaxDays());
-            logger.debug("Capping at max days: {}", result);
-        } else {
-            result = totalWithAdjustment;
+        if ("APPROVED".equals(newStatusName) && !"APPROVED".equals(oldStatusName)) {
+            // If previously pending, remove from pending and add to used
+            pendingUnits = -leaveUnits;
+            usedUnits = leaveUnits;
+            transactionType = LeaveBalanceTransactionType.APPROVE;
+        } else if ("REJECTED".equals(newStatusName) && !"REJECTED".equals(oldStatusName)) {
+            // If previously pending or approved, adjust accordingly
+            if ("PENDING".equals(oldStatusName)) {
+                pendingUnits = -leaveUnits;
+            } else if ("APPROVED".equals(oldStatusName)) {
+                usedUnits = -leaveUnits;
+            }
         }
 
-        // Log final result
-        logger.debug("Final total days: {}", result);
-        return result;
+        return new LeaveBalanceService.BalanceDelta(
+                leaveBalance.getId(), leaveRequest.getUser().getId(), transactionType, leaveRequest.getId(), pendingUnits, usedUnits);
     }
-    private void createCalendarEvent(LeaveRequest leaveRequest) {
-        String title = leaveRequest.getUser().getFullName() + " - " + leaveRequest.getLeaveType().getName();
-
-        LocalDateTime startDateTime = leaveRequest.getStartDate().atStartOfDay();
-        LocalDateTime endDateTime = leaveRequest.getEndDate().atTime(23, 59, 59);
-
-        CalendarEventDTO calendarEventDTO = CalendarEventDTO.builder()
-                .title(title)
-                .description(leaveRequest.getReason())
-                .startTime(startDateTime)
-                .endTime(endDateTime)
-                .eventType("LEAVE")
-                .referenceId(leaveRequest.getId())
-                .build();
 
-        // For now, passing null as departmentId (global/company-wide event)
-        UUID departmentId = null; // This creates a global event
+    private LeaveBalanceService.BalanceKey balanceKey(LeaveRequest leaveRequest) {
+        return new LeaveBalanceService.BalanceKey(
+                leaveRequest.getUser().getId(),
+                leaveRequest.getLeaveType().getId(),
+                leaveRequest.getStartDate().getYear());
+    }
 
-        calendarService.createCalendarEvent(calendarEventDTO, departmentId, leaveRequest.getUser().getId());
+    private LeaveDecisionResultDTO failedDecision(LeaveRequestUpdateDTO decision, String error) {
+        return LeaveDecisionResultDTO.builder()
+                .requestId(decision.getId())
+                .success(false)
+                .status(decision.getStatus())
+                .error(error)
+                .build();
     }
 
     @Transactional
@@ -420,55 +538,27 @@ public class LeaveService {
                 .build();
 
         LeaveType savedLeaveType = leaveTypeRepository.save(leaveType);
-        return convertToLeaveTypeDTO(savedLeaveType);
-    }
-
-    private void updateCalendarEvent(LeaveRequest leaveRequest) {
-        List<CalendarEvent> events = calendarService.getCalendarEventsByReferenceId(leaveRequest.getId());
+        referenceData.refreshAfterCommit();
 
-        if (!events.isEmpty()) {
-            CalendarEvent event = events.get(0);
-
-            // For now, passing null as departmentId (global/company-wide event)
-            UUID departmentId = null; // This creates a global event
-
-            // If request is rejected, delete the event
-            if ("REJECTED".equals(leaveRequest.getStatus().getName())) {
-                calendarService.deleteCalendarEvent(event.getId(), departmentId, leaveRequest.getUser().getId());
-                return;
-            }
-
-            // Otherwise update the event
-            String title = leaveRequest.getUser().getFullName() + " - " + leaveRequest.getLeaveType().getName();
-
-            CalendarEventDTO calendarEventDTO = CalendarEventDTO.builder()
-                    .id(event.getId())
-                    .title(title)
-                    .description(leaveRequest.getReason())
-                    .startTime(leaveRequest.getStartDate().atStartOfDay())
-                    .endTime(leaveRequest.getEndDate().atTime(23, 59, 59))
-                    .eventType("LEAVE")
-                    .referenceId(leaveRequest.getId())
-                    .outlookEventId(event.getOutlookEventId())
-                    .build();
-
-            calendarService.updateCalendarEvent(calendarEventDTO, departmentId, leaveRequest.getUser().getId());
-        }
+        return LeaveTypeDTO.builder()
+                .id(savedLeaveType.getId())
+                .name(savedLeaveType.getName())
+                .description(savedLeaveType.getDescription())
+                .accrualRate(savedLeaveType.getAccrualRate())
+                .requiresDoc(savedLeaveType.getRequiresDoc())
+                .maxDays(savedLeaveType.getMaxDays())
+                .isActive(savedLeaveType.getIsActive())
+                .build();
     }
 
     private LeaveRequestDTO convertToLeaveRequestDTO(LeaveRequest leaveRequest) {
         List<DocumentDTO> documentDTOs = leaveRequest.getDocuments() != null ?
                 leaveRequest.getDocuments().stream()
-                        .map(doc -> DocumentDTO.builder()
-                                .id(doc.getId())
-                                .filename(doc.getFilename())
-                                .fileUrl(doc.getFileUrl())
-                                .fileType(doc.getFileType())
-                                .build())
+                        .map(this::convertToDocumentDTO)
                         .collect(Collectors.toList()) :
                 List.of();
 
-        BigDecimal leaveDuration = calculateBusinessDays(leaveRequest.getStartDate(), leaveRequest.getEndDate());
+        BigDecimal leaveDuration = businessDayCalendar.leaveDuration(leaveRequest);
         User user = leaveRequest.getUser();
 
         return LeaveRequestDTO.builder()
@@ -476,11 +566,12 @@ public class LeaveService {
                 .userId(user.getId())
                 .userName(user.getFullName())  // Add user name
                 .email(user.getEmail())        // Add email
+                .departmentId(user.getDepartment() != null ? user.getDepartment().getId() : null)
                 .leaveTypeId(leaveRequest.getLeaveType().getId())
-                .leaveTypeName(leaveRequest.getLeaveType().getName())
+                .leaveTypeName(leaveTypeName(leaveRequest))
                 .startDate(leaveRequest.getStartDate())
                 .endDate(leaveRequest.getEndDate())
-                .status(leaveRequest.getStatus().getName())
+                .status(statusName(leaveRequest))
                 .reason(leaveRequest.getReason())
                 .fullDay(leaveRequest.getFullDay())
                 .comments(leaveRequest.getComments())
@@ -489,34 +580,33 @@ public class LeaveService {
                 .build();
     }
 
-    private LeaveBalanceDTO convertToLeaveBalanceDTO(LeaveBalance leaveBalance) {
-        BigDecimal availableDays = leaveBalance.getTotalDays()
-                .subtract(leaveBalance.getUsedDays())
-                .subtract(leaveBalance.getPendingDays());
-
-        return LeaveBalanceDTO.builder()
-                .id(leaveBalance.getId())
-                .userId(leaveBalance.getUser().getId())
-                .leaveTypeId(leaveBalance.getLeaveType().getId())
-                .leaveTypeName(leaveBalance.getLeaveType().getName())
-                .year(leaveBalance.getYear())
-                .totalDays(leaveBalance.getTotalDays())
-                .usedDays(leaveBalance.getUsedDays())
-                .pendingDays(leaveBalance.getPendingDays())
-                .adjustmentDays(leaveBalance.getAdjustmentDays())
-                .availableDays(availableDays)
+    private DocumentDTO convertToDocumentDTO(Document document) {
+        return DocumentDTO.builder()
+                .id(document.getId())
+                .filename(document.getFilename())
+                .fileUrl(document.getFileUrl())
+                .fileType(document.getFileType())
                 .build();
     }
 
-    private LeaveTypeDTO convertToLeaveTypeDTO(LeaveType leaveType) {
+    // Names are resolved by id from the registry; getId() on a lazy association does not load it
+    private String leaveTypeName(LeaveRequest leaveRequest) {
+        return referenceData.getLeaveType(leaveRequest.getLeaveType().getId()).name();
+    }
+
+    private String statusName(LeaveRequest leaveRequest) {
+        return referenceData.getStatus(leaveRequest.getStatus().getId()).name();
+    }
+
+    private LeaveTypeDTO convertToLeaveTypeDTO(ReferenceDataRegistry.LeaveTypeEntry leaveType) {
         return LeaveTypeDTO.builder()
-                .id(leaveType.getId())
-                .name(leaveType.getName())
-                .description(leaveType.getDescription())
-                .accrualRate(leaveType.getAccrualRate())
-                .requiresDoc(leaveType.getRequiresDoc())
-                .maxDays(leaveType.getMaxDays())
-                .isActive(leaveType.getIsActive())
+                .id(leaveType.id())
+                .name(leaveType.name())
+                .description(leaveType.description())
+                .accrualRate(leaveType.accrualRate())
+                .requiresDoc(leaveType.requiresDoc())
+                .maxDays(leaveType.maxDays())
+                .isActive(leaveType.isActive())
                 .build();
     }
 }
\ No newline at end of file
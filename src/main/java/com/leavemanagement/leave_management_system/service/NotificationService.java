@@ -1,12 +1,15 @@
 package com.leavemanagement.leave_management_system.service;
 
+import com.leavemanagement.leave_management_system.dto.LeaveReminderDTO;
 import com.leavemanagement.leave_management_system.dto.LeaveRequestDTO;
+import com.leavemanagement.leave_management_system.enums.ApprovalStepStatus;
 import com.leavemanagement.leave_management_system.enums.NotificationType;
+import com.leavemanagement.leave_management_system.model.LeaveApprovalStep;
 import com.leavemanagement.leave_management_system.model.Notification;
 import com.leavemanagement.leave_management_system.model.NotificationTemplate;
 import com.leavemanagement.leave_management_system.model.User;
+import com.leavemanagement.leave_management_system.repository.LeaveApprovalStepRepository;
 import com.leavemanagement.leave_management_system.repository.NotificationRepository;
-import com.leavemanagement.leave_management_system.repository.NotificationTemplateRepository;
 import com.leavemanagement.leave_management_system.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -17,7 +20,9 @@ import org.springframework.stereotype.Service;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -25,9 +30,10 @@ import java.util.UUID;
 public class NotificationService {
 
     private final NotificationRepository notificationRepository;
-    private final NotificationTemplateRepository notificationTemplateRepository; // Added
+    private final ReferenceDataRegistry referenceData;
     private final UserRepository userRepository;
     private final EmailService emailService;
+    private final LeaveApprovalStepRepository approvalStepRepository;
 
     @Value("${app.frontend.url}")
     private String frontendUrl;
@@ -38,9 +44,8 @@ public class NotificationService {
     public Notification createNotification(UUID userId, String title, String message, NotificationType type, UUID referenceId) {
         LocalDateTime now = LocalDateTime.now();
 
-        // Fetch the NotificationTemplate based on NotificationType
-        NotificationTemplate template = notificationTemplateRepository.findByEventType(type.name())
-                .orElseThrow(() -> new IllegalStateException("No template found for event type: " + type.name()));
+        // Resolve the NotificationTemplate for this NotificationType from the in-memory registry
+        NotificationTemplate template = referenceData.notificationTemplateReference(type.name());
 
         Notification notification = Notification.builder()
                 .userId(userId)
@@ -62,7 +67,7 @@ public class NotificationService {
     /**
      * Send a notification for a leave request that was submitted
      */
-    public void notifyLeaveRequestSubmitted(LeaveRequestDTO leaveRequest, List<User> managers) {
+    public void notifyLeaveRequestSubmitted(LeaveRequestDTO leaveRequest, List<User> approvers) {
         User employee = userRepository.findById(leaveRequest.getUserId())
                 .orElseThrow(() -> new RuntimeException("User not found"));
 
@@ -85,9 +90,15 @@ public class NotificationService {
         );
         emailService.sendHtmlMessage(employeeEmail, "Leave Request Submitted", employeeHtml);
 
-        // Notify all managers
-        for (User manager : managers) {
-            String managerMessage = employee.getFullName() + " has submitted a leave request that requires your approval.";
+        notifyApprovalRequested(leaveRequest, approvers);
+    }
+
+    /**
+     * Ask the approvers of a leave request's current approval step for their decision
+     */
+    public void notifyApprovalRequested(LeaveRequestDTO leaveRequest, List<User> approvers) {
+        for (User manager : approvers) {
+            String managerMessage = leaveRequest.getUserName() + " has submitted a leave request that requires your approval.";
             createNotification(
                     manager.getId(),
                     "New Leave Request Pending Approval",
@@ -188,18 +199,19 @@ public class NotificationService {
 
 
     /**
-     * Daily job to send reminders for upcoming leaves (one day before)
+     * Daily job to send reminders for upcoming leaves (one day before). Off unless
+     * {@code app.notifications.upcoming-leave-cron} is set, e.g. to "0 0 8 * * ?".
      */
-    @Scheduled(cron = "0 0 8 * * ?") // Run every day at 8:00 AM
+    @Scheduled(cron = "${app.notifications.upcoming-leave-cron:-}")
     public void sendUpcomingLeaveReminders() {
         log.info("Running scheduled job to send upcoming leave reminders");
 
         LocalDate tomorrow = LocalDate.now().plusDays(1);
 
         // Find all approved leave requests starting tomorrow
-        List<LeaveRequestDTO> upcomingLeaves = notificationRepository.findUpcomingLeaves(tomorrow);
+        List<LeaveReminderDTO> upcomingLeaves = notificationRepository.findUpcomingLeaves(tomorrow);
 
-        for (LeaveRequestDTO leave : upcomingLeaves) {
+        for (LeaveReminderDTO leave : upcomingLeaves) {
             User employee = userRepository.findById(leave.getUserId())
                     .orElseThrow(() -> new RuntimeException("User not found"));
 
@@ -225,20 +237,30 @@ public class NotificationService {
     }
 
     /**
-     * Daily job to send reminders for pending approvals (if pending for more than 2 days)
+     * Daily job to send reminders for pending approvals (if pending for more than 2 days). Off unless
+     * {@code app.notifications.pending-approval-cron} is set, e.g. to "0 0 9 * * ?".
      */
-    @Scheduled(cron = "0 0 9 * * ?") // Run every day at 9:00 AM
+    @Scheduled(cron = "${app.notifications.pending-approval-cron:-}")
     public void sendPendingApprovalReminders() {
         log.info("Running scheduled job to send pending approval reminders");
 
         LocalDateTime twoDaysAgo = LocalDateTime.now().minusDays(2);
 
         // Find all leave requests that have been pending for more than 2 days
-        List<LeaveRequestDTO> pendingRequests = notificationRepository.findPendingRequests(twoDaysAgo);
-
-        for (LeaveRequestDTO leave : pendingRequests) {
-            // Get all managers who need to approve
-            List<User> managers = userRepository.findManagersByDepartmentId(leave.getDepartmentId());
+        List<LeaveReminderDTO> pendingRequests = notificationRepository.findPendingRequests(twoDaysAgo);
+
+        // Current approvers of all of them in one query
+        Map<UUID, List<UUID>> approverIds = pendingRequests.isEmpty() ? Map.of() :
+                approvalStepRepository.findByLeaveRequestIdInAndStatus(
+                                pendingRequests.stream().map(LeaveReminderDTO::getId).toList(), ApprovalStepStatus.PENDING).stream()
+                        .collect(Collectors.groupingBy(LeaveApprovalStep::getLeaveRequestId,
+                                Collectors.mapping(LeaveApprovalStep::getApproverId, Collectors.toList())));
+
+        for (LeaveReminderDTO leave : pendingRequests) {
+            // Get the approvers of the current step, or all department managers for requests without an approval chain
+            List<User> managers = approverIds.containsKey(leave.getId())
+                    ? userRepository.findAllById(approverIds.get(leave.getId()))
+                    : userRepository.findManagersByDepartmentId(leave.getDepartmentId());
 
             User employee = userRepository.findById(leave.getUserId())
                     .orElseThrow(() -> new RuntimeException("User not found"));
@@ -0,0 +1,128 @@
+package com.leavemanagement.leave_management_system.service;
+
+import com.leavemanagement.leave_management_system.enums.UserRole;
+import com.leavemanagement.leave_management_system.util.LazySnapshot;
+import com.leavemanagement.leave_management_system.util.TransactionCallbacks;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Immutable in-memory snapshot of the org hierarchy (each user's manager, department and role, and each
+ * department's head), loaded with two queries and swapped copy-on-write after users or departments
+ * change. Approval routing resolves chains from here without querying the hierarchy.
+ * <p>
+ * Changes made through this instance are picked up after commit; the scheduled refresh picks up changes
+ * made elsewhere (other instances, sign-ups through Microsoft login).
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class OrgHierarchyCache {
+    private final JdbcTemplate jdbcTemplate;
+
+    private final LazySnapshot<Snapshot> snapshot = new LazySnapshot<>(previous -> load());
+
+    public record OrgNode(UUID userId, UUID managerId, UUID departmentId, UserRole role) {
+    }
+
+    private record Snapshot(Map<UUID, OrgNode> users, Map<UUID, UUID> departmentHeads, List<UUID> hrApproverIds) {
+    }
+
+    /**
+     * Reload the hierarchy. Runs once the application (including seeders) is ready.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${app.approval.org-refresh-interval-ms:300000}",
+            initialDelayString = "${app.approval.org-refresh-interval-ms:300000}")
+    public void refresh() {
+        snapshot.refresh();
+    }
+
+    /**
+     * Reload the hierarchy once the current transaction commits (or immediately outside a transaction)
+     */
+    public void refreshAfterCommit() {
+        TransactionCallbacks.afterCommit(this::refresh);
+    }
+
+    private Snapshot load() {
+        Map<UUID, OrgNode> users = new HashMap<>();
+        List<UUID> hrApproverIds = new ArrayList<>();
+        jdbcTemplate.query("SELECT id, manager_id, department_id, role FROM users", rs -> {
+            OrgNode node = new OrgNode(
+                    rs.getObject("id", UUID.class),
+                    rs.getObject("manager_id", UUID.class),
+                    rs.getObject("department_id", UUID.class),
+                    UserRole.valueOf(rs.getString("role")));
+            users.put(node.userId(), node);
+            // HR approvals are handled by admins
+            if (node.role() == UserRole.ADMIN) {
+                hrApproverIds.add(node.userId());
+            }
+        });
+
+        Map<UUID, UUID> departmentHeads = new HashMap<>();
+        jdbcTemplate.query("SELECT id, head_id FROM departments WHERE head_id IS NOT NULL", rs -> {
+            departmentHeads.put(rs.getObject("id", UUID.class), rs.getObject("head_id", UUID.class));
+        });
+
+        log.debug("Loaded org hierarchy: {} users, {} department heads", users.size(), departmentHeads.size());
+        return new Snapshot(Map.copyOf(users), Map.copyOf(departmentHeads), List.copyOf(hrApproverIds));
+    }
+
+    public UUID managerOf(UUID userId) {
+        OrgNode node = snapshot().users().get(userId);
+        return node != null ? node.managerId() : null;
+    }
+
+    public UUID departmentHeadOf(UUID userId) {
+        OrgNode node = snapshot().users().get(userId);
+        return node != null && node.departmentId() != null ? snapshot().departmentHeads().get(node.departmentId()) : null;
+    }
+
+    public UUID departmentOf(UUID userId) {
+        OrgNode node = snapshot().users().get(userId);
+        return node != null ? node.departmentId() : null;
+    }
+
+    public boolean contains(UUID userId) {
+        return snapshot().users().containsKey(userId);
+    }
+
+    public List<UUID> hrApprovers() {
+        return snapshot().hrApproverIds();
+    }
+
+    public boolean isAdmin(UUID userId) {
+        OrgNode node = snapshot().users().get(userId);
+        return node != null && node.role() == UserRole.ADMIN;
+    }
+
+    /**
+     * The user's managers from the direct manager upwards, stopping at a cycle or after maxDepth managers
+     */
+    public List<UUID> managerChain(UUID userId, int maxDepth) {
+        List<UUID> chain = new ArrayList<>();
+        UUID managerId = managerOf(userId);
+        while (managerId != null && chain.size() < maxDepth && !managerId.equals(userId) && !chain.contains(managerId)) {
+            chain.add(managerId);
+            managerId = managerOf(managerId);
+        }
+        return chain;
+    }
+
+    private Snapshot snapshot() {
+        return snapshot.get();
+    }
+}
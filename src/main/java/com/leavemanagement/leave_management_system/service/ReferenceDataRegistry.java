@@ -0,0 +1,176 @@
+package com.leavemanagement.leave_management_system.service;
+
+import com.leavemanagement.leave_management_system.exceptions.InvalidLeaveStatusException;
+import com.leavemanagement.leave_management_system.exceptions.ResourceNotFoundException;
+import com.leavemanagement.leave_management_system.model.LeaveRequestStatus;
+import com.leavemanagement.leave_management_system.model.LeaveType;
+import com.leavemanagement.leave_management_system.model.NotificationTemplate;
+import com.leavemanagement.leave_management_system.repository.LeaveRequestStatusRepository;
+import com.leavemanagement.leave_management_system.repository.LeaveTypeRepository;
+import com.leavemanagement.leave_management_system.repository.NotificationTemplateRepository;
+import com.leavemanagement.leave_management_system.util.LazySnapshot;
+import com.leavemanagement.leave_management_system.util.TransactionCallbacks;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Immutable in-memory snapshot of reference data (leave request statuses, leave types and
+ * notification templates), loaded once at startup and swapped copy-on-write when an admin changes it.
+ * Hot paths read names and settings from here and use JPA references for associations, so they issue
+ * no reference-data SQL.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ReferenceDataRegistry {
+    private final LeaveRequestStatusRepository leaveRequestStatusRepository;
+    private final LeaveTypeRepository leaveTypeRepository;
+    private final NotificationTemplateRepository notificationTemplateRepository;
+
+    private final LazySnapshot<Snapshot> snapshot = new LazySnapshot<>(previous -> load());
+
+    public record StatusEntry(UUID id, String name) {
+    }
+
+    public record LeaveTypeEntry(UUID id, String name, String description, BigDecimal accrualRate,
+                                 Boolean requiresDoc, Integer maxDays, Boolean isActive) {
+    }
+
+    public record TemplateEntry(UUID id, String eventType, String subject) {
+    }
+
+    private record Snapshot(Map<String, StatusEntry> statusesByName,
+                            Map<UUID, StatusEntry> statusesById,
+                            Map<UUID, LeaveTypeEntry> leaveTypesById,
+                            List<LeaveTypeEntry> activeLeaveTypes,
+                            Map<String, TemplateEntry> templatesByEventType) {
+    }
+
+    /**
+     * Reload all reference data. Runs once the application (including seeders) is ready.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void refresh() {
+        snapshot.refresh();
+    }
+
+    /**
+     * Reload reference data once the current transaction commits (or immediately outside a transaction)
+     */
+    public void refreshAfterCommit() {
+        TransactionCallbacks.afterCommit(this::refresh);
+    }
+
+    private Snapshot load() {
+        Map<String, StatusEntry> statusesByName = leaveRequestStatusRepository.findAll().stream()
+                .map(status -> new StatusEntry(status.getId(), status.getName()))
+                .collect(Collectors.toMap(StatusEntry::name, Function.identity(), (first, second) -> first));
+
+        List<LeaveTypeEntry> leaveTypes = leaveTypeRepository.findAll().stream()
+                .map(this::toLeaveTypeEntry)
+                .sorted(Comparator.comparing(LeaveTypeEntry::name))
+                .toList();
+
+        Map<String, TemplateEntry> templatesByEventType = notificationTemplateRepository.findAll().stream()
+                .map(this::toTemplateEntry)
+                .collect(Collectors.toMap(TemplateEntry::eventType, Function.identity(), (first, second) -> first));
+
+        Snapshot loaded = new Snapshot(
+                Map.copyOf(statusesByName),
+                statusesByName.values().stream().collect(Collectors.toUnmodifiableMap(StatusEntry::id, Function.identity())),
+                leaveTypes.stream().collect(Collectors.toUnmodifiableMap(LeaveTypeEntry::id, Function.identity())),
+                leaveTypes.stream().filter(type -> Boolean.TRUE.equals(type.isActive())).toList(),
+                Map.copyOf(templatesByEventType));
+
+        log.info("Loaded reference data: {} statuses, {} leave types, {} notification templates",
+                statusesByName.size(), leaveTypes.size(), templatesByEventType.size());
+        return loaded;
+    }
+
+    public StatusEntry getStatus(String name) {
+        StatusEntry status = name != null ? snapshot().statusesByName().get(name) : null;
+        if (status == null) {
+            throw new InvalidLeaveStatusException("Unknown leave request status: " + name);
+        }
+        return status;
+    }
+
+    public StatusEntry getStatus(UUID id) {
+        StatusEntry status = snapshot().statusesById().get(id);
+        if (status == null) {
+            throw new ResourceNotFoundException("Leave request status not found");
+        }
+        return status;
+    }
+
+    public LeaveTypeEntry getLeaveType(UUID id) {
+        LeaveTypeEntry leaveType = snapshot().leaveTypesById().get(id);
+        if (leaveType == null) {
+            throw new ResourceNotFoundException("LeaveType not found");
+        }
+        return leaveType;
+    }
+
+    public List<LeaveTypeEntry> getActiveLeaveTypes() {
+        return snapshot().activeLeaveTypes();
+    }
+
+    public TemplateEntry getNotificationTemplate(String eventType) {
+        TemplateEntry template = snapshot().templatesByEventType().get(eventType);
+        if (template == null) {
+            throw new IllegalStateException("No template found for event type: " + eventType);
+        }
+        return template;
+    }
+
+    /**
+     * JPA reference to a status, usable as an association without loading the row
+     */
+    public LeaveRequestStatus statusReference(String name) {
+        return leaveRequestStatusRepository.getReferenceById(getStatus(name).id());
+    }
+
+    /**
+     * JPA reference to a leave type, usable as an association without loading the row
+     */
+    public LeaveType leaveTypeReference(UUID id) {
+        return leaveTypeRepository.getReferenceById(getLeaveType(id).id());
+    }
+
+    /**
+     * JPA reference to a notification template, usable as an association without loading the row
+     */
+    public NotificationTemplate notificationTemplateReference(String eventType) {
+        return notificationTemplateRepository.getReferenceById(getNotificationTemplate(eventType).id());
+    }
+
+    private Snapshot snapshot() {
+        return snapshot.get();
+    }
+
+    private LeaveTypeEntry toLeaveTypeEntry(LeaveType leaveType) {
+        return new LeaveTypeEntry(
+                leaveType.getId(),
+                leaveType.getName(),
+                leaveType.getDescription(),
+                leaveType.getAccrualRate(),
+                leaveType.getRequiresDoc(),
+                leaveType.getMaxDays(),
+                leaveType.getIsActive());
+    }
+
+    private TemplateEntry toTemplateEntry(NotificationTemplate template) {
+        return new TemplateEntry(template.getId(), template.getEventType(), template.getSubject());
+    }
+}
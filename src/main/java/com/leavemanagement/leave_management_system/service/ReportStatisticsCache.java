@@ -0,0 +1,120 @@
+package com.leavemanagement.leave_management_system.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.leavemanagement.leave_management_system.dto.CacheStatsDTO;
+import com.leavemanagement.leave_management_system.dto.LeaveStatisticsDTO;
+import com.leavemanagement.leave_management_system.util.BoundedCache;
+import com.leavemanagement.leave_management_system.util.TransactionCallbacks;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+/**
+ * Bounded in-memory cache of computed leave statistics, keyed by report type, entity and date range,
+ * so dashboards polling the same report issue no SQL. Entries are evicted least recently used beyond
+ * {@code app.report-cache.max-entries} and expire after {@code app.report-cache.ttl-seconds}, which also
+ * bounds staleness from changes made by other instances or to names.
+ * <p>
+ * A leave request changing on this instance evicts, once committed, only the entries it can affect: the
+ * company, its user, department and leave type, for ranges overlapping the leave. Each result carries a
+ * weak ETag that is a digest of its key and content, so an unchanged recomputation (on any instance)
+ * keeps its ETag and different results never share one.
+ */
+@Service
+public class ReportStatisticsCache {
+    private final BoundedCache<Key, Result> cache;
+    private final ObjectWriter etagWriter;
+
+    /**
+     * @param type DEPARTMENT, EMPLOYEE, LEAVE_TYPE or COMPANY
+     * @param entityId The department, user or leave type; null for the company
+     */
+    public record Key(String type, UUID entityId, LocalDate startDate, LocalDate endDate) {
+    }
+
+    public record Result(LeaveStatisticsDTO statistics, String etag) {
+    }
+
+    /**
+     * Leave days that changed: a request created, or moved to another status
+     */
+    public record LeaveChange(UUID userId, UUID departmentId, UUID leaveTypeId, LocalDate startDate, LocalDate endDate) {
+        private boolean affects(Key key) {
+            if (key.startDate().isAfter(endDate) || key.endDate().isBefore(startDate)) {
+                return false;
+            }
+            return switch (key.type()) {
+                case "COMPANY" -> true;
+                case "DEPARTMENT" -> key.entityId().equals(departmentId);
+                case "EMPLOYEE" -> key.entityId().equals(userId);
+                case "LEAVE_TYPE" -> key.entityId().equals(leaveTypeId);
+                default -> true;
+            };
+        }
+    }
+
+    public ReportStatisticsCache(ObjectMapper objectMapper,
+                                 @Value("${app.report-cache.max-entries:1000}") int maxEntries,
+                                 @Value("${app.report-cache.ttl-seconds:600}") long ttlSeconds) {
+        this.cache = new BoundedCache<>("report-statistics", maxEntries, Duration.ofSeconds(ttlSeconds));
+        // Sorted map keys, so equal statistics always serialize, and hash, the same way
+        this.etagWriter = objectMapper.writer().with(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS);
+    }
+
+    /**
+     * The statistics for the key, computed and cached on a miss
+     */
+    public Result get(Key key, Supplier<LeaveStatisticsDTO> loader) {
+        return cache.get(key, () -> {
+            LeaveStatisticsDTO statistics = loader.get();
+            return new Result(statistics, etag(key, statistics));
+        });
+    }
+
+    /**
+     * Drop the entries the changes affect once the current transaction commits
+     */
+    public void evictAfterCommit(Collection<LeaveChange> changes) {
+        if (changes.isEmpty()) {
+            return;
+        }
+        List<LeaveChange> changed = List.copyOf(changes);
+        TransactionCallbacks.afterCommit(() ->
+                cache.invalidateIf(key -> changed.stream().anyMatch(change -> change.affects(key))));
+    }
+
+    /**
+     * Drop every entry once the current transaction commits, e.g. after the leave day facts were rebuilt
+     */
+    public void evictAllAfterCommit() {
+        TransactionCallbacks.afterCommit(cache::invalidateAll);
+    }
+
+    public CacheStatsDTO stats() {
+        return cache.stats();
+    }
+
+    private String etag(Key key, LeaveStatisticsDTO statistics) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(etagWriter.writeValueAsBytes(key));
+            digest.update(etagWriter.writeValueAsBytes(statistics));
+            // Weak: equal content, not byte-identical serialization; 128 bits of the digest
+            return "W/\"" + HexFormat.of().formatHex(digest.digest(), 0, 16) + "\"";
+        } catch (NoSuchAlgorithmException | JsonProcessingException e) {
+            throw new IllegalStateException("Could not compute report statistics ETag", e);
+        }
+    }
+}
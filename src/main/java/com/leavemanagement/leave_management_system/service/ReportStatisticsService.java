@@ -1,8 +1,12 @@
 package com.leavemanagement.leave_management_system.service;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.leavemanagement.leave_management_system.dto.LeaveReportDTO;
+import com.leavemanagement.leave_management_system.dto.LeaveReportRowDTO;
 import com.leavemanagement.leave_management_system.dto.LeaveStatisticsDTO;
 import com.leavemanagement.leave_management_system.dto.LeaveTypeSummaryDTO;
+import com.leavemanagement.leave_management_system.exceptions.InvalidReportRequestException;
 import com.leavemanagement.leave_management_system.exceptions.ResourceNotFoundException;
 import com.leavemanagement.leave_management_system.model.Department;
 import com.leavemanagement.leave_management_system.model.LeaveRequest;
@@ -12,84 +16,257 @@ import com.leavemanagement.leave_management_system.repository.DepartmentReposito
 import com.leavemanagement.leave_management_system.repository.LeaveRequestRepository;
 import com.leavemanagement.leave_management_system.repository.LeaveTypeRepository;
 import com.leavemanagement.leave_management_system.repository.UserRepository;
+import com.leavemanagement.leave_management_system.util.LeaveUnits;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.math.BigDecimal;
-import java.time.DayOfWeek;
 import java.time.LocalDate;
 import java.time.Month;
-import java.time.Year;
-import java.time.temporal.ChronoUnit;
 import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
 import java.util.stream.Collectors;
-
+import java.util.stream.Stream;
+
+/**
+ * Leave statistics and report rows. Statistics are range sums over leave_day_facts, one row per business
+ * day of each leave request: one query groups request counts and days by leave type, another groups the
+ * approved days by month. Their cost depends on the days inside the range, not on how long the leave is,
+ * and only a few rows come back. Leave straddling either end of the range counts its days inside it.
+ */
 @Service
 @RequiredArgsConstructor
 public class ReportStatisticsService {
+    private static final String LEAVE_TYPE_SQL = """
+            SELECT f.leave_type_id,
+                   COUNT(DISTINCT f.leave_request_id) AS requests,
+                   COUNT(DISTINCT f.leave_request_id) FILTER (WHERE f.status_id = :approvedStatusId) AS approved,
+                   COALESCE(SUM(f.day_fraction) FILTER (WHERE f.status_id = :approvedStatusId), 0) AS days
+            FROM leave_day_facts f
+            WHERE f.leave_date BETWEEN :startDate AND :endDate AND %s
+            GROUP BY f.leave_type_id
+            """;
+    private static final String MONTHLY_SQL = """
+            SELECT CAST(EXTRACT(MONTH FROM f.leave_date) AS int) AS month, SUM(f.day_fraction) AS days
+            FROM leave_day_facts f
+            WHERE f.status_id = :approvedStatusId AND f.leave_date BETWEEN :startDate AND :endDate AND %s
+            GROUP BY 1
+            """;
+    // Report types served by the report data endpoints
+    private static final Set<String> REPORT_TYPES = Set.of("EMPLOYEE", "DEPARTMENT", "LEAVE_TYPE", "COMPANY");
+    // Rows written to a report stream between flushes
+    private static final int STREAM_FLUSH_ROWS = 500;
+
     private final LeaveRequestRepository leaveRequestRepository;
     private final UserRepository userRepository;
     private final DepartmentRepository departmentRepository;
     private final LeaveTypeRepository leaveTypeRepository;
+    private final BusinessDayCalendar businessDayCalendar;
+    private final ReferenceDataRegistry referenceData;
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+    private final ReportStatisticsCache reportStatisticsCache;
+    private final ObjectMapper objectMapper;
+
+    @Value("${app.reports.company-partitions:4}")
+    private int companyPartitions;
+    @Value("${app.reports.max-parallel-queries:2}")
+    private int maxParallelQueries;
+    @Value("${spring.datasource.hikari.maximum-pool-size:10}")
+    private int connectionPoolSize;
+    // Shared by all company statistics requests, so together they never take more than half the pool
+    private Semaphore partitionPermits;
+
+    @PostConstruct
+    public void initializePartitionPermits() {
+        partitionPermits = new Semaphore(Math.max(0, Math.min(maxParallelQueries, connectionPoolSize / 2)));
+    }
+
+    /**
+     * Which leave days a statistic covers, as an SQL condition on {@code f} with an optional
+     * {@code :entityId} parameter (a collection for IN lists)
+     */
+    private record Scope(String condition, Object entityId) {
+    }
+
+    /**
+     * Aggregates of one scope: {requests, approved requests, approved units} per leave type id, and approved
+     * units per month. Merging is associative and commutative, so partitions can be combined in any order.
+     */
+    private record Partial(Map<UUID, long[]> leaveTypes, long[] monthlyUnits) {
+        private static final Partial EMPTY = new Partial(Map.of(), new long[12]);
+
+        private Partial merge(Partial other) {
+            Map<UUID, long[]> merged = new HashMap<>(leaveTypes);
+            other.leaveTypes().forEach((leaveTypeId, counts) -> merged.merge(leaveTypeId, counts, (first, second) ->
+                    new long[]{first[0] + second[0], first[1] + second[1], first[2] + second[2]}));
+            long[] monthly = new long[12];
+            for (int month = 0; month < 12; month++) {
+                monthly[month] = monthlyUnits[month] + other.monthlyUnits()[month];
+            }
+            return new Partial(merged, monthly);
+        }
+    }
+
+    /**
+     * Leave statistics for a report key, served from the {@link ReportStatisticsCache} when possible.
+     * A cache hit issues no query, so no transaction is opened here.
+     */
+    public ReportStatisticsCache.Result getStatistics(ReportStatisticsCache.Key key) {
+        return reportStatisticsCache.get(key, () -> switch (key.type()) {
+            case "DEPARTMENT" -> computeDepartmentLeaveStatistics(key.entityId(), key.startDate(), key.endDate());
+            case "EMPLOYEE" -> computeEmployeeLeaveStatistics(key.entityId(), key.startDate(), key.endDate());
+            case "LEAVE_TYPE" -> computeLeaveTypeStatistics(key.entityId(), key.startDate(), key.endDate());
+            case "COMPANY" -> computeCompanyLeaveStatistics(key.startDate(), key.endDate());
+            default -> throw new IllegalArgumentException("Invalid report type: " + key.type());
+        });
+    }
 
     /**
      * Generate leave statistics for a specific department
      */
-    @Transactional(readOnly = true)
     public LeaveStatisticsDTO getDepartmentLeaveStatistics(UUID departmentId, LocalDate startDate, LocalDate endDate) {
+        return getStatistics(new ReportStatisticsCache.Key("DEPARTMENT", departmentId, startDate, endDate)).statistics();
+    }
+
+    /**
+     * Generate leave statistics for a specific employee
+     */
+    public LeaveStatisticsDTO getEmployeeLeaveStatistics(UUID userId, LocalDate startDate, LocalDate endDate) {
+        return getStatistics(new ReportStatisticsCache.Key("EMPLOYEE", userId, startDate, endDate)).statistics();
+    }
+
+    /**
+     * Generate leave statistics for a specific leave type
+     */
+    public LeaveStatisticsDTO getLeaveTypeStatistics(UUID leaveTypeId, LocalDate startDate, LocalDate endDate) {
+        return getStatistics(new ReportStatisticsCache.Key("LEAVE_TYPE", leaveTypeId, startDate, endDate)).statistics();
+    }
+
+    /**
+     * Generate company-wide leave statistics
+     */
+    public LeaveStatisticsDTO getCompanyLeaveStatistics(LocalDate startDate, LocalDate endDate) {
+        return getStatistics(new ReportStatisticsCache.Key("COMPANY", null, startDate, endDate)).statistics();
+    }
+
+    /**
+     * Generate leave statistics for a specific department
+     */
+    private LeaveStatisticsDTO computeDepartmentLeaveStatistics(UUID departmentId, LocalDate startDate, LocalDate endDate) {
         Department department = departmentRepository.findById(departmentId)
                 .orElseThrow(() -> new ResourceNotFoundException("Department not found"));
 
-        List<LeaveRequest> leaveRequests = leaveRequestRepository.findByDepartmentAndDateRange(
-                departmentId, startDate, endDate);
-
-        return generateLeaveStatistics(leaveRequests, department.getName(), "DEPARTMENT", startDate, endDate);
+        // All requests count towards the totals here, not just approved ones
+        Scope scope = new Scope("f.department_id = :entityId", departmentId);
+        return generateLeaveStatistics(scope, department.getName(), "DEPARTMENT", startDate, endDate);
     }
 
     /**
      * Generate leave statistics for a specific employee
      */
-    @Transactional(readOnly = true)
-    public LeaveStatisticsDTO getEmployeeLeaveStatistics(UUID userId, LocalDate startDate, LocalDate endDate) {
+    private LeaveStatisticsDTO computeEmployeeLeaveStatistics(UUID userId, LocalDate startDate, LocalDate endDate) {
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new ResourceNotFoundException("User not found"));
 
-        List<LeaveRequest> leaveRequests = leaveRequestRepository.findByUserId(userId).stream()
-                .filter(lr -> isWithinDateRange(lr, startDate, endDate) && "APPROVED".equals(lr.getStatus().getName()))
-                .collect(Collectors.toList());
-
-        return generateLeaveStatistics(leaveRequests, user.getFullName(), "EMPLOYEE", startDate, endDate);
+        Scope scope = new Scope("f.user_id = :entityId AND f.status_id = :approvedStatusId", userId);
+        return generateLeaveStatistics(scope, user.getFullName(), "EMPLOYEE", startDate, endDate);
     }
 
     /**
      * Generate leave statistics for a specific leave type
      */
-    @Transactional(readOnly = true)
-    public LeaveStatisticsDTO getLeaveTypeStatistics(UUID leaveTypeId, LocalDate startDate, LocalDate endDate) {
+    private LeaveStatisticsDTO computeLeaveTypeStatistics(UUID leaveTypeId, LocalDate startDate, LocalDate endDate) {
         LeaveType leaveType = leaveTypeRepository.findById(leaveTypeId)
                 .orElseThrow(() -> new ResourceNotFoundException("Leave type not found"));
 
-        // We need to query all leave requests and filter by leave type since there's no direct repository method
-        List<LeaveRequest> allLeaveRequests = leaveRequestRepository.findAll().stream()
-                .filter(lr -> lr.getLeaveType().getId().equals(leaveTypeId) &&
-                        isWithinDateRange(lr, startDate, endDate) &&
-                        "APPROVED".equals(lr.getStatus().getName()))
-                .collect(Collectors.toList());
-
-        return generateLeaveStatistics(allLeaveRequests, leaveType.getName(), "LEAVE_TYPE", startDate, endDate);
+        Scope scope = new Scope("f.leave_type_id = :entityId AND f.status_id = :approvedStatusId", leaveTypeId);
+        return generateLeaveStatistics(scope, leaveType.getName(), "LEAVE_TYPE", startDate, endDate);
     }
 
     /**
-     * Generate company-wide leave statistics
+     * Generate company-wide leave statistics. Departments are split into {@code app.reports.company-partitions}
+     * groups plus the leave without a department, and the partials of the partitions are merged. A partition
+     * runs on its own virtual thread (and pooled connection) only while one of the shared
+     * {@code app.reports.max-parallel-queries} permits is free; otherwise it runs on the request thread. Each
+     * request holds at most one connection of its own, however many ask for company statistics at once.
      */
-    @Transactional(readOnly = true)
-    public LeaveStatisticsDTO getCompanyLeaveStatistics(LocalDate startDate, LocalDate endDate) {
-        List<LeaveRequest> leaveRequests = leaveRequestRepository.findAll().stream()
-                .filter(lr -> isWithinDateRange(lr, startDate, endDate) && "APPROVED".equals(lr.getStatus().getName()))
-                .collect(Collectors.toList());
+    private LeaveStatisticsDTO computeCompanyLeaveStatistics(LocalDate startDate, LocalDate endDate) {
+        List<UUID> departmentIds = namedParameterJdbcTemplate.getJdbcTemplate()
+                .queryForList("SELECT id FROM departments ORDER BY id", UUID.class);
+        int groups = Math.min(companyPartitions, departmentIds.size());
+        if (groups <= 1) {
+            Scope scope = new Scope("f.status_id = :approvedStatusId", null);
+            return toStatistics(aggregate(scope, startDate, endDate), "Company", "COMPANY", startDate, endDate);
+        }
+
+        // Facts of deleted departments are detached, so these partitions cover every fact exactly once
+        List<Scope> partitions = new ArrayList<>(groups + 1);
+        for (int group = 0; group < groups; group++) {
+            List<UUID> groupIds = new ArrayList<>();
+            for (int i = group; i < departmentIds.size(); i += groups) {
+                groupIds.add(departmentIds.get(i));
+            }
+            partitions.add(new Scope("f.department_id IN (:entityId) AND f.status_id = :approvedStatusId", groupIds));
+        }
+        partitions.add(new Scope("f.department_id IS NULL AND f.status_id = :approvedStatusId", null));
+
+        Partial total = Partial.EMPTY;
+        List<Future<Partial>> partials = new ArrayList<>(partitions.size());
+        // Closing the executor waits for every partition to finish
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (Scope partition : partitions) {
+                if (partitionPermits.tryAcquire()) {
+                    partials.add(executor.submit(() -> {
+                        try {
+                            return aggregate(partition, startDate, endDate);
+                        } finally {
+                            partitionPermits.release();
+                        }
+                    }));
+                } else {
+                    total = total.merge(aggregate(partition, startDate, endDate));
+                }
+            }
+        }
 
-        return generateLeaveStatistics(leaveRequests, "Company", "COMPANY", startDate, endDate);
+        for (Future<Partial> partial : partials) {
+            try {
+                total = total.merge(partial.get());
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof RuntimeException runtimeException) {
+                    throw runtimeException;
+                }
+                throw new IllegalStateException("Failed to compute company leave statistics", e.getCause());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while computing company leave statistics", e);
+            }
+        }
+        return toStatistics(total, "Company", "COMPANY", startDate, endDate);
+    }
+
+    /**
+     * Check a report data request. A streamed report is written after its 200 has been sent, so this has to run
+     * before the response starts for a bad request to get a 400.
+     */
+    public void validateReportRequest(String reportType, LocalDate startDate, LocalDate endDate) {
+        if (reportType == null || !REPORT_TYPES.contains(reportType.toUpperCase())) {
+            throw new InvalidReportRequestException("Invalid report type: " + reportType);
+        }
+        if (endDate.isBefore(startDate)) {
+            throw new InvalidReportRequestException("End date is before start date");
+        }
     }
 
     /**
@@ -97,27 +274,21 @@ public class ReportStatisticsService {
      */
     @Transactional(readOnly = true)
     public List<LeaveReportDTO> getLeaveReportData(String reportType, UUID entityId, LocalDate startDate, LocalDate endDate) {
+        validateReportRequest(reportType, startDate, endDate);
         List<LeaveRequest> leaveRequests;
 
         switch (reportType.toUpperCase()) {
             case "EMPLOYEE":
-                leaveRequests = leaveRequestRepository.findByUserId(entityId).stream()
-                        .filter(lr -> isWithinDateRange(lr, startDate, endDate))
-                        .collect(Collectors.toList());
+                leaveRequests = leaveRequestRepository.findForReportByUser(entityId, startDate, endDate);
                 break;
             case "DEPARTMENT":
-                leaveRequests = leaveRequestRepository.findByDepartmentAndDateRange(entityId, startDate, endDate);
+                leaveRequests = leaveRequestRepository.findForReportByDepartment(entityId, startDate, endDate);
                 break;
             case "LEAVE_TYPE":
-                leaveRequests = leaveRequestRepository.findAll().stream()
-                        .filter(lr -> lr.getLeaveType().getId().equals(entityId) &&
-                                isWithinDateRange(lr, startDate, endDate))
-                        .collect(Collectors.toList());
+                leaveRequests = leaveRequestRepository.findForReportByLeaveType(entityId, startDate, endDate);
                 break;
             case "COMPANY":
-                leaveRequests = leaveRequestRepository.findAll().stream()
-                        .filter(lr -> isWithinDateRange(lr, startDate, endDate))
-                        .collect(Collectors.toList());
+                leaveRequests = leaveRequestRepository.findForReportByDateRange(startDate, endDate);
                 break;
             default:
                 throw new IllegalArgumentException("Invalid report type: " + reportType);
@@ -134,7 +305,7 @@ public class ReportStatisticsService {
                         .startDate(lr.getStartDate())
                         .endDate(lr.getEndDate())
                         .status(lr.getStatus().getName())
-                        .duration(calculateBusinessDays(lr.getStartDate(), lr.getEndDate()))
+                        .duration(businessDayCalendar.leaveDuration(lr))
                         .reason(lr.getReason())
                         .comments(lr.getComments())
                         .build())
@@ -142,79 +313,123 @@ public class ReportStatisticsService {
     }
 
     /**
-     * Helper method to check if a leave request falls within the given date range
+     * Write the report data as NDJSON, one LeaveReportDTO per line, while it is read. Rows are projections read
+     * through a database cursor and are never collected, so memory use does not grow with the report size.
+     * Leaves the output open. Callers validate the request with {@link #validateReportRequest} first.
      */
-    private boolean isWithinDateRange(LeaveRequest leaveRequest, LocalDate startDate, LocalDate endDate) {
-        return (leaveRequest.getStartDate().isEqual(startDate) || leaveRequest.getStartDate().isAfter(startDate)) &&
-                (leaveRequest.getEndDate().isEqual(endDate) || leaveRequest.getEndDate().isBefore(endDate)) ||
-                (leaveRequest.getStartDate().isBefore(startDate) && leaveRequest.getEndDate().isAfter(endDate));
+    @Transactional(readOnly = true)
+    public void streamLeaveReportData(String reportType, UUID entityId, LocalDate startDate, LocalDate endDate,
+                                      OutputStream out) throws IOException {
+        Stream<LeaveReportRowDTO> rows = switch (reportType.toUpperCase()) {
+            case "EMPLOYEE" -> leaveRequestRepository.streamReportRowsByUser(entityId, startDate, endDate);
+            case "DEPARTMENT" -> leaveRequestRepository.streamReportRowsByDepartment(entityId, startDate, endDate);
+            case "LEAVE_TYPE" -> leaveRequestRepository.streamReportRowsByLeaveType(entityId, startDate, endDate);
+            case "COMPANY" -> leaveRequestRepository.streamReportRowsByDateRange(startDate, endDate);
+            default -> throw new IllegalArgumentException("Invalid report type: " + reportType);
+        };
+
+        try (rows; JsonGenerator generator = objectMapper.createGenerator(out)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            int written = 0;
+            for (Iterator<LeaveReportRowDTO> it = rows.iterator(); it.hasNext(); ) {
+                generator.writeObject(toLeaveReport(it.next()));
+                generator.writeRaw('\n');
+                if (++written % STREAM_FLUSH_ROWS == 0) {
+                    generator.flush();
+                }
+            }
+            generator.flush();
+        }
+    }
+
+    private LeaveReportDTO toLeaveReport(LeaveReportRowDTO row) {
+        long units = row.getLeaveDuration() != null
+                ? LeaveUnits.fromDays(row.getLeaveDuration())
+                : businessDayCalendar.leaveUnits(row.getStartDate(), row.getEndDate(), row.getFullDay());
+        return LeaveReportDTO.builder()
+                .id(row.getId())
+                .employeeName(row.getEmployeeName())
+                .employeeEmail(row.getEmployeeEmail())
+                .departmentName(row.getDepartmentName() != null ? row.getDepartmentName() : "N/A")
+                .leaveTypeName(row.getLeaveTypeName())
+                .startDate(row.getStartDate())
+                .endDate(row.getEndDate())
+                .status(row.getStatus())
+                .duration(LeaveUnits.toDays(units))
+                .reason(row.getReason())
+                .comments(row.getComments())
+                .build();
     }
 
     /**
-     * Generate comprehensive leave statistics based on leave requests
+     * Generate comprehensive leave statistics for the leave requests in scope with business days in the range
      */
-    private LeaveStatisticsDTO generateLeaveStatistics(List<LeaveRequest> leaveRequests, String name, String type,
+    private LeaveStatisticsDTO generateLeaveStatistics(Scope scope, String name, String type,
                                                        LocalDate startDate, LocalDate endDate) {
-        // Count total requests and approved requests
-        long totalRequests = leaveRequests.size();
-        long approvedRequests = leaveRequests.stream()
-                .filter(lr -> "APPROVED".equals(lr.getStatus().getName()))
-                .count();
-
-        // Only consider approved requests for the rest of the statistics
-        List<LeaveRequest> approvedLeaves = leaveRequests.stream()
-                .filter(lr -> "APPROVED".equals(lr.getStatus().getName()))
-                .collect(Collectors.toList());
+        return toStatistics(aggregate(scope, startDate, endDate), name, type, startDate, endDate);
+    }
 
-        // Calculate total leave days
-        BigDecimal totalLeaveDays = approvedLeaves.stream()
-                .map(lr -> calculateBusinessDays(lr.getStartDate(), lr.getEndDate()))
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+    /**
+     * Run the leave type and monthly aggregations of one scope
+     */
+    private Partial aggregate(Scope scope, LocalDate startDate, LocalDate endDate) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("startDate", startDate)
+                .addValue("endDate", endDate)
+                .addValue("approvedStatusId", referenceData.getStatus("APPROVED").id())
+                .addValue("entityId", scope.entityId());
+
+        // Count requests and sum approved leave per leave type
+        Map<UUID, long[]> leaveTypes = new HashMap<>();
+        namedParameterJdbcTemplate.query(LEAVE_TYPE_SQL.formatted(scope.condition()), params, rs -> {
+            leaveTypes.put(rs.getObject("leave_type_id", UUID.class), new long[]{
+                    rs.getLong("requests"), rs.getLong("approved"), LeaveUnits.fromDays(rs.getBigDecimal("days"))});
+        });
 
-        // Calculate average leave duration
-        BigDecimal avgLeaveDuration = approvedLeaves.isEmpty() ? BigDecimal.ZERO :
-                totalLeaveDays.divide(new BigDecimal(approvedLeaves.size()), 2, BigDecimal.ROUND_HALF_UP);
-
-        // Group by leave type
-        Map<String, BigDecimal> leaveTypeBreakdown = new HashMap<>();
-        for (LeaveRequest lr : approvedLeaves) {
-            String leaveTypeName = lr.getLeaveType().getName();
-            BigDecimal duration = calculateBusinessDays(lr.getStartDate(), lr.getEndDate());
-
-            leaveTypeBreakdown.put(
-                    leaveTypeName,
-                    leaveTypeBreakdown.getOrDefault(leaveTypeName, BigDecimal.ZERO).add(duration)
-            );
+        // Monthly distribution of the approved leave days inside the range
+        long[] monthlyUnits = new long[12];
+        namedParameterJdbcTemplate.query(MONTHLY_SQL.formatted(scope.condition()), params, rs -> {
+            monthlyUnits[rs.getInt("month") - 1] += LeaveUnits.fromDays(rs.getBigDecimal("days"));
+        });
+        return new Partial(leaveTypes, monthlyUnits);
+    }
+
+    private LeaveStatisticsDTO toStatistics(Partial partial, String name, String type,
+                                            LocalDate startDate, LocalDate endDate) {
+        long totalRequests = 0;
+        long approvedRequests = 0;
+        long totalLeaveUnits = 0;
+        // Sorted by name, so equal statistics serialize (and hash) the same
+        Map<String, Long> leaveTypeUnits = new TreeMap<>();
+        for (Map.Entry<UUID, long[]> leaveType : partial.leaveTypes().entrySet()) {
+            long[] counts = leaveType.getValue();
+            totalRequests += counts[0];
+            approvedRequests += counts[1];
+            totalLeaveUnits += counts[2];
+            if (counts[1] > 0) {
+                leaveTypeUnits.merge(referenceData.getLeaveType(leaveType.getKey()).name(), counts[2], Long::sum);
+            }
         }
+        long[] monthlyUnits = partial.monthlyUnits();
+
+        BigDecimal totalLeaveDays = LeaveUnits.toDays(totalLeaveUnits);
+
+        // Calculate average leave duration
+        BigDecimal avgLeaveDuration = approvedRequests == 0 ? BigDecimal.ZERO :
+                totalLeaveDays.divide(new BigDecimal(approvedRequests), 2, BigDecimal.ROUND_HALF_UP);
 
         // Convert to LeaveTypeSummaryDTO list
-        List<LeaveTypeSummaryDTO> leaveTypeSummaries = leaveTypeBreakdown.entrySet().stream()
+        long totalUnits = totalLeaveUnits;
+        List<LeaveTypeSummaryDTO> leaveTypeSummaries = leaveTypeUnits.entrySet().stream()
                 .map(entry -> LeaveTypeSummaryDTO.builder()
                         .leaveTypeName(entry.getKey())
-                        .totalDays(entry.getValue())
-                        .percentage(totalLeaveDays.compareTo(BigDecimal.ZERO) > 0 ?
-                                entry.getValue().multiply(new BigDecimal("100")).divide(totalLeaveDays, 2, BigDecimal.ROUND_HALF_UP) :
+                        .totalDays(LeaveUnits.toDays(entry.getValue()))
+                        .percentage(totalUnits > 0 ?
+                                BigDecimal.valueOf(entry.getValue() * 100).divide(BigDecimal.valueOf(totalUnits), 2, BigDecimal.ROUND_HALF_UP) :
                                 BigDecimal.ZERO)
                         .build())
                 .collect(Collectors.toList());
 
-        // Calculate monthly distribution
-        Map<Month, BigDecimal> monthlyDistribution = new HashMap<>();
-        for (LeaveRequest lr : approvedLeaves) {
-            // For each day in the leave period, count it in the appropriate month
-            LocalDate currentDate = lr.getStartDate();
-            while (!currentDate.isAfter(lr.getEndDate())) {
-                if (isBusinessDay(currentDate)) {
-                    Month month = currentDate.getMonth();
-                    monthlyDistribution.put(
-                            month,
-                            monthlyDistribution.getOrDefault(month, BigDecimal.ZERO).add(BigDecimal.ONE)
-                    );
-                }
-                currentDate = currentDate.plusDays(1);
-            }
-        }
-
         // Create the final statistics DTO
         return LeaveStatisticsDTO.builder()
                 .name(name)
@@ -226,44 +441,19 @@ public class ReportStatisticsService {
                 .totalLeaveDays(totalLeaveDays)
                 .averageLeaveDuration(avgLeaveDuration)
                 .leaveTypeBreakdown(leaveTypeSummaries)
-                .monthlyDistribution(convertMonthlyDistributionToMap(monthlyDistribution))
+                .monthlyDistribution(convertMonthlyDistributionToMap(monthlyUnits))
                 .build();
     }
 
     /**
-     * Helper method to calculate business days between two dates (excluding weekends)
-     */
-    private BigDecimal calculateBusinessDays(LocalDate startDate, LocalDate endDate) {
-        BigDecimal businessDays = BigDecimal.ZERO;
-        LocalDate currentDate = startDate;
-
-        while (!currentDate.isAfter(endDate)) {
-            if (isBusinessDay(currentDate)) {
-                businessDays = businessDays.add(BigDecimal.ONE);
-            }
-            currentDate = currentDate.plusDays(1);
-        }
-
-        return businessDays;
-    }
-
-    /**
-     * Check if a date is a business day (not weekend)
-     */
-    private boolean isBusinessDay(LocalDate date) {
-        DayOfWeek dayOfWeek = date.getDayOfWeek();
-        return !(dayOfWeek == DayOfWeek.SATURDAY || dayOfWeek == DayOfWeek.SUNDAY);
-    }
-
-    /**
-     * Convert monthly distribution to a map of month names to values
+     * Convert monthly distribution (half-day units, indexed by month - 1) to a map of month names to days
      */
-    private Map<String, BigDecimal> convertMonthlyDistributionToMap(Map<Month, BigDecimal> monthlyDistribution) {
+    private Map<String, BigDecimal> convertMonthlyDistributionToMap(long[] monthlyUnits) {
         Map<String, BigDecimal> result = new LinkedHashMap<>();
 
         // Ensure all months are represented in order
         Arrays.stream(Month.values()).forEach(month -> {
-            result.put(month.name(), monthlyDistribution.getOrDefault(month, BigDecimal.ZERO));
+            result.put(month.name(), LeaveUnits.toDays(monthlyUnits[month.getValue() - 1]));
         });
 
         return result;
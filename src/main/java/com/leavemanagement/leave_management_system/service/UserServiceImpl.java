@@ -27,6 +27,8 @@ public class UserServiceImpl implements UserService {
     private final PasswordEncoder passwordEncoder;
     // Add this to your existing dependencies in the class
     private final SecurityUtils securityUtils;
+    private final OrgHierarchyCache orgHierarchy;
+
     @Override
     @Transactional
     public UserResponseDto createUser(UserRequestDto userRequestDto) {
@@ -41,6 +43,7 @@ public class UserServiceImpl implements UserService {
         user.setPassword(passwordEncoder.encode(userRequestDto.getPassword()));
         user.setRole(userRequestDto.getRole());
         user.setProfilePicUrl(userRequestDto.getProfilePicUrl());
+        user.setHireDate(userRequestDto.getHireDate());
 
         // Set manager if managerId is provided
         if (userRequestDto.getManagerId() != null) {
@@ -57,6 +60,7 @@ public class UserServiceImpl implements UserService {
         }
 
         User savedUser = userRepository.save(user);
+        orgHierarchy.refreshAfterCommit();
         return mapUserToUserResponseDto(savedUser);
     }
 
@@ -108,6 +112,10 @@ public class UserServiceImpl implements UserService {
             user.setProfilePicUrl(userUpdateDto.getProfilePicUrl());
         }
 
+        if (userUpdateDto.getHireDate() != null) {
+            user.setHireDate(userUpdateDto.getHireDate());
+        }
+
         // Update manager if managerId is provided
         if (userUpdateDto.getManagerId() != null) {
             if (userUpdateDto.getManagerId().equals(id)) {
@@ -127,6 +135,7 @@ public class UserServiceImpl implements UserService {
         }
 
         User updatedUser = userRepository.save(user);
+        orgHierarchy.refreshAfterCommit();
         return mapUserToUserResponseDto(updatedUser);
     }
 
@@ -137,6 +146,7 @@ public class UserServiceImpl implements UserService {
             throw new ResourceNotFoundException("User not found with id: " + id);
         }
         userRepository.deleteById(id);
+        orgHierarchy.refreshAfterCommit();
     }
 
     @Override
@@ -223,6 +233,7 @@ public class UserServiceImpl implements UserService {
         responseDto.setFullName(user.getFullName());
         responseDto.setRole(user.getRole());
         responseDto.setProfilePicUrl(user.getProfilePicUrl());
+        responseDto.setHireDate(user.getHireDate());
 
         // Map manager if exists
         if (user.getManager() != null) {
@@ -0,0 +1,183 @@
+package com.leavemanagement.leave_management_system.util;
+
+import com.leavemanagement.leave_management_system.dto.CacheStatsDTO;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Bounded in-memory cache: entries are evicted least recently used beyond the maximum size and expire
+ * after the TTL. Every invalidation advances a generation stamp, and a loaded value is only stored if no
+ * invalidation happened since the load began, so a read racing a change never caches the value from
+ * before it.
+ * @param <K> The key type
+ * @param <V> The value type; values are shared between readers and should be immutable
+ */
+public final class BoundedCache<K, V> {
+    private final String name;
+    private final int maxSize;
+    private final Duration ttl;
+    private final Map<K, Entry<V>> entries;
+    private final AtomicLong generation = new AtomicLong();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+
+    private record Entry<V>(V value, long expiresAtNanos) {
+    }
+
+    public BoundedCache(String name, int maxSize, Duration ttl) {
+        this.name = name;
+        this.maxSize = maxSize;
+        this.ttl = ttl;
+        // Access-ordered, so the least recently read entry is evicted first
+        this.entries = new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+                if (size() > BoundedCache.this.maxSize) {
+                    evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * The cached value, loaded and cached on a miss
+     */
+    public V get(K key, Supplier<V> loader) {
+        return get(key, value -> true, loader);
+    }
+
+    /**
+     * The cached value if it is usable, otherwise loaded and cached in its place
+     */
+    public V get(K key, Predicate<V> usable, Supplier<V> loader) {
+        V cached = lookup(key);
+        if (cached != null && usable.test(cached)) {
+            hits.increment();
+            return cached;
+        }
+
+        misses.increment();
+        long stamp = generation.get();
+        V value = loader.get();
+        put(key, value, stamp);
+        return value;
+    }
+
+    /**
+     * The cached value, or null on a miss; for callers that do not load through the cache
+     */
+    public V getIfPresent(K key) {
+        V cached = lookup(key);
+        if (cached != null) {
+            hits.increment();
+        } else {
+            misses.increment();
+        }
+        return cached;
+    }
+
+    /**
+     * The current generation, to pass to {@link #put} for a value about to be loaded
+     */
+    public long stamp() {
+        return generation.get();
+    }
+
+    /**
+     * Cache a value loaded since the given stamp, unless an invalidation happened meanwhile
+     */
+    public void put(K key, V value, long stamp) {
+        synchronized (entries) {
+            if (generation.get() == stamp) {
+                entries.put(key, new Entry<>(value, System.nanoTime() + ttl.toNanos()));
+            }
+        }
+    }
+
+    /**
+     * Drop the given keys
+     * @return The stamp to write reloaded values back with
+     */
+    public long invalidate(Collection<K> keys) {
+        long stamp = generation.incrementAndGet();
+        synchronized (entries) {
+            for (K key : keys) {
+                if (entries.remove(key) != null) {
+                    invalidations.increment();
+                }
+            }
+        }
+        return stamp;
+    }
+
+    /**
+     * Drop every key the predicate matches
+     */
+    public void invalidateIf(Predicate<K> affected) {
+        generation.incrementAndGet();
+        synchronized (entries) {
+            entries.keySet().removeIf(key -> {
+                boolean matched = affected.test(key);
+                if (matched) {
+                    invalidations.increment();
+                }
+                return matched;
+            });
+        }
+    }
+
+    public void invalidateAll() {
+        generation.incrementAndGet();
+        synchronized (entries) {
+            invalidations.add(entries.size());
+            entries.clear();
+        }
+    }
+
+    public CacheStatsDTO stats() {
+        long hitCount = hits.sum();
+        long missCount = misses.sum();
+        int size;
+        synchronized (entries) {
+            size = entries.size();
+        }
+        return CacheStatsDTO.builder()
+                .name(name)
+                .size(size)
+                .maxSize(maxSize)
+                .ttlSeconds(ttl.toSeconds())
+                .hits(hitCount)
+                .misses(missCount)
+                .evictions(evictions.sum())
+                .invalidations(invalidations.sum())
+                .hitRate(hitCount + missCount > 0 ? (double) hitCount / (hitCount + missCount) : 0)
+                .build();
+    }
+
+    private V lookup(K key) {
+        synchronized (entries) {
+            Entry<V> entry = entries.get(key);
+            if (entry == null) {
+                return null;
+            }
+            if (entry.expiresAtNanos() - System.nanoTime() < 0) {
+                entries.remove(key);
+                evictions.increment();
+                return null;
+            }
+            return entry.value();
+        }
+    }
+}
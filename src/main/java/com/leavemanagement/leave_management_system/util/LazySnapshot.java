@@ -0,0 +1,39 @@
+package com.leavemanagement.leave_management_system.util;
+
+import java.util.function.UnaryOperator;
+
+/**
+ * An immutable snapshot that readers get without locking. It is loaded on first use when that comes
+ * before the first refresh (e.g. from a startup runner before the application is ready), and replaced
+ * as a whole on refresh. Loads are serialized, so a slow load cannot overwrite a newer one.
+ * @param <T> The snapshot type
+ */
+public final class LazySnapshot<T> {
+    private final UnaryOperator<T> loader;
+    private volatile T current;
+
+    /**
+     * @param loader Builds a new snapshot from the previous one, which is null on the first load
+     */
+    public LazySnapshot(UnaryOperator<T> loader) {
+        this.loader = loader;
+    }
+
+    public T get() {
+        T snapshot = current;
+        if (snapshot == null) {
+            synchronized (this) {
+                if (current == null) {
+                    current = loader.apply(null);
+                }
+                snapshot = current;
+            }
+        }
+        return snapshot;
+    }
+
+    public synchronized T refresh() {
+        current = loader.apply(current);
+        return current;
+    }
+}
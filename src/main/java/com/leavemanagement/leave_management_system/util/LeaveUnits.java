@@ -0,0 +1,36 @@
+package com.leavemanagement.leave_management_system.util;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Leave quantities as a primitive count of half days. Durations, balance deltas and statistics are
+ * computed on these longs and only turned into BigDecimal days at the DTO and database boundary,
+ * so hot loops neither allocate nor round.
+ */
+public final class LeaveUnits {
+    public static final long PER_DAY = 2;
+    public static final long HALF_DAY = 1;
+
+    private LeaveUnits() {
+    }
+
+    public static long ofDays(long days) {
+        return days * PER_DAY;
+    }
+
+    /**
+     * Convert days to units, rounding to the nearest half day
+     */
+    public static long fromDays(BigDecimal days) {
+        if (days == null) {
+            return 0;
+        }
+        return days.multiply(BigDecimal.valueOf(PER_DAY)).setScale(0, RoundingMode.HALF_UP).longValueExact();
+    }
+
+    public static BigDecimal toDays(long units) {
+        // units / 2 == units * 5 / 10, exact with one decimal
+        return BigDecimal.valueOf(units * 5, 1);
+    }
+}
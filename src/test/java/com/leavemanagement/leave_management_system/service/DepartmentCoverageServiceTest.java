@@ -0,0 +1,197 @@
+package com.leavemanagement.leave_management_system.service;
+
+import com.leavemanagement.leave_management_system.enums.CoverageMode;
+import com.leavemanagement.leave_management_system.enums.UserRole;
+import com.leavemanagement.leave_management_system.model.Department;
+import com.leavemanagement.leave_management_system.model.LeaveRequest;
+import com.leavemanagement.leave_management_system.model.LeaveType;
+import com.leavemanagement.leave_management_system.model.User;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Approvals, rejections and a rollback interleaved with an index rebuild leave the counts the database
+ * holds. The rebuild pauses after reading approved leave, while other transactions commit, roll back or
+ * stay open. Those transactions commit, so this commits rows to the test container and removes them
+ * afterwards.
+ */
+@DatabaseTest
+class DepartmentCoverageServiceTest {
+    private static final int HEADCOUNT = 5;
+    // A Monday far enough ahead that no other leave or holiday falls on it
+    private static final LocalDate DAY = LocalDate.of(2092, 3, 1).with(TemporalAdjusters.nextOrSame(DayOfWeek.MONDAY));
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    @Autowired
+    private ReferenceDataRegistry referenceData;
+    @Autowired
+    private BusinessDayCalendar businessDayCalendar;
+    @Autowired
+    private LeaveTestData testData;
+
+    private PausingJdbcTemplate pausingJdbcTemplate;
+    private DepartmentCoverageService coverage;
+    private Department department;
+    private final List<User> users = new ArrayList<>();
+    private LeaveType leaveType;
+
+    /**
+     * Runs the given work right after a rebuild has read approved leave, before it swaps the index in
+     */
+    private static final class PausingJdbcTemplate extends JdbcTemplate {
+        private volatile Runnable afterLeaveRead;
+
+        private PausingJdbcTemplate(JdbcTemplate jdbcTemplate) {
+            super(jdbcTemplate.getDataSource());
+        }
+
+        @Override
+        public void query(String sql, RowCallbackHandler rch, Object... args) {
+            super.query(sql, rch, args);
+            Runnable work = afterLeaveRead;
+            if (work != null && sql.contains("leave_requests")) {
+                afterLeaveRead = null;
+                work.run();
+            }
+        }
+    }
+
+    @BeforeEach
+    void setUp() {
+        department = testData.department(null);
+        for (int i = 0; i < HEADCOUNT; i++) {
+            users.add(testData.user(UserRole.STAFF, null, department));
+        }
+        leaveType = testData.leaveType();
+
+        pausingJdbcTemplate = new PausingJdbcTemplate(jdbcTemplate);
+        // Everyone must be present, so every check warns and tells how many would be left
+        coverage = new DepartmentCoverageService(pausingJdbcTemplate, referenceData, businessDayCalendar,
+                BigDecimal.ONE, CoverageMode.WARN);
+        coverage.rebuild();
+    }
+
+    @AfterEach
+    void tearDown() {
+        for (User user : users) {
+            jdbcTemplate.update("DELETE FROM leave_requests WHERE user_id = ?", user.getId());
+            testData.deleteUser(user);
+        }
+        testData.deleteDepartment(department);
+        testData.deleteLeaveType(leaveType);
+    }
+
+    @Test
+    void changesDuringARebuildAndARollbackLeaveTheCountsOfTheDatabase() throws Exception {
+        LeaveRequest first = committed(() -> approve(users.get(0)));
+        assertPeopleOut(1);
+
+        List<Future<?>> openTransactions = new ArrayList<>();
+        CountDownLatch finish = new CountDownLatch(1);
+        try (ExecutorService executor = Executors.newFixedThreadPool(2)) {
+            pausingJdbcTemplate.afterLeaveRead = () -> {
+                // Missed by the reads: one approval and one rejection commit, another approval rolls back
+                committed(() -> approve(users.get(1)));
+                committed(() -> reject(first));
+                rolledBack(() -> approve(users.get(2)));
+                // Still open when the rebuilt index is swapped in; one will commit, the other roll back
+                openTransactions.add(approveInOpenTransaction(executor, users.get(3), true, finish));
+                openTransactions.add(approveInOpenTransaction(executor, users.get(4), false, finish));
+            };
+            coverage.rebuild();
+
+            // The second and both open approvals
+            assertPeopleOut(3);
+            finish.countDown();
+            for (Future<?> openTransaction : openTransactions) {
+                openTransaction.get(10, TimeUnit.SECONDS);
+            }
+        }
+
+        // The second and fourth approvals, as a rebuild from the database finds too
+        assertPeopleOut(2);
+        coverage.rebuild();
+        assertPeopleOut(2);
+    }
+
+    private LeaveRequest approve(User user) {
+        LeaveRequest leaveRequest = testData.leaveRequest(user, leaveType, "APPROVED", DAY);
+        coverage.markOut(department.getId(), leaveRequest.getId(), DAY, DAY);
+        return leaveRequest;
+    }
+
+    private LeaveRequest reject(LeaveRequest leaveRequest) {
+        jdbcTemplate.update("UPDATE leave_requests SET status_id = ? WHERE id = ?",
+                referenceData.getStatus("REJECTED").id(), leaveRequest.getId());
+        coverage.markBack(department.getId(), leaveRequest.getId(), DAY, DAY);
+        return leaveRequest;
+    }
+
+    private LeaveRequest committed(Supplier<LeaveRequest> change) {
+        return transactionTemplate.execute(status -> change.get());
+    }
+
+    private void rolledBack(Supplier<LeaveRequest> change) {
+        transactionTemplate.executeWithoutResult(status -> {
+            change.get();
+            status.setRollbackOnly();
+        });
+    }
+
+    /**
+     * Approve on another thread in a transaction that stays open until finish is released
+     * @return Completes once the transaction has committed or rolled back
+     */
+    private Future<?> approveInOpenTransaction(ExecutorService executor, User user, boolean commit,
+                                               CountDownLatch finish) {
+        CountDownLatch applied = new CountDownLatch(1);
+        Future<?> transaction = executor.submit(() -> transactionTemplate.executeWithoutResult(status -> {
+            approve(user);
+            applied.countDown();
+            await(finish);
+            if (!commit) {
+                status.setRollbackOnly();
+            }
+        }));
+        await(applied);
+        return transaction;
+    }
+
+    private void assertPeopleOut(int peopleOut) {
+        assertThat(coverage.checkCoverage(department.getId(), DAY, DAY)).isEqualTo(
+                "Department coverage would drop to " + (HEADCOUNT - peopleOut - 1) + " of " + HEADCOUNT +
+                        " present on " + DAY + " (minimum " + HEADCOUNT + ")");
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            assertThat(latch.await(10, TimeUnit.SECONDS)).isTrue();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}
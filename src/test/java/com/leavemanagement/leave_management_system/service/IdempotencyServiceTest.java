@@ -0,0 +1,183 @@
+package com.leavemanagement.leave_management_system.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.leavemanagement.leave_management_system.exceptions.IdempotencyKeyException;
+import com.leavemanagement.leave_management_system.model.LeaveType;
+import com.leavemanagement.leave_management_system.repository.IdempotencyRecordRepository;
+import com.leavemanagement.leave_management_system.repository.LeaveTypeRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Replays, key reuse, concurrent duplicates and lease takeover. Claims and responses commit on their own, so
+ * this commits idempotency keys to the test container and removes them afterwards. A second service
+ * instance on the same database stands in for another application instance.
+ */
+@DatabaseTest
+class IdempotencyServiceTest {
+    private static final String ENDPOINT = "POST /test";
+    private static final int DUPLICATES = 8;
+
+    @Autowired
+    private IdempotencyService idempotencyService;
+    @Autowired
+    private IdempotencyRecordRepository idempotencyRecordRepository;
+    @Autowired
+    private LeaveTypeRepository leaveTypeRepository;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private LeaveTestData testData;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final UUID userId = UUID.randomUUID();
+    private final String key = UUID.randomUUID().toString();
+    private final AtomicInteger runs = new AtomicInteger();
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM idempotency_keys WHERE user_id = ?", userId);
+        testData.refreshCaches();
+    }
+
+    @Test
+    void replayReturnsTheStoredResponseWithoutRunningAgain() {
+        ResponseEntity<String> first = execute(idempotencyService, Map.of("days", 1), created("first"));
+        ResponseEntity<String> replayed = execute(idempotencyService, Map.of("days", 1), created("second"));
+        // Another instance finds the response in the database rather than in its cache
+        ResponseEntity<String> replayedElsewhere = execute(otherInstance(60), Map.of("days", 1), created("third"));
+
+        assertThat(runs).hasValue(1);
+        assertThat(first.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+        assertThat(first.getHeaders().containsKey(IdempotencyService.REPLAYED_HEADER)).isFalse();
+        for (ResponseEntity<String> replay : List.of(replayed, replayedElsewhere)) {
+            assertThat(replay.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+            assertThat(replay.getBody()).isEqualTo("first");
+            assertThat(replay.getHeaders().getFirst(IdempotencyService.REPLAYED_HEADER)).isEqualTo("true");
+        }
+    }
+
+    @Test
+    void keyReusedForADifferentRequestIsRejected() {
+        execute(idempotencyService, Map.of("days", 1), created("first"));
+
+        for (IdempotencyService instance : List.of(idempotencyService, otherInstance(60))) {
+            assertThatThrownBy(() -> execute(instance, Map.of("days", 2), created("second")))
+                    .isInstanceOfSatisfying(IdempotencyKeyException.class, e ->
+                            assertThat(e.getStatus()).isEqualTo(HttpStatus.UNPROCESSABLE_ENTITY));
+        }
+        assertThat(runs).hasValue(1);
+    }
+
+    @Test
+    void concurrentDuplicatesRunTheActionOnce() throws Exception {
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch arrived = new CountDownLatch(DUPLICATES);
+        List<Future<ResponseEntity<String>>> results = new ArrayList<>(DUPLICATES);
+        try (ExecutorService executor = Executors.newFixedThreadPool(DUPLICATES)) {
+            for (int i = 0; i < DUPLICATES; i++) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    arrived.countDown();
+                    return execute(idempotencyService, Map.of("days", 1), () -> {
+                        // Still running when the duplicates come in
+                        await(arrived);
+                        return created("only").get();
+                    });
+                }));
+            }
+            start.countDown();
+        }
+
+        assertThat(runs).hasValue(1);
+        for (Future<ResponseEntity<String>> result : results) {
+            assertThat(result.get().getBody()).isEqualTo("only");
+        }
+    }
+
+    @Test
+    void claimPastItsLeaseIsTakenOverAndTheOriginalRollsBack() throws Exception {
+        CountDownLatch claimed = new CountDownLatch(1);
+        CountDownLatch takenOver = new CountDownLatch(1);
+        AtomicReference<LeaveType> written = new AtomicReference<>();
+
+        Future<ResponseEntity<String>> original;
+        try (ExecutorService executor = Executors.newSingleThreadExecutor()) {
+            original = executor.submit(() -> execute(idempotencyService, Map.of("days", 1), () -> {
+                // Work of the original execution, which must not survive the takeover
+                written.set(testData.leaveType());
+                claimed.countDown();
+                await(takenOver);
+                return ResponseEntity.status(HttpStatus.CREATED).body("original");
+            }));
+
+            assertThat(claimed.await(10, TimeUnit.SECONDS)).isTrue();
+            // With no lease, the other instance considers the running claim abandoned
+            ResponseEntity<String> takeover = execute(otherInstance(0), Map.of("days", 1), created("takeover"));
+            assertThat(takeover.getBody()).isEqualTo("takeover");
+            takenOver.countDown();
+        }
+
+        assertThatThrownBy(original::get)
+                .isInstanceOf(ExecutionException.class)
+                .cause()
+                .isInstanceOfSatisfying(IdempotencyKeyException.class, e ->
+                        assertThat(e.getStatus()).isEqualTo(HttpStatus.CONFLICT));
+        assertThat(leaveTypeRepository.existsById(written.get().getId())).isFalse();
+        // The key now replays the response of the takeover
+        assertThat(execute(idempotencyService, Map.of("days", 1), created("again")).getBody()).isEqualTo("takeover");
+    }
+
+    private ResponseEntity<String> execute(IdempotencyService instance, Object request,
+                                           Supplier<ResponseEntity<String>> action) {
+        return instance.execute(userId, ENDPOINT, key, request, String.class, action);
+    }
+
+    /**
+     * An action answering 201 with the given body, counting completed runs
+     */
+    private Supplier<ResponseEntity<String>> created(String body) {
+        return () -> {
+            runs.incrementAndGet();
+            return ResponseEntity.status(HttpStatus.CREATED).body(body);
+        };
+    }
+
+    private IdempotencyService otherInstance(long leaseSeconds) {
+        return new IdempotencyService(idempotencyRecordRepository, transactionTemplate, objectMapper, 24, leaseSeconds, 100);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            assertThat(latch.await(10, TimeUnit.SECONDS)).isTrue();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.leavemanagement.leave_management_system.service;
+
+import com.leavemanagement.leave_management_system.dto.LeaveAccrualRunDTO;
+import com.leavemanagement.leave_management_system.enums.UserRole;
+import com.leavemanagement.leave_management_system.model.LeaveBalance;
+import com.leavemanagement.leave_management_system.model.LeaveType;
+import com.leavemanagement.leave_management_system.model.User;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.transaction.AfterTransaction;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.YearMonth;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The set-based accrual statement must post exactly what {@link LeaveAccrualService#accruedDays} computes.
+ * Accrues June of a leap year far ahead, so no other balance takes part. Runs in a transaction that is
+ * rolled back.
+ */
+@DatabaseTest
+@Transactional
+class LeaveAccrualServiceTest {
+    private static final YearMonth MONTH = YearMonth.of(2088, 6);
+
+    @Autowired
+    private LeaveAccrualService accrualService;
+    @Autowired
+    private ReferenceDataRegistry referenceData;
+    @Autowired
+    private LeaveTestData testData;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private EntityManager entityManager;
+
+    private LeaveType leaveType;
+    private LeaveType cappedType;
+
+    @BeforeEach
+    void setUp() {
+        // 2 days a month, 24 a year
+        leaveType = testData.leaveType();
+        cappedType = testData.leaveType(10);
+    }
+
+    @AfterTransaction
+    void reloadCaches() {
+        testData.refreshCaches();
+    }
+
+    @Test
+    void accrualStatementMatchesTheJavaFormula() {
+        LeaveBalance hiredBefore = balance(LocalDate.of(2085, 5, 10), leaveType);
+        LeaveBalance hiredMidMonth = balance(LocalDate.of(2088, 3, 15), leaveType);
+        LeaveBalance hiredLater = balance(LocalDate.of(2088, 9, 1), leaveType);
+        LeaveBalance hiredOnLeapDay = balance(LocalDate.of(2088, 2, 29), leaveType);
+        LeaveBalance capped = balance(LocalDate.of(2085, 5, 10), cappedType);
+
+        accrualService.runAccrual(MONTH);
+
+        assertAccruedAsComputed(hiredBefore, LocalDate.of(2085, 5, 10), leaveType, "12.00");
+        // 3 whole months and 17 of March's 31 days
+        assertAccruedAsComputed(hiredMidMonth, LocalDate.of(2088, 3, 15), leaveType, "7.10");
+        assertAccruedAsComputed(hiredLater, LocalDate.of(2088, 9, 1), leaveType, "0.00");
+        // 4 whole months and 1 of February's 29 days
+        assertAccruedAsComputed(hiredOnLeapDay, LocalDate.of(2088, 2, 29), leaveType, "8.07");
+        assertAccruedAsComputed(capped, LocalDate.of(2085, 5, 10), cappedType, "10");
+    }
+
+    @Test
+    void rerunInTheSameMonthRecomputesOnlyChangedUsers() {
+        LeaveBalance changed = balance(LocalDate.of(2088, 3, 15), leaveType);
+        LeaveBalance unchanged = balance(LocalDate.of(2088, 3, 15), leaveType);
+        LeaveAccrualRunDTO first = accrualService.runAccrual(MONTH);
+
+        // One user's hire date is corrected; the other balance drifts without its user changing
+        LocalDate correctedHireDate = LocalDate.of(2088, 4, 1);
+        jdbcTemplate.update("UPDATE users SET hire_date = ?, updated_at = ? WHERE id = ?",
+                correctedHireDate, Timestamp.valueOf(first.getStartedAt().plusSeconds(1)), changed.getUser().getId());
+        jdbcTemplate.update("UPDATE leave_balances SET accrued_days = 1.00 WHERE id = ?", unchanged.getId());
+
+        LeaveAccrualRunDTO rerun = accrualService.runAccrual(MONTH);
+
+        assertThat(rerun.isFullRun()).isFalse();
+        assertThat(rerun.getBalancesUpdated()).isEqualTo(1);
+        assertAccruedAsComputed(changed, correctedHireDate, leaveType, "6.00");
+        assertThat(accruedDays(unchanged)).isEqualByComparingTo("1.00");
+    }
+
+    private LeaveBalance balance(LocalDate hireDate, LeaveType type) {
+        User user = testData.user(UserRole.STAFF, hireDate);
+        LeaveBalance balance = testData.accruingBalance(user, type, MONTH.getYear());
+        // The accrual statement reads the rows through JDBC
+        entityManager.flush();
+        return balance;
+    }
+
+    private void assertAccruedAsComputed(LeaveBalance balance, LocalDate hireDate, LeaveType type, String expected) {
+        BigDecimal computed = accrualService.accruedDays(referenceData.getLeaveType(type.getId()), hireDate, MONTH);
+
+        assertThat(computed).isEqualByComparingTo(expected);
+        assertThat(accruedDays(balance)).isEqualByComparingTo(computed);
+    }
+
+    private BigDecimal accruedDays(LeaveBalance balance) {
+        return jdbcTemplate.queryForObject("SELECT accrued_days FROM leave_balances WHERE id = ?",
+                BigDecimal.class, balance.getId());
+    }
+}
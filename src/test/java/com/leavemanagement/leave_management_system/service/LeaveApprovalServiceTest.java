@@ -0,0 +1,161 @@
+package com.leavemanagement.leave_management_system.service;
+
+import com.leavemanagement.leave_management_system.dto.LeaveDecisionResultDTO;
+import com.leavemanagement.leave_management_system.dto.LeaveRequestCreateDTO;
+import com.leavemanagement.leave_management_system.dto.LeaveRequestDTO;
+import com.leavemanagement.leave_management_system.dto.LeaveRequestUpdateDTO;
+import com.leavemanagement.leave_management_system.enums.ApprovalLevel;
+import com.leavemanagement.leave_management_system.enums.ApprovalStepStatus;
+import com.leavemanagement.leave_management_system.enums.UserRole;
+import com.leavemanagement.leave_management_system.exceptions.UnauthorizedException;
+import com.leavemanagement.leave_management_system.model.Department;
+import com.leavemanagement.leave_management_system.model.LeaveApprovalStep;
+import com.leavemanagement.leave_management_system.model.LeaveType;
+import com.leavemanagement.leave_management_system.model.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.transaction.AfterTransaction;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * A request of a staff member moves from their manager to their department head to HR, submitted and
+ * decided through {@link LeaveService}. Runs in a transaction that is rolled back.
+ */
+@DatabaseTest
+@Transactional
+class LeaveApprovalServiceTest {
+
+    @Autowired
+    private LeaveService leaveService;
+    @Autowired
+    private LeaveApprovalService approvalService;
+    @Autowired
+    private LeaveTestData testData;
+
+    private User seniorManager;
+    private User manager;
+    private User head;
+    private User hr;
+    private User staff;
+    private LeaveType leaveType;
+
+    @BeforeEach
+    void setUp() {
+        seniorManager = testData.user(UserRole.MANAGER, null, null);
+        manager = testData.user(UserRole.MANAGER, seniorManager, null);
+        head = testData.user(UserRole.MANAGER, null, null);
+        Department department = testData.department(head);
+        // HR approvals are handled by admins
+        hr = testData.user(UserRole.ADMIN, null, null);
+        staff = testData.user(UserRole.STAFF, manager, department);
+        leaveType = testData.leaveType();
+        testData.balance(staff, leaveType, new BigDecimal("20"));
+    }
+
+    @AfterTransaction
+    void reloadCaches() {
+        testData.refreshCaches();
+    }
+
+    @Test
+    void approvalsMoveFromManagerToHeadToHr() {
+        LeaveRequestDTO request = submit();
+        assertThat(pendingApprovers(request)).containsExactly(manager.getId());
+        assertThat(steps(request)).extracting(LeaveApprovalStep::getLevel)
+                .containsSubsequence(ApprovalLevel.MANAGER, ApprovalLevel.DEPARTMENT_HEAD, ApprovalLevel.HR);
+
+        assertThat(decide(request, manager, "APPROVED").getStatus()).isEqualTo("PENDING");
+        assertThat(pendingApprovers(request)).containsExactly(head.getId());
+
+        assertThat(decide(request, head, "APPROVED").getStatus()).isEqualTo("PENDING");
+        assertThat(pendingApprovers(request)).contains(hr.getId());
+
+        assertThat(decide(request, hr, "APPROVED").getStatus()).isEqualTo("APPROVED");
+        assertThat(pendingApprovers(request)).isEmpty();
+        assertThat(steps(request)).filteredOn(step -> step.getStatus() == ApprovalStepStatus.APPROVED)
+                .extracting(LeaveApprovalStep::getApproverId)
+                .containsExactly(manager.getId(), head.getId(), hr.getId());
+    }
+
+    @Test
+    void onlyTheCurrentApproverOrAnAdminMayDecide() {
+        LeaveRequestDTO request = submit();
+
+        // The head's turn has not come yet
+        assertThatThrownBy(() -> decide(request, head, "APPROVED"))
+                .isInstanceOf(UnauthorizedException.class)
+                .hasMessage("This leave request is awaiting approval by someone else");
+        assertThat(leaveService.getLeaveRequest(request.getId()).getStatus()).isEqualTo("PENDING");
+
+        // An admin may decide outright; the rest of the chain is closed
+        assertThat(decide(request, hr, "APPROVED").getStatus()).isEqualTo("APPROVED");
+        assertThat(steps(request)).extracting(LeaveApprovalStep::getStatus)
+                .containsOnly(ApprovalStepStatus.SKIPPED);
+    }
+
+    @Test
+    void stepOfAnApproverOnLeaveIsDelegatedToTheirManager() {
+        testData.leaveRequest(manager, leaveType, "APPROVED", LocalDate.now());
+
+        LeaveRequestDTO request = submit();
+
+        LeaveApprovalStep managerStep = steps(request).get(0);
+        assertThat(managerStep.getStatus()).isEqualTo(ApprovalStepStatus.PENDING);
+        assertThat(managerStep.getApproverId()).isEqualTo(seniorManager.getId());
+        assertThat(managerStep.getDelegatedFromId()).isEqualTo(manager.getId());
+
+        assertThat(decide(request, seniorManager, "APPROVED").getStatus()).isEqualTo("PENDING");
+        assertThat(pendingApprovers(request)).containsExactly(head.getId());
+    }
+
+    @Test
+    void bulkDecisionReportsAnIntermediateApprovalAsPending() {
+        LeaveRequestDTO request = submit();
+
+        List<LeaveDecisionResultDTO> results = leaveService.updateLeaveRequestStatuses(
+                List.of(new LeaveRequestUpdateDTO(request.getId(), "APPROVED", "Fine by me")), manager.getId());
+
+        assertThat(results).singleElement().satisfies(result -> {
+            assertThat(result.isSuccess()).isTrue();
+            assertThat(result.getStatus()).isEqualTo("PENDING");
+        });
+        assertThat(leaveService.getLeaveRequest(request.getId()).getStatus()).isEqualTo("PENDING");
+        assertThat(pendingApprovers(request)).containsExactly(head.getId());
+    }
+
+    private LeaveRequestDTO submit() {
+        LocalDate day = LeaveTestData.monday(1);
+        return leaveService.createLeaveRequest(staff.getId(), LeaveRequestCreateDTO.builder()
+                .leaveTypeId(leaveType.getId())
+                .startDate(day)
+                .endDate(day)
+                .fullDay(true)
+                .reason("Approval chain test")
+                .build());
+    }
+
+    private LeaveRequestDTO decide(LeaveRequestDTO request, User decider, String status) {
+        return leaveService.updateLeaveRequestStatus(request.getId(),
+                new LeaveRequestUpdateDTO(request.getId(), status, null), decider.getId());
+    }
+
+    private List<LeaveApprovalStep> steps(LeaveRequestDTO request) {
+        return approvalService.getSteps(request.getId());
+    }
+
+    private List<UUID> pendingApprovers(LeaveRequestDTO request) {
+        return steps(request).stream()
+                .filter(step -> step.getStatus() == ApprovalStepStatus.PENDING)
+                .map(LeaveApprovalStep::getApproverId)
+                .toList();
+    }
+}
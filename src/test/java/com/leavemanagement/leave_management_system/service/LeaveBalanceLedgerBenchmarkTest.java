@@ -0,0 +1,103 @@
+package com.leavemanagement.leave_management_system.service;
+
+import com.leavemanagement.leave_management_system.enums.LeaveBalanceTransactionType;
+import com.leavemanagement.leave_management_system.enums.UserRole;
+import com.leavemanagement.leave_management_system.model.LeaveBalance;
+import com.leavemanagement.leave_management_system.repository.LeaveBalanceRepository;
+import com.leavemanagement.leave_management_system.util.LeaveUnits;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.transaction.AfterTransaction;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Cost of a balance write that also appends a ledger entry, against the bare update in place. Opt-in
+ * ({@code mvn test -Pbenchmark}); runs in a transaction that is rolled back and logs the timings.
+ */
+@DatabaseTest
+@Tag("benchmark")
+@Transactional
+@Slf4j
+class LeaveBalanceLedgerBenchmarkTest {
+    private static final long ONE_DAY = LeaveUnits.ofDays(1);
+    private static final int WARMUP_WRITES = 200;
+    private static final int WRITES = 2000;
+
+    @Autowired
+    private LeaveBalanceService leaveBalanceService;
+    @Autowired
+    private LeaveBalanceLedgerService ledgerService;
+    @Autowired
+    private LeaveBalanceRepository leaveBalanceRepository;
+    @Autowired
+    private LeaveTestData testData;
+    @Autowired
+    private EntityManager entityManager;
+
+    private LeaveBalance balance;
+
+    @BeforeEach
+    void setUp() {
+        balance = testData.balance(testData.user(UserRole.STAFF), testData.leaveType(), new BigDecimal("20"));
+    }
+
+    @AfterTransaction
+    void reloadCaches() {
+        testData.refreshCaches();
+    }
+
+    @Test
+    void ledgerWriteThroughputAgainstUpdateInPlace() {
+        updateInPlace(WARMUP_WRITES);
+        withLedgerEntry(WARMUP_WRITES);
+
+        long updateOnlyNanos = timed(() -> updateInPlace(WRITES));
+        long withLedgerNanos = timed(() -> withLedgerEntry(WRITES));
+
+        assertThat(ledgerService.getLedger(balance.getId()).getTransactions()).hasSize(WARMUP_WRITES + WRITES + 1);
+        log.info("{} balance writes: update in place {} ms ({}/s), update plus ledger entry {} ms ({}/s)",
+                WRITES,
+                TimeUnit.NANOSECONDS.toMillis(updateOnlyNanos), Math.round(WRITES * 1e9 / updateOnlyNanos),
+                TimeUnit.NANOSECONDS.toMillis(withLedgerNanos), Math.round(WRITES * 1e9 / withLedgerNanos));
+    }
+
+    private void updateInPlace(int writes) {
+        for (int i = 0; i < writes; i++) {
+            leaveBalanceRepository.applyDelta(balance.getId(), BigDecimal.ZERO, BigDecimal.ZERO, LocalDateTime.now());
+        }
+    }
+
+    /**
+     * Reserve and release a day in turn, so the balance ends where it started
+     */
+    private void withLedgerEntry(int writes) {
+        for (int i = 0; i < writes; i++) {
+            if (i % 2 == 0) {
+                leaveBalanceService.applyDelta(balance, LeaveBalanceTransactionType.PENDING, null, ONE_DAY, 0);
+            } else {
+                leaveBalanceService.applyDelta(balance, LeaveBalanceTransactionType.REJECT, null, -ONE_DAY, 0);
+            }
+        }
+    }
+
+    /**
+     * Nanoseconds taken by the writes, including flushing them
+     */
+    private long timed(Runnable writes) {
+        entityManager.flush();
+        long startTime = System.nanoTime();
+        writes.run();
+        entityManager.flush();
+        return System.nanoTime() - startTime;
+    }
+}
@@ -0,0 +1,106 @@
+package com.leavemanagement.leave_management_system.service;
+
+import com.leavemanagement.leave_management_system.dto.LeaveBalanceLedgerDTO;
+import com.leavemanagement.leave_management_system.enums.LeaveBalanceTransactionType;
+import com.leavemanagement.leave_management_system.enums.UserRole;
+import com.leavemanagement.leave_management_system.model.LeaveBalance;
+import com.leavemanagement.leave_management_system.repository.LeaveBalanceRepository;
+import com.leavemanagement.leave_management_system.util.LeaveUnits;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.transaction.AfterTransaction;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The ledger must rebuild exactly the balance row, before and after its entries are folded into snapshots.
+ * Runs in a transaction that is rolled back; the fold takes every entry, as the snapshot lag is zero.
+ */
+@DatabaseTest
+@TestPropertySource(properties = "app.ledger.snapshot-lag-seconds=0")
+@Transactional
+class LeaveBalanceLedgerServiceTest {
+    private static final long ONE_DAY = LeaveUnits.ofDays(1);
+
+    @Autowired
+    private LeaveBalanceService leaveBalanceService;
+    @Autowired
+    private LeaveBalanceLedgerService ledgerService;
+    @Autowired
+    private LeaveBalanceRepository leaveBalanceRepository;
+    @Autowired
+    private LeaveTestData testData;
+    @Autowired
+    private EntityManager entityManager;
+
+    private LeaveBalance balance;
+
+    @BeforeEach
+    void setUp() {
+        balance = testData.balance(testData.user(UserRole.STAFF), testData.leaveType(), new BigDecimal("20"));
+    }
+
+    @AfterTransaction
+    void reloadCaches() {
+        testData.refreshCaches();
+    }
+
+    @Test
+    void ledgerRebuildsTheBalanceRow() {
+        applyChanges();
+
+        LeaveBalanceLedgerDTO ledger = ledgerService.getLedger(balance.getId());
+
+        assertMatchesRow(ledger);
+        assertThat(ledger.getSnapshotAsOf()).isNull();
+        // Opening entitlement, two reservations, one approval and one rejection
+        assertThat(ledger.getTransactions()).extracting("type").containsExactlyInAnyOrder(
+                LeaveBalanceTransactionType.ACCRUAL, LeaveBalanceTransactionType.PENDING,
+                LeaveBalanceTransactionType.APPROVE, LeaveBalanceTransactionType.PENDING,
+                LeaveBalanceTransactionType.REJECT);
+    }
+
+    @Test
+    void foldedSnapshotPlusTailRebuildsTheBalanceRow() {
+        applyChanges();
+        ledgerService.foldSnapshots();
+
+        LeaveBalanceLedgerDTO folded = ledgerService.getLedger(balance.getId());
+        assertMatchesRow(folded);
+        assertThat(folded.getSnapshotAsOf()).isNotNull();
+        assertThat(folded.getTransactions()).isEmpty();
+
+        // Changes after the fold are the tail
+        leaveBalanceService.reservePendingDays(balance, null, ONE_DAY);
+        LeaveBalanceLedgerDTO withTail = ledgerService.getLedger(balance.getId());
+        assertMatchesRow(withTail);
+        assertThat(withTail.getTransactions()).hasSize(1);
+    }
+
+    /**
+     * Reserve 3 days and approve them, then reserve 2 days and reject them
+     */
+    private void applyChanges() {
+        leaveBalanceService.reservePendingDays(balance, null, 3 * ONE_DAY);
+        leaveBalanceService.applyDelta(balance, LeaveBalanceTransactionType.APPROVE, null, -3 * ONE_DAY, 3 * ONE_DAY);
+        leaveBalanceService.reservePendingDays(balance, null, 2 * ONE_DAY);
+        leaveBalanceService.applyDelta(balance, LeaveBalanceTransactionType.REJECT, null, -2 * ONE_DAY, 0);
+    }
+
+    private void assertMatchesRow(LeaveBalanceLedgerDTO ledger) {
+        // The atomic updates bypass the persistence context, so read the row afresh
+        entityManager.flush();
+        entityManager.clear();
+        LeaveBalance row = leaveBalanceRepository.findById(balance.getId()).orElseThrow();
+
+        assertThat(ledger.getTotalDays()).isEqualByComparingTo(row.getTotalDays());
+        assertThat(ledger.getUsedDays()).isEqualByComparingTo(row.getUsedDays()).isEqualByComparingTo("3");
+        assertThat(ledger.getPendingDays()).isEqualByComparingTo(row.getPendingDays());
+    }
+}
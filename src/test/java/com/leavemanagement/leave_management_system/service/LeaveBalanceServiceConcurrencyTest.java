@@ -0,0 +1,127 @@
+package com.leavemanagement.leave_management_system.service;
+
+import com.leavemanagement.leave_management_system.enums.LeaveBalanceTransactionType;
+import com.leavemanagement.leave_management_system.enums.UserRole;
+import com.leavemanagement.leave_management_system.model.LeaveBalance;
+import com.leavemanagement.leave_management_system.model.LeaveType;
+import com.leavemanagement.leave_management_system.model.User;
+import com.leavemanagement.leave_management_system.repository.LeaveBalanceRepository;
+import com.leavemanagement.leave_management_system.util.LeaveUnits;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Many threads changing one balance at once. Each change commits on its own, so this commits rows to the test
+ * container and removes them afterwards, leaving the database clean for the other tests sharing it.
+ */
+@DatabaseTest
+class LeaveBalanceServiceConcurrencyTest {
+    private static final int THREADS = 32;
+    private static final int TOTAL_DAYS = 50;
+    private static final long ONE_DAY = LeaveUnits.ofDays(1);
+
+    @Autowired
+    private LeaveBalanceService leaveBalanceService;
+    @Autowired
+    private LeaveBalanceLedgerService ledgerService;
+    @Autowired
+    private LeaveBalanceRepository leaveBalanceRepository;
+    @Autowired
+    private LeaveTestData testData;
+
+    private User user;
+    private LeaveType leaveType;
+    private LeaveBalance balance;
+
+    @BeforeEach
+    void setUp() {
+        user = testData.user(UserRole.STAFF);
+        leaveType = testData.leaveType();
+        balance = testData.balance(user, leaveType, new BigDecimal(TOTAL_DAYS));
+    }
+
+    @AfterEach
+    void tearDown() {
+        testData.deleteBalance(balance);
+        testData.deleteUser(user);
+        testData.deleteLeaveType(leaveType);
+    }
+
+    @Test
+    void parallelReservationsNeverOverdrawTheBalance() throws Exception {
+        int attempts = TOTAL_DAYS * 4;
+        AtomicInteger rejected = new AtomicInteger();
+
+        runConcurrently(attempts, () -> {
+            try {
+                leaveBalanceService.reservePendingDays(balance, null, ONE_DAY);
+            } catch (IllegalStateException e) {
+                rejected.incrementAndGet();
+            }
+        });
+
+        LeaveBalance result = leaveBalanceRepository.findById(balance.getId()).orElseThrow();
+        assertThat(rejected.get()).isEqualTo(attempts - TOTAL_DAYS);
+        assertThat(result.getPendingDays()).isEqualByComparingTo(new BigDecimal(TOTAL_DAYS));
+        assertThat(result.getUsedDays()).isEqualByComparingTo(BigDecimal.ZERO);
+    }
+
+    @Test
+    void parallelApprovalsAndRejectionsLoseNoUpdate() throws Exception {
+        runConcurrently(TOTAL_DAYS, () -> leaveBalanceService.reservePendingDays(balance, null, ONE_DAY));
+
+        // Every other reservation is approved, the rest rejected, all at once
+        AtomicInteger decision = new AtomicInteger();
+        runConcurrently(TOTAL_DAYS, () -> {
+            if (decision.getAndIncrement() % 2 == 0) {
+                leaveBalanceService.applyDelta(balance, LeaveBalanceTransactionType.APPROVE, null, -ONE_DAY, ONE_DAY);
+            } else {
+                leaveBalanceService.applyDelta(balance, LeaveBalanceTransactionType.REJECT, null, -ONE_DAY, 0);
+            }
+        });
+
+        LeaveBalance result = leaveBalanceRepository.findById(balance.getId()).orElseThrow();
+        assertThat(result.getPendingDays()).isEqualByComparingTo(BigDecimal.ZERO);
+        assertThat(result.getUsedDays()).isEqualByComparingTo(new BigDecimal(TOTAL_DAYS / 2));
+        // The ledger saw every change too
+        assertThat(ledgerService.getLedger(balance.getId()).getUsedDays()).isEqualByComparingTo(result.getUsedDays());
+        assertThat(ledgerService.getLedger(balance.getId()).getPendingDays()).isEqualByComparingTo(BigDecimal.ZERO);
+    }
+
+    /**
+     * Run the change the given number of times on {@value #THREADS} threads, released together, and rethrow
+     * the first unexpected failure
+     */
+    private void runConcurrently(int times, Runnable change) throws Exception {
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Void>> results = new ArrayList<>(times);
+        try (ExecutorService executor = Executors.newFixedThreadPool(THREADS)) {
+            Callable<Void> task = () -> {
+                start.await();
+                change.run();
+                return null;
+            };
+            for (int i = 0; i < times; i++) {
+                results.add(executor.submit(task));
+            }
+            start.countDown();
+        }
+        for (Future<Void> result : results) {
+            result.get();
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package com.leavemanagement.leave_management_system.service;
+
+import com.leavemanagement.leave_management_system.dto.HolidayDTO;
+import com.leavemanagement.leave_management_system.enums.UserRole;
+import com.leavemanagement.leave_management_system.model.LeaveRequest;
+import com.leavemanagement.leave_management_system.model.LeaveType;
+import com.leavemanagement.leave_management_system.model.User;
+import com.leavemanagement.leave_management_system.repository.LeaveRequestRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.transaction.AfterTransaction;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.TemporalAdjusters;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Leave day facts add up to the duration stored on the request, which is what its balance was charged,
+ * whatever holidays were added since. Runs in a transaction that is rolled back.
+ */
+@DatabaseTest
+@Transactional
+class LeaveDayFactServiceTest {
+    // A week far enough ahead that no other leave or holiday falls into it
+    private static final LocalDate MONDAY = LocalDate.of(2091, 3, 1).with(TemporalAdjusters.nextOrSame(DayOfWeek.MONDAY));
+    private static final LocalDate TUESDAY = MONDAY.plusDays(1);
+    private static final LocalDate WEDNESDAY = MONDAY.plusDays(2);
+
+    @Autowired
+    private LeaveDayFactService leaveDayFactService;
+    @Autowired
+    private CalendarService calendarService;
+    @Autowired
+    private HolidayCalendar holidayCalendar;
+    @Autowired
+    private LeaveRequestRepository leaveRequestRepository;
+    @Autowired
+    private LeaveTestData testData;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private User user;
+    private LeaveType leaveType;
+
+    @BeforeEach
+    void setUp() {
+        user = testData.user(UserRole.STAFF);
+        leaveType = testData.leaveType();
+    }
+
+    @AfterTransaction
+    void reloadCaches() {
+        testData.refreshCaches();
+        holidayCalendar.refresh();
+    }
+
+    @Test
+    void holidayAddedAfterTheRequestKeepsItsFactsAtTheStoredDuration() {
+        LeaveRequest leaveRequest = request(MONDAY, WEDNESDAY, "3.0", true);
+        leaveDayFactService.record(leaveRequest);
+
+        addHoliday(TUESDAY);
+        // The holiday is committed with no recount; a later repair keeps the charged days too
+        assertThat(leaveDayFactService.isRebuilding()).isFalse();
+        leaveDayFactService.rebuild();
+
+        assertThat(facts(leaveRequest)).containsExactly(
+                Map.entry(MONDAY, new BigDecimal("1.0")),
+                Map.entry(TUESDAY, new BigDecimal("1.0")),
+                Map.entry(WEDNESDAY, new BigDecimal("1.0")));
+    }
+
+    @Test
+    void requestCountedAfterTheHolidaySkipsIt() {
+        addHoliday(TUESDAY);
+
+        LeaveRequest leaveRequest = request(MONDAY, WEDNESDAY, "1.5", false);
+        leaveDayFactService.record(leaveRequest);
+
+        assertThat(facts(leaveRequest)).containsExactly(
+                Map.entry(MONDAY, new BigDecimal("1.0")),
+                Map.entry(WEDNESDAY, new BigDecimal("0.5")));
+    }
+
+    private LeaveRequest request(LocalDate startDate, LocalDate endDate, String duration, boolean fullDay) {
+        LeaveRequest leaveRequest = testData.leaveRequest(user, leaveType, "APPROVED", startDate, endDate);
+        leaveRequest.setLeaveDuration(new BigDecimal(duration));
+        leaveRequest.setFullDay(fullDay);
+        return leaveRequestRepository.saveAndFlush(leaveRequest);
+    }
+
+    private void addHoliday(LocalDate date) {
+        calendarService.createHoliday(HolidayDTO.builder().name("Test Holiday").date(date).isRecurring(false).build());
+        // The after-commit reload never runs in a rolled-back test
+        holidayCalendar.refresh();
+    }
+
+    private Map<LocalDate, BigDecimal> facts(LeaveRequest leaveRequest) {
+        Map<LocalDate, BigDecimal> facts = new TreeMap<>();
+        jdbcTemplate.query("SELECT leave_date, day_fraction FROM leave_day_facts WHERE leave_request_id = ?",
+                rs -> {
+                    facts.put(rs.getObject("leave_date", LocalDate.class), rs.getBigDecimal("day_fraction"));
+                }, leaveRequest.getId());
+        return facts;
+    }
+}
@@ -0,0 +1,157 @@
+package com.leavemanagement.leave_management_system.service;
+
+import com.leavemanagement.leave_management_system.dto.LeaveReportDTO;
+import com.leavemanagement.leave_management_system.enums.UserRole;
+import com.leavemanagement.leave_management_system.model.LeaveType;
+import com.leavemanagement.leave_management_system.model.User;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.transaction.AfterTransaction;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Latency and heap of a one-million-row leave type report, listed in memory against streamed as NDJSON.
+ * Opt-in ({@code mvn test -Pbenchmark}); runs in a transaction that is rolled back and logs the results.
+ * The heap of the list is what it retains once built; the heap of the stream is the highest use sampled
+ * while it is written, garbage included, so it overstates rather than understates.
+ */
+@DatabaseTest
+@Tag("benchmark")
+@Transactional
+@Slf4j
+class LeaveReportDataBenchmarkTest {
+    private static final int ROWS = 1_000_000;
+    private static final int USERS = 100;
+    // A year far enough ahead that no other leave falls into it
+    private static final LocalDate START = LocalDate.of(2094, 1, 1);
+    private static final LocalDate END = LocalDate.of(2094, 12, 31);
+    private static final int SAMPLE_EVERY_ROWS = 10_000;
+
+    @Autowired
+    private ReportStatisticsService reportStatisticsService;
+    @Autowired
+    private ReferenceDataRegistry referenceData;
+    @Autowired
+    private LeaveTestData testData;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private EntityManager entityManager;
+
+    private final MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+    private LeaveType leaveType;
+
+    @BeforeEach
+    void setUp() {
+        leaveType = testData.leaveType();
+        for (int i = 0; i < USERS; i++) {
+            User user = testData.user(UserRole.STAFF);
+            insertRequests(user, i);
+        }
+        jdbcTemplate.execute("ANALYZE leave_requests");
+    }
+
+    @AfterTransaction
+    void reloadCaches() {
+        testData.refreshCaches();
+    }
+
+    @Test
+    void listedAgainstStreamedReport() throws Exception {
+        long baseline = usedHeapAfterGc();
+        long listStart = System.nanoTime();
+        List<LeaveReportDTO> listed = reportStatisticsService.getLeaveReportData("LEAVE_TYPE", leaveType.getId(), START, END);
+        long listNanos = System.nanoTime() - listStart;
+        long listRetained = usedHeapAfterGc() - baseline;
+        assertThat(listed).hasSize(ROWS);
+        listed = null;
+        // The listing left its entities in the persistence context
+        entityManager.clear();
+
+        baseline = usedHeapAfterGc();
+        SamplingOutputStream out = new SamplingOutputStream();
+        long streamStart = System.nanoTime();
+        reportStatisticsService.streamLeaveReportData("LEAVE_TYPE", leaveType.getId(), START, END, out);
+        long streamNanos = System.nanoTime() - streamStart;
+        assertThat(out.lines).isEqualTo(ROWS);
+
+        log.info("{} report rows listed in {} ms, retaining {} MB of heap", ROWS,
+                TimeUnit.NANOSECONDS.toMillis(listNanos), megabytes(listRetained));
+        log.info("{} report rows streamed in {} ms, first bytes after {} ms, at most {} MB of heap above the baseline",
+                ROWS, TimeUnit.NANOSECONDS.toMillis(streamNanos),
+                TimeUnit.NANOSECONDS.toMillis(out.firstBytesNanos - streamStart), megabytes(out.peakUsed - baseline));
+    }
+
+    /**
+     * The user's share of the requests, one to three days each, spread over the year
+     */
+    private void insertRequests(User user, int userIndex) {
+        jdbcTemplate.update("""
+                        INSERT INTO leave_requests (id, user_id, leave_type_id, status_id, start_date, end_date,
+                                                    full_day, leave_duration, reason, created_at, updated_at)
+                        SELECT gen_random_uuid(), CAST(? AS uuid), CAST(? AS uuid), CAST(? AS uuid),
+                               CAST(? AS date) + (n % 360), CAST(? AS date) + (n % 360) + (n % 3),
+                               true, (n % 3) + 1, 'Report benchmark', now(), now()
+                        FROM generate_series(?, ?) AS n
+                        """,
+                user.getId(), leaveType.getId(), referenceData.getStatus("APPROVED").id(), START, START,
+                userIndex * (ROWS / USERS) + 1, (userIndex + 1) * (ROWS / USERS));
+    }
+
+    private long usedHeapAfterGc() {
+        System.gc();
+        return memory.getHeapMemoryUsage().getUsed();
+    }
+
+    private static long megabytes(long bytes) {
+        return bytes / (1024 * 1024);
+    }
+
+    /**
+     * Discards the report, counting its lines and sampling the heap as they arrive
+     */
+    private final class SamplingOutputStream extends OutputStream {
+        private long lines;
+        private long firstBytesNanos;
+        private long peakUsed;
+
+        @Override
+        public void write(int b) {
+            if (b == '\n') {
+                line();
+            }
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            for (int i = off; i < off + len; i++) {
+                if (b[i] == '\n') {
+                    line();
+                }
+            }
+        }
+
+        private void line() {
+            if (lines++ == 0) {
+                firstBytesNanos = System.nanoTime();
+            }
+            if (lines % SAMPLE_EVERY_ROWS == 0) {
+                peakUsed = Math.max(peakUsed, memory.getHeapMemoryUsage().getUsed());
+            }
+        }
+    }
+}
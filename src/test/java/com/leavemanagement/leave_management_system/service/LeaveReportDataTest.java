@@ -0,0 +1,118 @@
+package com.leavemanagement.leave_management_system.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.leavemanagement.leave_management_system.dto.LeaveReportDTO;
+import com.leavemanagement.leave_management_system.enums.UserRole;
+import com.leavemanagement.leave_management_system.model.LeaveRequest;
+import com.leavemanagement.leave_management_system.model.LeaveType;
+import com.leavemanagement.leave_management_system.model.User;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.transaction.AfterTransaction;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Report rows are the requests overlapping the range, including leave straddling either end of it, whether
+ * listed or streamed. Runs in a transaction that is rolled back.
+ */
+@DatabaseTest
+@Transactional
+class LeaveReportDataTest {
+    // A range far enough ahead that no other leave falls into it
+    private static final LocalDate START = LocalDate.of(2091, 3, 1);
+    private static final LocalDate END = LocalDate.of(2091, 3, 31);
+
+    @Autowired
+    private ReportStatisticsService reportStatisticsService;
+    @Autowired
+    private LeaveTestData testData;
+    @Autowired
+    private EntityManager entityManager;
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private User user;
+    private LeaveType leaveType;
+    private List<UUID> overlapping;
+    private LeaveRequest otherType;
+
+    @BeforeEach
+    void setUp() {
+        user = testData.user(UserRole.STAFF);
+        leaveType = testData.leaveType();
+        overlapping = List.of(
+                request(START.plusDays(9), START.plusDays(11)),     // Inside the range
+                request(START.minusDays(3), START),                 // Ending on its first day
+                request(END, END.plusDays(4)),                      // Starting on its last day
+                request(START.minusDays(10), END.plusDays(10)));    // Covering all of it
+        request(START.minusDays(5), START.minusDays(1));            // Ending the day before
+        request(END.plusDays(1), END.plusDays(3));                  // Starting the day after
+        otherType = testData.leaveRequest(user, testData.leaveType(), "APPROVED", START.plusDays(2));
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @AfterTransaction
+    void reloadCaches() {
+        testData.refreshCaches();
+    }
+
+    @Test
+    void leaveTypeReportHasExactlyTheOverlappingRequestsOfTheType() throws Exception {
+        assertThat(ids(reportStatisticsService.getLeaveReportData("LEAVE_TYPE", leaveType.getId(), START, END)))
+                .containsExactlyInAnyOrderElementsOf(overlapping);
+        assertThat(streamedIds("LEAVE_TYPE", leaveType.getId())).containsExactlyInAnyOrderElementsOf(overlapping);
+    }
+
+    @Test
+    void employeeReportHasTheOverlappingRequestsOfEveryType() throws Exception {
+        List<UUID> expected = new ArrayList<>(overlapping);
+        expected.add(otherType.getId());
+
+        assertThat(ids(reportStatisticsService.getLeaveReportData("EMPLOYEE", user.getId(), START, END)))
+                .containsExactlyInAnyOrderElementsOf(expected);
+        assertThat(streamedIds("EMPLOYEE", user.getId())).containsExactlyInAnyOrderElementsOf(expected);
+    }
+
+    @Test
+    void companyReportHasTheOverlappingRequestsOfEveryone() throws Exception {
+        List<UUID> expected = new ArrayList<>(overlapping);
+        expected.add(otherType.getId());
+
+        assertThat(ids(reportStatisticsService.getLeaveReportData("COMPANY", null, START, END)))
+                .containsExactlyInAnyOrderElementsOf(expected);
+        assertThat(streamedIds("COMPANY", null)).containsExactlyInAnyOrderElementsOf(expected);
+    }
+
+    private UUID request(LocalDate startDate, LocalDate endDate) {
+        return testData.leaveRequest(user, leaveType, "APPROVED", startDate, endDate).getId();
+    }
+
+    private List<UUID> ids(List<LeaveReportDTO> rows) {
+        return rows.stream().map(LeaveReportDTO::getId).toList();
+    }
+
+    private List<UUID> streamedIds(String reportType, UUID entityId) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        reportStatisticsService.streamLeaveReportData(reportType, entityId, START, END, out);
+
+        List<UUID> ids = new ArrayList<>();
+        for (String line : out.toString(StandardCharsets.UTF_8).split("\n")) {
+            if (!line.isBlank()) {
+                ids.add(objectMapper.readValue(line, LeaveReportDTO.class).getId());
+            }
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,128 @@
+package com.leavemanagement.leave_management_system.service;
+
+import com.leavemanagement.leave_management_system.dto.LeaveDecisionResultDTO;
+import com.leavemanagement.leave_management_system.dto.LeaveRequestCreateDTO;
+import com.leavemanagement.leave_management_system.dto.LeaveRequestDTO;
+import com.leavemanagement.leave_management_system.dto.LeaveRequestUpdateDTO;
+import com.leavemanagement.leave_management_system.enums.UserRole;
+import com.leavemanagement.leave_management_system.model.LeaveBalance;
+import com.leavemanagement.leave_management_system.model.LeaveType;
+import com.leavemanagement.leave_management_system.model.User;
+import com.leavemanagement.leave_management_system.repository.LeaveBalanceRepository;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.transaction.AfterTransaction;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Bulk decisions by an admin on requests submitted through the service. Runs in a transaction that is rolled
+ * back, so the queued calendar and notification side effects never run.
+ */
+@DatabaseTest
+@Transactional
+@Slf4j
+class LeaveServiceBulkDecisionTest {
+    private static final int DECISIONS = 100;
+
+    @Autowired
+    private LeaveService leaveService;
+    @Autowired
+    private LeaveBalanceRepository leaveBalanceRepository;
+    @Autowired
+    private LeaveTestData testData;
+    @Autowired
+    private EntityManager entityManager;
+
+    private User staff;
+    private User admin;
+    private LeaveType leaveType;
+    private LeaveBalance balance;
+
+    @BeforeEach
+    void setUp() {
+        staff = testData.user(UserRole.STAFF);
+        admin = testData.user(UserRole.ADMIN);
+        leaveType = testData.leaveType();
+        balance = testData.balance(staff, leaveType, new BigDecimal("365"));
+    }
+
+    @AfterTransaction
+    void reloadCaches() {
+        testData.refreshCaches();
+    }
+
+    @Test
+    void hundredDecisionsApplyInOneCallWithPerItemResults() {
+        List<LeaveRequestDTO> requests = submitRequests();
+
+        // Even requests are approved, odd ones rejected, and one decision names no request
+        List<LeaveRequestUpdateDTO> decisions = new ArrayList<>(DECISIONS + 1);
+        BigDecimal approvedDays = BigDecimal.ZERO;
+        for (int i = 0; i < DECISIONS; i++) {
+            String status = i % 2 == 0 ? "APPROVED" : "REJECTED";
+            decisions.add(new LeaveRequestUpdateDTO(requests.get(i).getId(), status, "Bulk " + status));
+            if (i % 2 == 0) {
+                approvedDays = approvedDays.add(requests.get(i).getLeaveDuration());
+            }
+        }
+        UUID unknownId = UUID.randomUUID();
+        decisions.add(new LeaveRequestUpdateDTO(unknownId, "APPROVED", null));
+        entityManager.flush();
+        entityManager.clear();
+
+        long startTime = System.nanoTime();
+        List<LeaveDecisionResultDTO> results = leaveService.updateLeaveRequestStatuses(decisions, admin.getId());
+        entityManager.flush();
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime);
+        entityManager.clear();
+
+        assertThat(results).hasSize(DECISIONS + 1);
+        assertThat(results.subList(0, DECISIONS)).allMatch(LeaveDecisionResultDTO::isSuccess);
+        LeaveDecisionResultDTO unknown = results.get(DECISIONS);
+        assertThat(unknown.getRequestId()).isEqualTo(unknownId);
+        assertThat(unknown.isSuccess()).isFalse();
+        assertThat(unknown.getError()).isEqualTo("Leave request not found");
+
+        Map<String, Long> statuses = leaveService.getUserLeaveRequests(staff.getId()).stream()
+                .collect(Collectors.groupingBy(LeaveRequestDTO::getStatus, Collectors.counting()));
+        assertThat(statuses).containsEntry("APPROVED", (long) DECISIONS / 2).containsEntry("REJECTED", (long) DECISIONS / 2);
+
+        LeaveBalance row = leaveBalanceRepository.findById(balance.getId()).orElseThrow();
+        assertThat(row.getPendingDays()).isEqualByComparingTo(BigDecimal.ZERO);
+        assertThat(row.getUsedDays()).isEqualByComparingTo(approvedDays);
+        log.info("{} bulk leave decisions applied and flushed in {} ms", DECISIONS, elapsedMillis);
+    }
+
+    /**
+     * One-day requests on distinct weekdays of the current year, submitted the way employees submit them
+     */
+    private List<LeaveRequestDTO> submitRequests() {
+        List<LeaveRequestDTO> requests = new ArrayList<>(DECISIONS);
+        for (int i = 0; i < DECISIONS; i++) {
+            // Mondays first, then the Tuesdays after them
+            LocalDate day = LeaveTestData.monday(i % 50).plusDays(i / 50);
+            requests.add(leaveService.createLeaveRequest(staff.getId(), LeaveRequestCreateDTO.builder()
+                    .leaveTypeId(leaveType.getId())
+                    .startDate(day)
+                    .endDate(day)
+                    .fullDay(true)
+                    .reason("Bulk decision test")
+                    .build()));
+        }
+        return requests;
+    }
+}
@@ -0,0 +1,131 @@
+package com.leavemanagement.leave_management_system.service;
+
+import com.leavemanagement.leave_management_system.dto.LeaveRequestDTO;
+import com.leavemanagement.leave_management_system.enums.ApprovalLevel;
+import com.leavemanagement.leave_management_system.enums.ApprovalStepStatus;
+import com.leavemanagement.leave_management_system.enums.UserRole;
+import com.leavemanagement.leave_management_system.model.LeaveApprovalStep;
+import com.leavemanagement.leave_management_system.model.LeaveRequest;
+import com.leavemanagement.leave_management_system.model.LeaveType;
+import com.leavemanagement.leave_management_system.model.User;
+import com.leavemanagement.leave_management_system.repository.LeaveApprovalStepRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.transaction.AfterTransaction;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Listings must cost the same number of statements whatever the number of rows. Runs in a transaction that
+ * is rolled back; background jobs are off so they cannot add to the session factory's statement count.
+ */
+@DatabaseTest
+@TestPropertySource(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Transactional
+class LeaveServiceQueryCountTest {
+    private static final int FEW = 2;
+    private static final int MANY = 40;
+
+    @Autowired
+    private LeaveService leaveService;
+    @Autowired
+    private LeaveTestData testData;
+    @Autowired
+    private LeaveApprovalStepRepository approvalStepRepository;
+    @Autowired
+    private EntityManager entityManager;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+    private LeaveType leaveType;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        leaveType = testData.leaveType();
+    }
+
+    @Test
+    void userLeaveRequestsCostTheSameStatementsForAnyNumberOfRows() {
+        User few = userWithRequests(FEW, null);
+        User many = userWithRequests(MANY, null);
+
+        long fewStatements = statementsFor(FEW, () -> leaveService.getUserLeaveRequests(few.getId()));
+        long manyStatements = statementsFor(MANY, () -> leaveService.getUserLeaveRequests(many.getId()));
+
+        assertThat(manyStatements).isEqualTo(fewStatements);
+    }
+
+    @Test
+    void pendingApprovalsCostTheSameStatementsForAnyNumberOfRows() {
+        User fewApprover = testData.user(UserRole.MANAGER);
+        User manyApprover = testData.user(UserRole.MANAGER);
+        userWithRequests(FEW, fewApprover);
+        userWithRequests(MANY, manyApprover);
+
+        long fewStatements = statementsFor(FEW, () -> leaveService.getPendingApprovals(fewApprover.getId()));
+        long manyStatements = statementsFor(MANY, () -> leaveService.getPendingApprovals(manyApprover.getId()));
+
+        assertThat(manyStatements).isEqualTo(fewStatements);
+    }
+
+    @Test
+    void singleLeaveRequestIsOneStatement() {
+        LeaveRequest leaveRequest = testData.leaveRequest(
+                testData.user(UserRole.STAFF), leaveType, "PENDING", LeaveTestData.monday(1));
+
+        long statements = statementsFor(1, () -> List.of(leaveService.getLeaveRequest(leaveRequest.getId())));
+
+        assertThat(statements).isEqualTo(1);
+    }
+
+    @AfterTransaction
+    void reloadCaches() {
+        testData.refreshCaches();
+    }
+
+    /**
+     * A staff member with the given number of pending one-day requests, each awaiting the approver if given
+     */
+    private User userWithRequests(int requests, User approver) {
+        User user = testData.user(UserRole.STAFF);
+        for (int i = 0; i < requests; i++) {
+            LeaveRequest leaveRequest = testData.leaveRequest(user, leaveType, "PENDING", LeaveTestData.monday(i));
+            if (approver != null) {
+                approvalStepRepository.save(LeaveApprovalStep.builder()
+                        .leaveRequestId(leaveRequest.getId())
+                        .stepOrder(0)
+                        .level(ApprovalLevel.MANAGER)
+                        .approverId(approver.getId())
+                        .status(ApprovalStepStatus.PENDING)
+                        .build());
+            }
+        }
+        return user;
+    }
+
+    /**
+     * Statements prepared by a listing, read with an empty persistence context so nothing is served from it
+     */
+    private long statementsFor(int expectedRows, Supplier<List<LeaveRequestDTO>> listing) {
+        entityManager.flush();
+        entityManager.clear();
+        statistics.clear();
+
+        List<LeaveRequestDTO> rows = listing.get();
+
+        assertThat(rows).hasSize(expectedRows);
+        return statistics.getPrepareStatementCount();
+    }
+}
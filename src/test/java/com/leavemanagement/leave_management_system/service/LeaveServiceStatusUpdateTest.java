@@ -0,0 +1,111 @@
+package com.leavemanagement.leave_management_system.service;
+
+import com.leavemanagement.leave_management_system.dto.LeaveDecisionResultDTO;
+import com.leavemanagement.leave_management_system.dto.LeaveRequestCreateDTO;
+import com.leavemanagement.leave_management_system.dto.LeaveRequestDTO;
+import com.leavemanagement.leave_management_system.dto.LeaveRequestUpdateDTO;
+import com.leavemanagement.leave_management_system.enums.UserRole;
+import com.leavemanagement.leave_management_system.exceptions.GlobalExceptionHandler;
+import com.leavemanagement.leave_management_system.exceptions.InvalidLeaveStatusException;
+import com.leavemanagement.leave_management_system.model.LeaveType;
+import com.leavemanagement.leave_management_system.model.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.test.context.transaction.AfterTransaction;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * A decision naming an unknown or no status is a client error, answered with 400, and leaves the request as
+ * it was. Runs in a transaction that is rolled back.
+ */
+@DatabaseTest
+@Transactional
+class LeaveServiceStatusUpdateTest {
+
+    @Autowired
+    private LeaveService leaveService;
+    @Autowired
+    private LeaveTestData testData;
+    @Autowired
+    private GlobalExceptionHandler exceptionHandler;
+
+    private User admin;
+    private LeaveRequestDTO request;
+
+    @BeforeEach
+    void setUp() {
+        User staff = testData.user(UserRole.STAFF);
+        admin = testData.user(UserRole.ADMIN);
+        LeaveType leaveType = testData.leaveType();
+        testData.balance(staff, leaveType, new BigDecimal("20"));
+
+        LocalDate day = LeaveTestData.monday(1);
+        request = leaveService.createLeaveRequest(staff.getId(), LeaveRequestCreateDTO.builder()
+                .leaveTypeId(leaveType.getId())
+                .startDate(day)
+                .endDate(day)
+                .fullDay(true)
+                .reason("Status validation test")
+                .build());
+    }
+
+    @AfterTransaction
+    void reloadCaches() {
+        testData.refreshCaches();
+    }
+
+    @Test
+    void unknownStatusIsRejectedAsBadRequest() {
+        LeaveRequestUpdateDTO decision = new LeaveRequestUpdateDTO(request.getId(), "ON_HOLD", null);
+
+        assertThatThrownBy(() -> leaveService.updateLeaveRequestStatus(request.getId(), decision, admin.getId()))
+                .isInstanceOf(InvalidLeaveStatusException.class)
+                .hasMessage("Unknown leave request status: ON_HOLD");
+        assertThat(leaveService.getLeaveRequest(request.getId()).getStatus()).isEqualTo("PENDING");
+    }
+
+    @Test
+    void missingStatusIsRejectedAsBadRequest() {
+        LeaveRequestUpdateDTO decision = new LeaveRequestUpdateDTO(request.getId(), null, null);
+
+        assertThatThrownBy(() -> leaveService.updateLeaveRequestStatus(request.getId(), decision, admin.getId()))
+                .isInstanceOf(InvalidLeaveStatusException.class);
+        assertThat(leaveService.getLeaveRequest(request.getId()).getStatus()).isEqualTo("PENDING");
+    }
+
+    @Test
+    void invalidStatusMapsToBadRequest() {
+        MockHttpServletRequest servletRequest = new MockHttpServletRequest("PUT", "/api/v1/leaves/requests/" + request.getId());
+
+        ResponseEntity<Map<String, Object>> response = exceptionHandler.handleInvalidLeaveStatusException(
+                new InvalidLeaveStatusException("Unknown leave request status: ON_HOLD"), new ServletWebRequest(servletRequest));
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+        assertThat(response.getBody()).containsEntry("message", "Unknown leave request status: ON_HOLD");
+    }
+
+    @Test
+    void bulkDecisionWithUnknownStatusFailsOnlyThatItem() {
+        List<LeaveDecisionResultDTO> results = leaveService.updateLeaveRequestStatuses(
+                List.of(new LeaveRequestUpdateDTO(request.getId(), "ON_HOLD", null)), admin.getId());
+
+        assertThat(results).singleElement().satisfies(result -> {
+            assertThat(result.isSuccess()).isFalse();
+            assertThat(result.getError()).isEqualTo("Unknown leave request status: ON_HOLD");
+        });
+        assertThat(leaveService.getLeaveRequest(request.getId()).getStatus()).isEqualTo("PENDING");
+    }
+}
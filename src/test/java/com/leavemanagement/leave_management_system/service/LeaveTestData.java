@@ -0,0 +1,196 @@
+package com.leavemanagement.leave_management_system.service;
+
+import com.leavemanagement.leave_management_system.enums.LeaveBalanceTransactionType;
+import com.leavemanagement.leave_management_system.enums.UserRole;
+import com.leavemanagement.leave_management_system.model.Department;
+import com.leavemanagement.leave_management_system.model.LeaveBalance;
+import com.leavemanagement.leave_management_system.model.LeaveRequest;
+import com.leavemanagement.leave_management_system.model.LeaveType;
+import com.leavemanagement.leave_management_system.model.User;
+import com.leavemanagement.leave_management_system.repository.DepartmentRepository;
+import com.leavemanagement.leave_management_system.repository.LeaveBalanceRepository;
+import com.leavemanagement.leave_management_system.repository.LeaveRequestRepository;
+import com.leavemanagement.leave_management_system.repository.LeaveTypeRepository;
+import com.leavemanagement.leave_management_system.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.test.context.TestComponent;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.TemporalAdjusters;
+import java.util.UUID;
+
+/**
+ * Users, departments, leave types, balances and leave requests for tests that run against the database.
+ * Names and emails are unique per call, so tests do not depend on what else the database holds.
+ */
+@TestComponent
+@RequiredArgsConstructor
+class LeaveTestData {
+    private final UserRepository userRepository;
+    private final DepartmentRepository departmentRepository;
+    private final LeaveTypeRepository leaveTypeRepository;
+    private final LeaveBalanceRepository leaveBalanceRepository;
+    private final LeaveRequestRepository leaveRequestRepository;
+    private final LeaveBalanceLedgerService ledgerService;
+    private final ReferenceDataRegistry referenceData;
+    private final OrgHierarchyCache orgHierarchy;
+    private final JdbcTemplate jdbcTemplate;
+
+    User user(UserRole role) {
+        return user(role, LocalDate.now().withDayOfYear(1));
+    }
+
+    User user(UserRole role, LocalDate hireDate) {
+        return user(role, hireDate, null, null);
+    }
+
+    /**
+     * A user reporting to the given manager in the given department, either of which may be null
+     */
+    User user(UserRole role, User manager, Department department) {
+        return user(role, LocalDate.now().withDayOfYear(1), manager, department);
+    }
+
+    private User user(UserRole role, LocalDate hireDate, User manager, Department department) {
+        String suffix = UUID.randomUUID().toString();
+        // Flushed, so the org hierarchy reloads with the user in it
+        User user = userRepository.saveAndFlush(User.builder()
+                .email("test-" + suffix + "@example.com")
+                .fullName("Test User " + suffix.substring(0, 8))
+                .password("not-a-password")
+                .role(role)
+                .hireDate(hireDate)
+                .manager(manager)
+                .department(department)
+                .build());
+        orgHierarchy.refresh();
+        return user;
+    }
+
+    Department department(User head) {
+        Department department = departmentRepository.saveAndFlush(Department.builder()
+                .name("Test Department " + UUID.randomUUID().toString().substring(0, 8))
+                .head(head)
+                .build());
+        orgHierarchy.refresh();
+        return department;
+    }
+
+    LeaveType leaveType() {
+        return leaveType(365);
+    }
+
+    LeaveType leaveType(int maxDays) {
+        LeaveType leaveType = leaveTypeRepository.save(LeaveType.builder()
+                .name("Test Leave " + UUID.randomUUID().toString().substring(0, 8))
+                .accrualRate(new BigDecimal("2.00"))
+                .requiresDoc(false)
+                .maxDays(maxDays)
+                .isActive(true)
+                .build());
+        referenceData.refresh();
+        return leaveType;
+    }
+
+    /**
+     * A current-year balance with its opening ledger entry, as provisioning creates it
+     */
+    LeaveBalance balance(User user, LeaveType leaveType, BigDecimal totalDays) {
+        LeaveBalance balance = leaveBalanceRepository.save(LeaveBalance.builder()
+                .user(user)
+                .leaveType(leaveType)
+                .year(LocalDate.now().getYear())
+                .totalDays(totalDays)
+                .usedDays(BigDecimal.ZERO)
+                .pendingDays(BigDecimal.ZERO)
+                .adjustmentDays(BigDecimal.ZERO)
+                .accruedDays(totalDays)
+                .carriedOverDays(BigDecimal.ZERO)
+                .build());
+        ledgerService.record(balance.getId(), LeaveBalanceTransactionType.ACCRUAL,
+                totalDays, BigDecimal.ZERO, BigDecimal.ZERO, null, "Opening entitlement");
+        return balance;
+    }
+
+    /**
+     * A balance of the given year that has accrued nothing yet, as the monthly accrual finds it
+     */
+    LeaveBalance accruingBalance(User user, LeaveType leaveType, int year) {
+        return leaveBalanceRepository.save(LeaveBalance.builder()
+                .user(user)
+                .leaveType(leaveType)
+                .year(year)
+                .totalDays(BigDecimal.ZERO)
+                .usedDays(BigDecimal.ZERO)
+                .pendingDays(BigDecimal.ZERO)
+                .adjustmentDays(BigDecimal.ZERO)
+                .accruedDays(BigDecimal.ZERO)
+                .carriedOverDays(BigDecimal.ZERO)
+                .build());
+    }
+
+    /**
+     * A one-day request on the given day, saved as is: no balance is reserved and no approval is routed
+     */
+    LeaveRequest leaveRequest(User user, LeaveType leaveType, String status, LocalDate date) {
+        return leaveRequest(user, leaveType, status, date, date);
+    }
+
+    /**
+     * A request over the given days, saved as is with a duration of one day
+     */
+    LeaveRequest leaveRequest(User user, LeaveType leaveType, String status, LocalDate startDate, LocalDate endDate) {
+        return leaveRequestRepository.save(LeaveRequest.builder()
+                .user(user)
+                .leaveType(leaveType)
+                .status(referenceData.statusReference(status))
+                .startDate(startDate)
+                .endDate(endDate)
+                .fullDay(true)
+                .leaveDuration(BigDecimal.ONE)
+                .reason("Test")
+                .build());
+    }
+
+    /**
+     * The n-th Monday of the current year from the first one, so one-day requests never fall on a weekend
+     */
+    static LocalDate monday(int n) {
+        return LocalDate.now().withDayOfYear(1).with(TemporalAdjusters.firstInMonth(DayOfWeek.MONDAY)).plusWeeks(n);
+    }
+
+    /**
+     * Remove a committed balance together with its ledger entries and snapshots
+     */
+    void deleteBalance(LeaveBalance balance) {
+        jdbcTemplate.update("DELETE FROM leave_balance_snapshots WHERE balance_id = ?", balance.getId());
+        jdbcTemplate.update("DELETE FROM leave_balance_transactions WHERE balance_id = ?", balance.getId());
+        jdbcTemplate.update("DELETE FROM leave_balances WHERE id = ?", balance.getId());
+    }
+
+    void deleteUser(User user) {
+        jdbcTemplate.update("DELETE FROM users WHERE id = ?", user.getId());
+        orgHierarchy.refresh();
+    }
+
+    void deleteDepartment(Department department) {
+        jdbcTemplate.update("DELETE FROM departments WHERE id = ?", department.getId());
+        orgHierarchy.refresh();
+    }
+
+    /**
+     * Reload the in-memory reference data and org hierarchy, dropping what a rolled-back test added to them
+     */
+    void refreshCaches() {
+        referenceData.refresh();
+        orgHierarchy.refresh();
+    }
+
+    void deleteLeaveType(LeaveType leaveType) {
+        jdbcTemplate.update("DELETE FROM leave_types WHERE id = ?", leaveType.getId());
+        referenceData.refresh();
+    }
+}
@@ -0,0 +1,159 @@
+package com.leavemanagement.leave_management_system.service;
+
+import com.leavemanagement.leave_management_system.dto.LeaveStatisticsDTO;
+import com.leavemanagement.leave_management_system.model.Department;
+import com.leavemanagement.leave_management_system.model.LeaveType;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.AopTestUtils;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Company statistics over two million leave day facts, by number of shared query permits, for one request
+ * at a time and for concurrent requests. Opt-in ({@code mvn test -Pbenchmark}); logs the timings. The
+ * partitions run on their own connections, so the facts are committed to the test container and removed
+ * afterwards.
+ */
+@DatabaseTest
+@Tag("benchmark")
+@Slf4j
+class ReportStatisticsBenchmarkTest {
+    private static final int DEPARTMENTS = 20;
+    // Per department, plus as many without a department
+    private static final int FACTS_PER_DEPARTMENT = 100_000;
+    private static final int FACTS = (DEPARTMENTS + 1) * FACTS_PER_DEPARTMENT;
+    // A year far enough ahead that no other leave falls into it
+    private static final LocalDate START = LocalDate.of(2093, 1, 1);
+    private static final LocalDate END = LocalDate.of(2093, 12, 31);
+    private static final int RUNS = 5;
+    private static final int CONCURRENT_REQUESTS = 8;
+
+    @Autowired
+    private ReportStatisticsService reportStatisticsService;
+    @Autowired
+    private ReportStatisticsCache reportStatisticsCache;
+    @Autowired
+    private ReferenceDataRegistry referenceData;
+    @Autowired
+    private LeaveTestData testData;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private ReportStatisticsService target;
+    private int defaultMaxParallelQueries;
+    private final List<Department> departments = new ArrayList<>();
+    private LeaveType leaveType;
+
+    @BeforeEach
+    void setUp() {
+        target = AopTestUtils.getUltimateTargetObject(reportStatisticsService);
+        defaultMaxParallelQueries = (int) ReflectionTestUtils.getField(target, "maxParallelQueries");
+
+        leaveType = testData.leaveType();
+        for (int i = 0; i < DEPARTMENTS; i++) {
+            departments.add(testData.department(null));
+        }
+        for (Department department : departments) {
+            insertFacts(department);
+        }
+        insertFacts(null);
+        jdbcTemplate.execute("ANALYZE leave_day_facts");
+    }
+
+    @AfterEach
+    void tearDown() {
+        ReflectionTestUtils.setField(target, "maxParallelQueries", defaultMaxParallelQueries);
+        target.initializePartitionPermits();
+        reportStatisticsCache.evictAllAfterCommit();
+
+        jdbcTemplate.update("DELETE FROM leave_day_facts WHERE leave_type_id = ?", leaveType.getId());
+        for (Department department : departments) {
+            testData.deleteDepartment(department);
+        }
+        testData.deleteLeaveType(leaveType);
+    }
+
+    @Test
+    void companyStatisticsByQueryPermits() {
+        int connectionPoolSize = (int) ReflectionTestUtils.getField(target, "connectionPoolSize");
+        for (int permits : new int[]{0, 1, 2, 4}) {
+            ReflectionTestUtils.setField(target, "maxParallelQueries", permits);
+            target.initializePartitionPermits();
+            // Warm up the plan and the buffers
+            statistics();
+
+            long[] runs = new long[RUNS];
+            for (int i = 0; i < RUNS; i++) {
+                runs[i] = timed(this::statistics);
+            }
+            Arrays.sort(runs);
+            long concurrent = timed(this::concurrentStatistics);
+
+            log.info("Company statistics over {} facts, {} of {} permits allowed by a pool of {}: " +
+                            "one request {} ms (median of {}), {} concurrent requests {} ms",
+                    FACTS, permits, Math.min(permits, connectionPoolSize / 2), connectionPoolSize,
+                    TimeUnit.NANOSECONDS.toMillis(runs[RUNS / 2]), RUNS,
+                    CONCURRENT_REQUESTS, TimeUnit.NANOSECONDS.toMillis(concurrent));
+        }
+    }
+
+    private void statistics() {
+        // Computed every time rather than served from the cache
+        reportStatisticsCache.evictAllAfterCommit();
+        LeaveStatisticsDTO statistics = reportStatisticsService.getCompanyLeaveStatistics(START, END);
+        assertThat(statistics.getApprovedRequests()).isEqualTo(FACTS);
+        assertThat(statistics.getTotalLeaveDays()).isEqualByComparingTo(String.valueOf(FACTS));
+    }
+
+    private void concurrentStatistics() {
+        reportStatisticsCache.evictAllAfterCommit();
+        List<Future<LeaveStatisticsDTO>> results = new ArrayList<>(CONCURRENT_REQUESTS);
+        try (ExecutorService executor = Executors.newFixedThreadPool(CONCURRENT_REQUESTS)) {
+            for (int i = 0; i < CONCURRENT_REQUESTS; i++) {
+                // Distinct keys, so no request is answered from another's cached result
+                LocalDate endDate = END.minusDays(i);
+                results.add(executor.submit(() -> reportStatisticsService.getCompanyLeaveStatistics(START, endDate)));
+            }
+        }
+        for (Future<LeaveStatisticsDTO> result : results) {
+            assertThat(result).succeedsWithin(0, TimeUnit.SECONDS);
+        }
+    }
+
+    /**
+     * One approved full day per leave request, spread over the year
+     */
+    private void insertFacts(Department department) {
+        jdbcTemplate.update("""
+                        INSERT INTO leave_day_facts (id, leave_request_id, leave_date, user_id, department_id,
+                                                     leave_type_id, status_id, day_fraction)
+                        SELECT gen_random_uuid(), gen_random_uuid(), CAST(? AS date) + (n % 365), gen_random_uuid(),
+                               CAST(? AS uuid), CAST(? AS uuid), CAST(? AS uuid), 1.0
+                        FROM generate_series(1, ?) AS n
+                        """,
+                START, department != null ? department.getId() : null, leaveType.getId(),
+                referenceData.getStatus("APPROVED").id(), FACTS_PER_DEPARTMENT);
+    }
+
+    private static long timed(Runnable work) {
+        long startTime = System.nanoTime();
+        work.run();
+        return System.nanoTime() - startTime;
+    }
+}
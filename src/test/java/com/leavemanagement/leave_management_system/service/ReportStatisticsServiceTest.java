@@ -0,0 +1,251 @@
+package com.leavemanagement.leave_management_system.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.leavemanagement.leave_management_system.controller.ReportController;
+import com.leavemanagement.leave_management_system.dto.LeaveReportRowDTO;
+import com.leavemanagement.leave_management_system.dto.LeaveStatisticsDTO;
+import com.leavemanagement.leave_management_system.exceptions.InvalidReportRequestException;
+import com.leavemanagement.leave_management_system.repository.DepartmentRepository;
+import com.leavemanagement.leave_management_system.repository.LeaveRequestRepository;
+import com.leavemanagement.leave_management_system.repository.LeaveTypeRepository;
+import com.leavemanagement.leave_management_system.repository.UserRepository;
+import com.leavemanagement.leave_management_system.util.SecurityUtils;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class ReportStatisticsServiceTest {
+    private static final LocalDate START = LocalDate.of(2024, 1, 1);
+    private static final LocalDate END = LocalDate.of(2024, 12, 31);
+    // Large enough that a report held in memory would be obvious
+    private static final int REPORT_ROWS = 200_000;
+
+    private static final UUID LEAVE_TYPE_ID = UUID.randomUUID();
+
+    private LeaveRequestRepository leaveRequestRepository;
+    private ReferenceDataRegistry referenceData;
+    private NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+    private ReportStatisticsCache reportStatisticsCache;
+    private ReportStatisticsService reportStatisticsService;
+
+    @BeforeEach
+    void setUp() {
+        leaveRequestRepository = mock(LeaveRequestRepository.class);
+        referenceData = mock(ReferenceDataRegistry.class);
+        namedParameterJdbcTemplate = mock(NamedParameterJdbcTemplate.class);
+        reportStatisticsCache = mock(ReportStatisticsCache.class);
+        reportStatisticsService = new ReportStatisticsService(
+                leaveRequestRepository,
+                mock(UserRepository.class),
+                mock(DepartmentRepository.class),
+                mock(LeaveTypeRepository.class),
+                mock(BusinessDayCalendar.class),
+                referenceData,
+                namedParameterJdbcTemplate,
+                reportStatisticsCache,
+                new ObjectMapper().findAndRegisterModules());
+    }
+
+    @Test
+    void streamWritesEachRowBeforeReadingFarAhead() throws Exception {
+        LineCountingOutputStream out = new LineCountingOutputStream();
+        AtomicLong read = new AtomicLong();
+        AtomicLong maxUnwritten = new AtomicLong();
+        AtomicBoolean closed = new AtomicBoolean();
+        Stream<LeaveReportRowDTO> rows = Stream.generate(() -> {
+                    maxUnwritten.accumulateAndGet(read.getAndIncrement() - out.lines.get(), Math::max);
+                    return row();
+                })
+                .limit(REPORT_ROWS)
+                .onClose(() -> closed.set(true));
+        when(leaveRequestRepository.streamReportRowsByDateRange(START, END)).thenReturn(rows);
+
+        reportStatisticsService.streamLeaveReportData("COMPANY", null, START, END, out);
+
+        assertThat(out.lines.get()).isEqualTo(REPORT_ROWS);
+        assertThat(closed).isTrue();
+        // At most one flush interval of rows is ever waiting to be written, whatever the report size
+        assertThat(maxUnwritten.get()).isLessThanOrEqualTo(500);
+    }
+
+    @Test
+    void invalidReportTypeIsRejectedBeforeTheStreamStarts() {
+        ReportController controller = new ReportController(
+                reportStatisticsService, mock(ReportExportService.class), mock(SecurityUtils.class));
+
+        assertThatThrownBy(() -> controller.streamLeaveReportData("TEAM", UUID.randomUUID(), START, END))
+                .isInstanceOf(InvalidReportRequestException.class)
+                .hasMessage("Invalid report type: TEAM");
+        verifyNoInteractions(leaveRequestRepository);
+    }
+
+    @Test
+    void reversedDateRangeIsRejectedBeforeTheStreamStarts() {
+        ReportController controller = new ReportController(
+                reportStatisticsService, mock(ReportExportService.class), mock(SecurityUtils.class));
+
+        assertThatThrownBy(() -> controller.streamCompanyReportData(END, START))
+                .isInstanceOf(InvalidReportRequestException.class)
+                .hasMessage("End date is before start date");
+        verifyNoInteractions(leaveRequestRepository);
+    }
+
+    @Test
+    void reportTypeIsCaseInsensitive() {
+        reportStatisticsService.validateReportRequest("leave_type", START, START);
+        when(leaveRequestRepository.findForReportByUser(any(), any(), any())).thenReturn(List.of());
+
+        assertThat(reportStatisticsService.getLeaveReportData("employee", UUID.randomUUID(), START, END)).isEmpty();
+    }
+
+    @Test
+    void companyStatisticsMergeEveryPartitionWhetherParallelOrInline() throws Exception {
+        stubCompanyQueries(20, 0, new AtomicInteger(), new AtomicInteger());
+
+        for (int permits : new int[]{0, 1, 5}) {
+            configurePartitions(4, permits, 10);
+            LeaveStatisticsDTO statistics = reportStatisticsService.getCompanyLeaveStatistics(START, END);
+
+            // Four department groups and the leave without a department, one approved day each
+            assertThat(statistics.getApprovedRequests()).isEqualTo(5);
+            assertThat(statistics.getTotalLeaveDays()).isEqualByComparingTo("5");
+            assertThat(statistics.getMonthlyDistribution().values())
+                    .anySatisfy(days -> assertThat(days).isEqualByComparingTo("5"));
+        }
+    }
+
+    @Test
+    void concurrentCompanyRequestsShareTheQueryPermits() throws Exception {
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger peak = new AtomicInteger();
+        stubCompanyQueries(20, 20, running, peak);
+        configurePartitions(4, 2, 10);
+        int requests = 8;
+
+        List<Future<LeaveStatisticsDTO>> results = new ArrayList<>(requests);
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < requests; i++) {
+                results.add(executor.submit(() -> reportStatisticsService.getCompanyLeaveStatistics(START, END)));
+            }
+        }
+
+        for (Future<LeaveStatisticsDTO> result : results) {
+            assertThat(result.get().getApprovedRequests()).isEqualTo(5);
+        }
+        // One connection per request plus the two shared permits, instead of five per request
+        assertThat(peak.get()).isLessThanOrEqualTo(requests + 2);
+    }
+
+    @Test
+    void queryPermitsAreCappedAtHalfThePool() throws Exception {
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger peak = new AtomicInteger();
+        stubCompanyQueries(20, 20, running, peak);
+        configurePartitions(4, 16, 4);
+
+        reportStatisticsService.getCompanyLeaveStatistics(START, END);
+
+        assertThat(peak.get()).isLessThanOrEqualTo(1 + 2);
+    }
+
+    private void configurePartitions(int partitions, int maxParallelQueries, int connectionPoolSize) {
+        ReflectionTestUtils.setField(reportStatisticsService, "companyPartitions", partitions);
+        ReflectionTestUtils.setField(reportStatisticsService, "maxParallelQueries", maxParallelQueries);
+        ReflectionTestUtils.setField(reportStatisticsService, "connectionPoolSize", connectionPoolSize);
+        reportStatisticsService.initializePartitionPermits();
+    }
+
+    /**
+     * Every aggregation query returns one approved day of one leave type in March, after the given delay
+     */
+    private void stubCompanyQueries(int departments, long queryMillis, AtomicInteger running, AtomicInteger peak)
+            throws Exception {
+        List<UUID> departmentIds = Stream.generate(UUID::randomUUID).limit(departments).sorted().toList();
+        JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+        when(namedParameterJdbcTemplate.getJdbcTemplate()).thenReturn(jdbcTemplate);
+        when(jdbcTemplate.queryForList(anyString(), eq(UUID.class))).thenReturn(departmentIds);
+        when(referenceData.getStatus("APPROVED")).thenReturn(
+                new ReferenceDataRegistry.StatusEntry(UUID.randomUUID(), "APPROVED"));
+        when(referenceData.getLeaveType(LEAVE_TYPE_ID)).thenReturn(new ReferenceDataRegistry.LeaveTypeEntry(
+                LEAVE_TYPE_ID, "Annual Leave", null, BigDecimal.ONE, false, null, true));
+        when(reportStatisticsCache.get(any(), any())).thenAnswer(invocation -> new ReportStatisticsCache.Result(
+                invocation.<Supplier<LeaveStatisticsDTO>>getArgument(1).get(), "W/\"test\""));
+
+        ResultSet row = mock(ResultSet.class);
+        when(row.getObject("leave_type_id", UUID.class)).thenReturn(LEAVE_TYPE_ID);
+        when(row.getLong("requests")).thenReturn(1L);
+        when(row.getLong("approved")).thenReturn(1L);
+        when(row.getInt("month")).thenReturn(3);
+        when(row.getBigDecimal("days")).thenReturn(BigDecimal.ONE);
+        doAnswer(invocation -> {
+            peak.accumulateAndGet(running.incrementAndGet(), Math::max);
+            try {
+                Thread.sleep(queryMillis);
+                invocation.<RowCallbackHandler>getArgument(2).processRow(row);
+            } finally {
+                running.decrementAndGet();
+            }
+            return null;
+        }).when(namedParameterJdbcTemplate)
+                .query(anyString(), any(SqlParameterSource.class), any(RowCallbackHandler.class));
+    }
+
+    private static LeaveReportRowDTO row() {
+        return new LeaveReportRowDTO(UUID.randomUUID(), "Ama Mensah", "ama.mensah@example.com", "Engineering",
+                "Annual Leave", START, START.plusDays(4), "APPROVED", new BigDecimal("5.0"), true,
+                "Family visit", null);
+    }
+
+    /**
+     * Discards the report, counting what reached it
+     */
+    private static class LineCountingOutputStream extends OutputStream {
+        private final AtomicLong lines = new AtomicLong();
+
+        @Override
+        public void write(int b) {
+            if (b == '\n') {
+                lines.incrementAndGet();
+            }
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            for (int i = off; i < off + len; i++) {
+                if (b[i] == '\n') {
+                    lines.incrementAndGet();
+                }
+            }
+        }
+    }
+}